@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.geometry.Dimension2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.rayrobdod.fightStage.AggregateSideParams;
+import name.rayrobdod.fightStage.AttackModifier;
+import name.rayrobdod.fightStage.BackgroundCache;
+import name.rayrobdod.fightStage.BattleAnimation;
+import name.rayrobdod.fightStage.BattleStage;
+import name.rayrobdod.fightStage.NodeAnimationPair;
+import name.rayrobdod.fightStage.Side;
+import name.rayrobdod.fightStage.Strike;
+import name.rayrobdod.fightStage.background.Field;
+
+/**
+ * Measures the time and allocations needed to build a battle animation.
+ * <p>
+ * The unit and spell parameters are display names from the `PreviewerSpi`
+ * providers; any name those providers supply can be passed with JMH's `-p`
+ * option. Run with the `gc` profiler to see allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuildAnimationBenchmark {
+	private static final Dimension2D containerSize = new Dimension2D(480, 320);
+	private static final double verticalDistance = 200;
+	
+	@Param({"1", "4", "16", "64"})
+	public int strikeCount;
+	
+	@Param({"0", "1", "3"})
+	public int modifierCount;
+	
+	@Param({"SwordGuy", "MageGuy"})
+	public String unitName;
+	
+	@Param({"Physical Hit", "Fire/Fireball", "Light/Atom"})
+	public String spellName;
+	
+	private AggregateSideParams left;
+	private AggregateSideParams right;
+	private List<Strike> strikes;
+	private BattleStage stage;
+	private Function<Dimension2D, Node> cachedBackground;
+	
+	@Setup(Level.Trial)
+	public void setup() throws InterruptedException {
+		HeadlessFx.start();
+		
+		final Set<AttackModifier> modifiers = new HashSet<>();
+		for (int i = 0; i < modifierCount; i++) {
+			modifiers.add(new AttackModifier("Modifier " + i));
+		}
+		
+		this.strikes = new ArrayList<>(strikeCount);
+		for (int i = 0; i < strikeCount; i++) {
+			this.strikes.add(new Strike((i % 2 == 0 ? Side.LEFT : Side.RIGHT), 1, 0, modifiers, modifiers));
+		}
+		
+		// the hitpoints are high enough that nobody dies before the last strike
+		this.left = new AggregateSideParams(
+			Groups.unit(unitName).get(), Groups.spell(spellName).get(), Color.BLUE,
+			"Left", "Weapon", new Group(),
+			strikeCount + 10, strikeCount + 10
+		);
+		this.right = new AggregateSideParams(
+			Groups.unit(unitName).get(), Groups.spell(spellName).get(), Color.RED,
+			"Right", "Weapon", new Group(),
+			strikeCount + 10, strikeCount + 10
+		);
+		this.stage = new BattleStage(Field::buildGroup, containerSize, verticalDistance);
+		this.cachedBackground = new BackgroundCache<String>(x -> Field::buildGroup, false, 1).forTerrain("Field");
+	}
+	
+	/** Builds a battle, including a new stage, from scratch */
+	@Benchmark
+	public NodeAnimationPair buildAnimation() {
+		return BattleAnimation.buildAnimation(Field::buildGroup, containerSize, verticalDistance, left, right, strikes);
+	}
+	
+	/** Builds a battle, including a new stage, with a background which is reused between battles */
+	@Benchmark
+	public NodeAnimationPair buildAnimationCachedBackground() {
+		return BattleAnimation.buildAnimation(cachedBackground, containerSize, verticalDistance, left, right, strikes);
+	}
+	
+	/** Builds a battle on a stage which is reused between battles */
+	@Benchmark
+	public Animation prepareReusedStage() {
+		return stage.prepare(left, right, strikes);
+	}
+}
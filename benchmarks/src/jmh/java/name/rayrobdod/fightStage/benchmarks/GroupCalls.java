@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import java.util.Collections;
+
+import javafx.animation.Animation;
+import javafx.geometry.Point2D;
+
+import name.rayrobdod.fightStage.Animations;
+import name.rayrobdod.fightStage.BattlePanAnimations;
+import name.rayrobdod.fightStage.ConsecutiveAttackDescriptor;
+import name.rayrobdod.fightStage.RolloverState;
+import name.rayrobdod.fightStage.ShakeAnimationBiFunction;
+import name.rayrobdod.fightStage.Side;
+import name.rayrobdod.fightStage.SpellAnimationGroup;
+import name.rayrobdod.fightStage.UnitAnimationGroup;
+
+/**
+ * Calls an animation group's animation-producing method with a typical set of arguments
+ */
+final class GroupCalls {
+	private GroupCalls() {}
+	
+	private static final Point2D leftPoint = new Point2D(-100, 0);
+	private static final Point2D rightPoint = new Point2D(100, 0);
+	
+	/** Returns the spell's animation for an attack from a left-side unit against a right-side unit */
+	public static Animation getAnimation(SpellAnimationGroup spell) {
+		return spell.getAnimation(
+			leftPoint,
+			rightPoint,
+			BattlePanAnimations.nil(),
+			ShakeAnimationBiFunction.nil(),
+			Animations.nil()
+		);
+	}
+	
+	/** Returns the unit's animation for a lone, unmodified attack from the left side */
+	public static Animation getAnimation(UnitAnimationGroup unit) {
+		final RolloverState rolloverState = unit.getInitializingRolloverState(Side.LEFT, leftPoint);
+		return unit.getAttackAnimation(
+			  origin -> Animations.nil()
+			, rolloverState
+			, rightPoint
+			, new ConsecutiveAttackDescriptor(1, 1)
+			, Collections.emptySet()
+			, false
+		);
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import java.io.PrintStream;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javafx.animation.Animation;
+import javafx.animation.ParallelTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+import name.rayrobdod.fightStage.SpellAnimationGroup;
+import name.rayrobdod.fightStage.UnitAnimationGroup;
+import name.rayrobdod.fightStage.previewer.spi.NameSupplierPair;
+
+/**
+ * Prints a table describing the cost of each animation group supplied by the
+ * `PreviewerSpi` service providers: the time to construct the group, the time
+ * to create an animation from the group, the heap retained by a group, the
+ * number of nodes in the group's layers and the number of KeyFrames in the
+ * group's animation.
+ * <p>
+ * The times are the median of several runs after a warmup; for more rigorous
+ * times, see {@link SpellAnimationGroupBenchmark} and {@link UnitAnimationGroupBenchmark}.
+ * The retained heap excludes anything that is shared between instances, such
+ * as static caches, and is only accurate to several KiB; small negative
+ * measurements are reported as zero.
+ */
+public final class GroupCensus {
+	private GroupCensus() {}
+	
+	private static final int WARMUP_RUNS = 5;
+	private static final int MEASURED_RUNS = 15;
+	/**
+	 * the number of instances held at once while measuring retained heap;
+	 * fewer for groups whose construction takes longer than {@link #SLOW_CONSTRUCT_MICROS}
+	 */
+	private static final int HEAP_COPIES = 32;
+	private static final int SLOW_HEAP_COPIES = 2;
+	private static final double SLOW_CONSTRUCT_MICROS = 100_000;
+	
+	public static void main(String[] args) throws InterruptedException {
+		HeadlessFx.start();
+		final PrintStream out = System.out;
+		
+		out.println(Row.HEADER);
+		for (NameSupplierPair<SpellAnimationGroup> spell : Groups.allSpells()) {
+			out.println(measure(
+				"spell", spell.displayName, spell.supplier,
+				GroupCalls::getAnimation,
+				x -> Arrays.asList(x.objectBehindLayer(), x.objectFrontLayer(), x.backgroundLayer())
+			));
+		}
+		for (NameSupplierPair<UnitAnimationGroup> unit : Groups.allUnits()) {
+			out.println(measure(
+				"unit", unit.displayName, unit.supplier,
+				GroupCalls::getAnimation,
+				x -> Arrays.asList(x.objectBehindLayer())
+			));
+		}
+		System.exit(0);
+	}
+	
+	private static <E> Row measure(
+		String kind,
+		String name,
+		Supplier<E> supplier,
+		Function<E, Animation> getAnimation,
+		Function<E, List<Node>> layers
+	) {
+		final E group = supplier.get();
+		final Animation animation = getAnimation.apply(group);
+		final long nodeCount = layers.apply(group).stream().mapToLong(GroupCensus::nodeCount).sum();
+		final long keyFrameCount = keyFrameCount(animation);
+		
+		final double constructMicros = medianMicros(() -> supplier.get());
+		final double getAnimationMicros = medianMicros(() -> getAnimation.apply(group));
+		
+		final Object[] copies = new Object[constructMicros > SLOW_CONSTRUCT_MICROS ? SLOW_HEAP_COPIES : HEAP_COPIES];
+		final long before = usedHeap();
+		for (int i = 0; i < copies.length; i++) {
+			copies[i] = supplier.get();
+		}
+		final long after = usedHeap();
+		Reference.reachabilityFence(copies);
+		
+		return new Row(kind, name, constructMicros, getAnimationMicros, Math.max(0, after - before) / copies.length, nodeCount, keyFrameCount);
+	}
+	
+	private static double medianMicros(Supplier<?> action) {
+		final long[] times = new long[MEASURED_RUNS];
+		Object sink = null;
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			sink = action.get();
+		}
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			final long start = System.nanoTime();
+			sink = action.get();
+			times[i] = System.nanoTime() - start;
+		}
+		Reference.reachabilityFence(sink);
+		Arrays.sort(times);
+		return times[MEASURED_RUNS / 2] / 1000.0;
+	}
+	
+	/** Collects garbage until the amount of used heap stops decreasing, then returns that amount */
+	private static long usedHeap() {
+		final Runtime runtime = Runtime.getRuntime();
+		long retval = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			final long used = runtime.totalMemory() - runtime.freeMemory();
+			if (used >= retval) {
+				break;
+			}
+			retval = used;
+		}
+		return retval;
+	}
+	
+	/** Counts the node and all of its descendants */
+	static long nodeCount(Node node) {
+		long retval = 1;
+		if (node instanceof Parent) {
+			for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+				retval += nodeCount(child);
+			}
+		}
+		return retval;
+	}
+	
+	/** Counts the KeyFrames in the animation and all of its descendants */
+	static long keyFrameCount(Animation anim) {
+		if (anim instanceof Timeline) {
+			return ((Timeline) anim).getKeyFrames().size();
+		} else if (anim instanceof SequentialTransition) {
+			return ((SequentialTransition) anim).getChildren().stream().mapToLong(GroupCensus::keyFrameCount).sum();
+		} else if (anim instanceof ParallelTransition) {
+			return ((ParallelTransition) anim).getChildren().stream().mapToLong(GroupCensus::keyFrameCount).sum();
+		} else {
+			return 0;
+		}
+	}
+	
+	
+	private static final class Row {
+		private static final String FORMAT = "%-5s  %-32s  %14s  %17s  %13s  %6s  %9s";
+		public static final String HEADER = String.format(FORMAT,
+			"kind", "name", "construct (us)", "getAnimation (us)", "retained (KiB)", "nodes", "keyframes");
+		
+		private final String kind;
+		private final String name;
+		private final double constructMicros;
+		private final double getAnimationMicros;
+		private final long retainedBytes;
+		private final long nodeCount;
+		private final long keyFrameCount;
+		
+		public Row(String kind, String name, double constructMicros, double getAnimationMicros, long retainedBytes, long nodeCount, long keyFrameCount) {
+			this.kind = kind;
+			this.name = name;
+			this.constructMicros = constructMicros;
+			this.getAnimationMicros = getAnimationMicros;
+			this.retainedBytes = retainedBytes;
+			this.nodeCount = nodeCount;
+			this.keyFrameCount = keyFrameCount;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format(FORMAT, kind, name,
+				String.format("%.1f", constructMicros),
+				String.format("%.1f", getAnimationMicros),
+				String.format("%.1f", retainedBytes / 1024.0),
+				nodeCount, keyFrameCount);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import name.rayrobdod.fightStage.SpellAnimationGroup;
+import name.rayrobdod.fightStage.UnitAnimationGroup;
+import name.rayrobdod.fightStage.previewer.spi.NameSupplierPair;
+import name.rayrobdod.fightStage.previewer.spi.SpellAnimationGroups;
+import name.rayrobdod.fightStage.previewer.spi.UnitAnimationGroups;
+
+/**
+ * Finds animation groups provided by the `PreviewerSpi` service providers
+ */
+final class Groups {
+	private Groups() {}
+	
+	/** Returns every UnitAnimationGroup supplied by a provider, in provider order */
+	public static List<NameSupplierPair<UnitAnimationGroup>> allUnits() {
+		return UnitAnimationGroups.getAll();
+	}
+	
+	/** Returns every SpellAnimationGroup supplied by a provider, in provider order */
+	public static List<NameSupplierPair<SpellAnimationGroup>> allSpells() {
+		return SpellAnimationGroups.getAll();
+	}
+	
+	/**
+	 * Returns the supplier of the UnitAnimationGroup with the specified display name
+	 * @throws IllegalArgumentException if no provider supplies a unit with that name
+	 */
+	public static Supplier<UnitAnimationGroup> unit(String displayName) {
+		return find(UnitAnimationGroups.getAll(), displayName);
+	}
+	
+	/**
+	 * Returns the supplier of the SpellAnimationGroup with the specified display name
+	 * @throws IllegalArgumentException if no provider supplies a spell with that name
+	 */
+	public static Supplier<SpellAnimationGroup> spell(String displayName) {
+		return find(SpellAnimationGroups.getAll(), displayName);
+	}
+	
+	private static <E> Supplier<E> find(List<NameSupplierPair<E>> haystack, String displayName) {
+		return haystack.stream()
+			.filter(x -> x.displayName.equals(displayName))
+			.findFirst()
+			.orElseThrow(() -> new IllegalArgumentException(
+				"Unknown name: " + displayName + "; expected one of " +
+				haystack.stream().map(x -> x.displayName).collect(Collectors.joining(", "))
+			))
+			.supplier;
+	}
+}
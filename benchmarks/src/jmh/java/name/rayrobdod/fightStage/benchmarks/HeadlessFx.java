@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import name.rayrobdod.fightStage.BattleRenderer;
+
+/**
+ * Starts the JavaFX toolkit without requiring a display
+ */
+final class HeadlessFx {
+	private HeadlessFx() {}
+	
+	/**
+	 * Starts the JavaFX toolkit, if it has not already been started.
+	 * @see BattleRenderer#startHeadlessToolkit
+	 */
+	public static void start() throws InterruptedException {
+		BattleRenderer.startHeadlessToolkit();
+	}
+}
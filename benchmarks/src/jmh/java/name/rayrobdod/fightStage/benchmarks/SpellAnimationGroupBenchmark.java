@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javafx.animation.Animation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.rayrobdod.fightStage.SpellAnimationGroup;
+
+/**
+ * Measures the time and allocations needed to construct each sample
+ * SpellAnimationGroup, and to create an animation from it.
+ * <p>
+ * {@link GroupCensus} reports the same times alongside sizes, in one table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpellAnimationGroupBenchmark {
+	
+	@Param({
+		  "Physical Hit", "Arrow", "Dark/Dark", "Dark/Nosferatu", "Fire/Fireball", "Fire/Meteor"
+		, "Electric/Lightning (Fade)", "Electric/Lightning (Dissipate)", "Electric/Spark (Fade)"
+		, "Electric/Spark (Dissipate)", "Electric/Radial Lightning", "Electric/Thunderstorm"
+		, "Wind/Crescent Wind", "Wind/Tornado", "Wind/Excalibur"
+		, "Light/MultiSparkle", "Light/Quarantine", "Light/SkyBeam", "Light/Atom"
+		, "Light/LightBurst/Gradient", "Light/LightBurst/Pixel", "Light/LightSword", "Light/HealCoil"
+		, "Lazor/(Blue)", "Lazor/(Red)", "Lazor/(Lime)"
+	})
+	public String spellName;
+	
+	private Supplier<SpellAnimationGroup> supplier;
+	private SpellAnimationGroup spell;
+	
+	@Setup(Level.Trial)
+	public void setup() throws InterruptedException {
+		HeadlessFx.start();
+		this.supplier = Groups.spell(spellName);
+		this.spell = this.supplier.get();
+	}
+	
+	@Benchmark
+	public SpellAnimationGroup construct() {
+		return this.supplier.get();
+	}
+	
+	@Benchmark
+	public Animation getAnimation() {
+		return GroupCalls.getAnimation(this.spell);
+	}
+}
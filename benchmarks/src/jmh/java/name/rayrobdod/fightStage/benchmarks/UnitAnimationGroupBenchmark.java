@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javafx.animation.Animation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import name.rayrobdod.fightStage.UnitAnimationGroup;
+
+/**
+ * Measures the time and allocations needed to construct each sample
+ * UnitAnimationGroup, and to create an attack animation from it.
+ * <p>
+ * {@link GroupCensus} reports the same times alongside sizes, in one table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitAnimationGroupBenchmark {
+	
+	@Param({"SwordGuy", "MageGuy", "BowGuy", "Sandbag/(medium)", "Sandbag/(small)", "Sandbag/(large)"})
+	public String unitName;
+	
+	private Supplier<UnitAnimationGroup> supplier;
+	private UnitAnimationGroup unit;
+	
+	@Setup(Level.Trial)
+	public void setup() throws InterruptedException {
+		HeadlessFx.start();
+		this.supplier = Groups.unit(unitName);
+		this.unit = this.supplier.get();
+	}
+	
+	@Benchmark
+	public UnitAnimationGroup construct() {
+		return this.supplier.get();
+	}
+	
+	@Benchmark
+	public Animation getAnimation() {
+		return GroupCalls.getAnimation(this.unit);
+	}
+}
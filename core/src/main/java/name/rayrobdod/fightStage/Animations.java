@@ -15,13 +15,25 @@
  */
 package name.rayrobdod.fightStage;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+
 import javafx.animation.Animation;
 import javafx.animation.Interpolator;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
+import javafx.animation.ParallelTransition;
 import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
 import javafx.animation.Timeline;
+import javafx.animation.Transition;
+import javafx.beans.value.WritableDoubleValue;
 import javafx.beans.value.WritableValue;
+import javafx.geometry.Point2D;
 import javafx.util.Duration;
 
 /**
@@ -78,4 +90,251 @@ public static <T> Animation simpleAnimation(
 			return new PauseTransition(duration);
 		}
 	}
+	
+	/**
+	 * An animation that calls `frame` with the fraction of the animation that
+	 * has elapsed, a value between 0 and 1, each time the animation is
+	 * interpolated.
+	 * <p>
+	 * Unlike a Timeline that samples a function at fixed intervals, this
+	 * creates no KeyFrames, and the function is evaluated at exactly the
+	 * times the animation is displayed.
+	 */
+	public static Animation procedural(Duration duration, DoubleConsumer frame) {
+		return new ProceduralTransition(duration, frame);
+	}
+	
+	/**
+	 * An animation that moves a point along `path`. Each time the animation is
+	 * interpolated, `path` is called with the fraction of the animation that
+	 * has elapsed, and the resulting point is written to `x` and `y`.
+	 */
+	public static Animation procedural(
+		Duration duration,
+		WritableDoubleValue x,
+		WritableDoubleValue y,
+		DoubleFunction<Point2D> path
+	) {
+		return new ProceduralTransition(duration, fraction -> {
+			final Point2D point = path.apply(fraction);
+			x.set(point.getX());
+			y.set(point.getY());
+		});
+	}
+	
+	/**
+	 * An animation that sets many properties at once. Each time the animation
+	 * is interpolated, `values` is called with the fraction of the animation
+	 * that has elapsed and an array with one element per target; the values
+	 * it places in the array are then written to the corresponding targets.
+	 * The same array is reused for each call.
+	 */
+	public static Animation procedural(
+		Duration duration,
+		List<? extends WritableDoubleValue> targets,
+		BatchFunction values
+	) {
+		final WritableDoubleValue[] targets2 = targets.toArray(new WritableDoubleValue[0]);
+		final double[] buffer = new double[targets2.length];
+		return new ProceduralTransition(duration, fraction -> {
+			values.apply(fraction, buffer);
+			for (int i = 0; i < targets2.length; i++) {
+				targets2[i].set(buffer[i]);
+			}
+		});
+	}
+	
+	/**
+	 * A function that computes the values of many properties at once
+	 * @see #procedural(Duration, List, BatchFunction)
+	 */
+	@FunctionalInterface
+	public static interface BatchFunction {
+		/**
+		 * @param fraction the fraction of the animation that has elapsed
+		 * @param values the array to write the properties' new values into
+		 */
+		public void apply(double fraction, double[] values);
+	}
+	
+	private static final class ProceduralTransition extends Transition {
+		private final DoubleConsumer frame;
+		
+		public ProceduralTransition(Duration duration, DoubleConsumer frame) {
+			this.frame = frame;
+			this.setCycleDuration(duration);
+			this.setInterpolator(Interpolator.LINEAR);
+		}
+		
+		@Override
+		protected void interpolate(double frac) {
+			this.frame.accept(frac);
+		}
+	}
+	
+	/**
+	 * Simplifies the tree of animations rooted at the specified animation, in
+	 * place, without changing the tree's total duration or the values it gives
+	 * to any property.
+	 * <p>
+	 * This removes zero-length PauseTransitions and empty Sequential and
+	 * Parallel transitions, replaces Sequential and Parallel transitions that
+	 * have one child with that child, moves the children of a
+	 * SequentialTransition nested directly in another SequentialTransition (or
+	 * ParallelTransition in ParallelTransition) into the outer transition, and
+	 * merges Timelines that are children of the same ParallelTransition and
+	 * that target disjoint sets of properties.
+	 * <p>
+	 * Only animations with default rate, cycle count, delay and interpolator
+	 * and without a node or onFinished handler are removed; the root itself is never removed.
+	 *
+	 * @param root the animation to optimize. Must be stopped.
+	 * @return the number of animations removed from the tree
+	 */
+	public static int optimize(Animation root) {
+		if (root instanceof SequentialTransition) {
+			return optimizeChildren(((SequentialTransition) root).getChildren(), false);
+		} else if (root instanceof ParallelTransition) {
+			return optimizeChildren(((ParallelTransition) root).getChildren(), true);
+		} else {
+			return 0;
+		}
+	}
+	
+	private static int optimizeChildren(List<Animation> children, boolean isParallel) {
+		int removedCount = 0;
+		final List<Animation> newChildren = new ArrayList<>(children.size());
+		for (Animation child : children) {
+			removedCount += optimize(child);
+		}
+		
+		for (Animation child : new ArrayList<>(children)) {
+			// collapse wrappers around a single animation
+			while (isTransparent(child) && childrenOf(child).size() == 1) {
+				final List<Animation> wrapped = childrenOf(child);
+				final Animation inner = wrapped.get(0);
+				wrapped.clear();
+				child = inner;
+				removedCount++;
+			}
+			
+			if (isNoOp(child)) {
+				removedCount++;
+			} else if (isTransparent(child) && isParallel == (child instanceof ParallelTransition)) {
+				final List<Animation> grandchildren = childrenOf(child);
+				final List<Animation> grandchildrenCopy = new ArrayList<>(grandchildren);
+				grandchildren.clear();
+				newChildren.addAll(grandchildrenCopy);
+				removedCount++;
+			} else {
+				newChildren.add(child);
+			}
+		}
+		
+		if (isParallel) {
+			removedCount += mergeDisjointTimelines(newChildren);
+		}
+		
+		children.clear();
+		children.addAll(newChildren);
+		return removedCount;
+	}
+	
+	/**
+	 * Merges timelines in the list into other timelines in the list that
+	 * share a delay and affect different properties. Assumes that the list
+	 * is the children of a ParallelTransition.
+	 */
+	private static int mergeDisjointTimelines(List<Animation> siblings) {
+		int removedCount = 0;
+		final List<Timeline> mergeTargets = new ArrayList<>();
+		final List<Set<WritableValue<?>>> mergeTargetProperties = new ArrayList<>();
+		
+		for (int i = 0; i < siblings.size(); i++) {
+			if (siblings.get(i) instanceof Timeline && isPlainTimeline((Timeline) siblings.get(i))) {
+				final Timeline timeline = (Timeline) siblings.get(i);
+				final Set<WritableValue<?>> properties = targetsOf(timeline);
+				boolean merged = false;
+				for (int j = 0; j < mergeTargets.size() && ! merged; j++) {
+					final Timeline target = mergeTargets.get(j);
+					final Set<WritableValue<?>> targetProperties = mergeTargetProperties.get(j);
+					if (target.getDelay().equals(timeline.getDelay()) &&
+							properties.stream().noneMatch(targetProperties::contains)) {
+						target.getKeyFrames().addAll(timeline.getKeyFrames());
+						targetProperties.addAll(properties);
+						siblings.remove(i);
+						i--;
+						removedCount++;
+						merged = true;
+					}
+				}
+				if (! merged) {
+					mergeTargets.add(timeline);
+					mergeTargetProperties.add(properties);
+				}
+			}
+		}
+		return removedCount;
+	}
+	
+	private static boolean isPlainTimeline(Timeline anim) {
+		return anim.getCycleCount() == 1 &&
+			anim.getRate() == 1.0 &&
+			null == anim.getOnFinished();
+	}
+	
+	private static Set<WritableValue<?>> targetsOf(Timeline anim) {
+		final Set<WritableValue<?>> retval = new HashSet<>();
+		for (KeyFrame frame : anim.getKeyFrames()) {
+			for (KeyValue value : frame.getValues()) {
+				retval.add(value.getTarget());
+			}
+		}
+		return retval;
+	}
+	
+	/**
+	 * Returns true if the animation is a Sequential or Parallel transition
+	 * which only exists to group its children
+	 */
+	private static boolean isTransparent(Animation anim) {
+		if (anim instanceof SequentialTransition) {
+			final SequentialTransition anim2 = (SequentialTransition) anim;
+			return null == anim2.getNode() && Interpolator.LINEAR == anim2.getInterpolator() && hasDefaultTiming(anim);
+		} else if (anim instanceof ParallelTransition) {
+			final ParallelTransition anim2 = (ParallelTransition) anim;
+			return null == anim2.getNode() && Interpolator.LINEAR == anim2.getInterpolator() && hasDefaultTiming(anim);
+		} else {
+			return false;
+		}
+	}
+	
+	private static boolean hasDefaultTiming(Animation anim) {
+		return anim.getCycleCount() == 1 &&
+			anim.getRate() == 1.0 &&
+			Duration.ZERO.equals(anim.getDelay()) &&
+			null == anim.getOnFinished();
+	}
+	
+	/**
+	 * Returns true if the animation takes no time and has no effects
+	 */
+	private static boolean isNoOp(Animation anim) {
+		final boolean noEffects = anim instanceof PauseTransition ||
+			((anim instanceof SequentialTransition || anim instanceof ParallelTransition) && childrenOf(anim).isEmpty());
+		return noEffects &&
+			Duration.ZERO.equals(anim.getTotalDuration()) &&
+			Duration.ZERO.equals(anim.getDelay()) &&
+			null == anim.getOnFinished();
+	}
+	
+	private static List<Animation> childrenOf(Animation anim) {
+		if (anim instanceof SequentialTransition) {
+			return ((SequentialTransition) anim).getChildren();
+		} else if (anim instanceof ParallelTransition) {
+			return ((ParallelTransition) anim).getChildren();
+		} else {
+			return java.util.Collections.emptyList();
+		}
+	}
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Dimension2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+
+/**
+ * Remembers the backgrounds built for recent battles, so that consecutive
+ * battles with the same terrain and container size do not each build a new
+ * background.
+ * <p>
+ * {@link #forTerrain} returns a function suitable for the backgroundNode
+ * parameter of {@link BattleAnimation#buildAnimation} or of
+ * {@link BattleStage}'s constructor.
+ * <p>
+ * If rasterizing, each background is drawn once into an image at the
+ * magnification the container will use, and each request returns a new
+ * ImageView of that image; many battles can show the same background at
+ * once, and a background made of many nodes is rendered as one texture.
+ * Rasterized backgrounds must be requested on the JavaFX Application Thread,
+ * and use memory proportional to the background's on-screen area.
+ * <p>
+ * If not rasterizing, each request returns the same node, which is removed
+ * from the parent it is in, such as the previous battle's stage, so that it
+ * can be added to the new battle's stage. So only the most recently
+ * requested battle for a given terrain and size can show that background.
+ *
+ * @param <K> the type of the terrain identifiers
+ */
+public final class BackgroundCache<K> {
+	private final Function<? super K, ? extends Function<Dimension2D, ? extends Node>> builders;
+	private final boolean rasterize;
+	private final Map<Key<K>, Object> entries;
+	
+	/**
+	 * @param builders a function that returns the background builder for a terrain
+	 * @param rasterize whether to convert backgrounds into images
+	 * @param capacity the number of backgrounds to remember
+	 */
+	public BackgroundCache(
+		Function<? super K, ? extends Function<Dimension2D, ? extends Node>> builders,
+		boolean rasterize,
+		int capacity
+	) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		}
+		this.builders = builders;
+		this.rasterize = rasterize;
+		this.entries = new LinkedHashMap<Key<K>, Object>(16, 0.75f, true) {
+			@Override protected boolean removeEldestEntry(Map.Entry<Key<K>, Object> eldest) {
+				return this.size() > capacity;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the background for the specified terrain and container size,
+	 * building it only if it is not already remembered
+	 */
+	public Node get(K terrain, Dimension2D containerSize) {
+		final Key<K> key = new Key<>(terrain, containerSize);
+		Object entry = this.entries.get(key);
+		if (null == entry) {
+			final Node built = this.builders.apply(terrain).apply(containerSize);
+			entry = (this.rasterize ? Rasterized.create(built, containerSize) : built);
+			this.entries.put(key, entry);
+		}
+		
+		if (entry instanceof Rasterized) {
+			return ((Rasterized) entry).newView();
+		} else {
+			final Node node = (Node) entry;
+			detach(node);
+			return node;
+		}
+	}
+	
+	/**
+	 * Returns a function which returns the background for the specified terrain
+	 * and the function's parameter container size
+	 */
+	public Function<Dimension2D, Node> forTerrain(K terrain) {
+		return (containerSize) -> this.get(terrain, containerSize);
+	}
+	
+	/** Forgets every remembered background */
+	public void clear() {
+		this.entries.clear();
+	}
+	
+	/** The number of remembered backgrounds */
+	public int size() {
+		return this.entries.size();
+	}
+	
+	
+	/** Removes the node from its parent, if its parent is one whose children can be modified */
+	private static void detach(Node node) {
+		final Parent parent = node.getParent();
+		if (parent instanceof Group) {
+			((Group) parent).getChildren().remove(node);
+		} else if (parent instanceof Pane) {
+			((Pane) parent).getChildren().remove(node);
+		}
+	}
+	
+	private static final class Key<K> {
+		public final K terrain;
+		public final double width;
+		public final double height;
+		
+		public Key(K terrain, Dimension2D containerSize) {
+			this.terrain = terrain;
+			this.width = containerSize.getWidth();
+			this.height = containerSize.getHeight();
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			if (other instanceof Key) {
+				final Key<?> other2 = (Key<?>) other;
+				return Objects.equals(this.terrain, other2.terrain) &&
+					this.width == other2.width &&
+					this.height == other2.height;
+			} else {
+				return false;
+			}
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.terrain, this.width, this.height);
+		}
+	}
+	
+	/**
+	 * A background which has been drawn into an image
+	 */
+	private static final class Rasterized {
+		private final Image image;
+		private final Bounds bounds;
+		
+		private Rasterized(Image image, Bounds bounds) {
+			this.image = image;
+			this.bounds = bounds;
+		}
+		
+		public static Rasterized create(Node background, Dimension2D containerSize) {
+			final double magnification = BattleAnimation.magnification(containerSize.getWidth(), containerSize.getHeight());
+			final SnapshotParameters params = new SnapshotParameters();
+			params.setFill(Color.TRANSPARENT);
+			params.setTransform(new Scale(magnification, magnification));
+			final Image image = background.snapshot(params, null);
+			return new Rasterized(image, background.getBoundsInParent());
+		}
+		
+		public ImageView newView() {
+			final ImageView retval = new ImageView(this.image);
+			retval.setX(this.bounds.getMinX());
+			retval.setY(this.bounds.getMinY());
+			retval.setFitWidth(this.bounds.getWidth());
+			retval.setFitHeight(this.bounds.getHeight());
+			retval.setSmooth(false);
+			return retval;
+		}
+	}
+}
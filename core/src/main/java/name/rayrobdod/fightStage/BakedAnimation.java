@@ -0,0 +1,536 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.animation.Animation;
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.animation.Transition;
+import javafx.beans.value.WritableDoubleValue;
+import javafx.beans.value.WritableValue;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
+import javafx.util.Duration;
+
+/**
+ * An animation compiled from a tree of SequentialTransitions, ParallelTransitions
+ * and Timelines into a flat table of property tracks.
+ * <p>
+ * Each property targeted by a Timeline in the source tree becomes one track,
+ * consisting of time-sorted segments stored in primitive arrays; a single
+ * evaluator writes every track's value for the current time each pulse, rather
+ * than the master timer walking the source tree. Finding the segment for a
+ * time is a binary search, or constant time during normal playback, so
+ * {@link #sample} can evaluate the animation at any time cheaply.
+ * <p>
+ * Animations which cannot be represented as tracks - Transitions other than
+ * Pause, Sequential and Parallel transitions, and any animation with a rate
+ * or cycle count other than one - are kept as opaque clips, which are driven
+ * by pausing them and calling {@code jumpTo}.
+ * <p>
+ * Baking consumes the source animation: the children of the source's
+ * Sequential and Parallel transitions are removed so that opaque clips can be
+ * controlled independently, and the source should not be played afterwards.
+ */
+public final class BakedAnimation extends Transition {
+	private final Track[] tracks;
+	private final OpaqueClip[] opaqueClips;
+	private final double[] cueTimes;
+	private final List<EventHandler<ActionEvent>> cueHandlers;
+	
+	private boolean initialized;
+	private double lastTime;
+	private int cueCursor;
+	
+	private BakedAnimation(
+		  Animation source
+		, Duration totalDuration
+		, Track[] tracks
+		, OpaqueClip[] opaqueClips
+		, double[] cueTimes
+		, List<EventHandler<ActionEvent>> cueHandlers
+	) {
+		this.tracks = tracks;
+		this.opaqueClips = opaqueClips;
+		this.cueTimes = cueTimes;
+		this.cueHandlers = cueHandlers;
+		this.setCycleDuration(totalDuration);
+		this.setInterpolator(Interpolator.LINEAR);
+		this.setDelay(source.getDelay());
+		this.setOnFinished(source.getOnFinished());
+		this.reset();
+		
+		this.statusProperty().addListener((prop, oldValue, newValue) -> {
+			if (oldValue == Animation.Status.STOPPED && newValue == Animation.Status.RUNNING) {
+				this.reset();
+			}
+			if (newValue == Animation.Status.STOPPED) {
+				for (OpaqueClip clip : this.opaqueClips) {
+					clip.stop();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Compiles the specified animation into a BakedAnimation.
+	 * @param source the animation to compile. Consumed by this operation.
+	 */
+	public static BakedAnimation bake(Animation source) {
+		final Compiler compiler = new Compiler();
+		final Duration totalDuration = source.getTotalDuration();
+		if (totalDuration.isIndefinite()) {
+			throw new IllegalArgumentException("Cannot bake an animation with an indefinite duration");
+		}
+		compiler.add(source, 0, true);
+		return compiler.build(source, totalDuration);
+	}
+	
+	/**
+	 * The time most recently passed to {@link #sample}, either directly or
+	 * by playing this animation. Unlike {@code getCurrentTime}, this is
+	 * updated by calls to sample while this animation is stopped.
+	 * <p>
+	 * Cues are delivered an ActionEvent whose source is this animation, so
+	 * a cue can use this to find the time that caused it to be delivered.
+	 */
+	public Duration getSampledTime() {
+		return Duration.millis(Math.max(0, this.lastTime));
+	}
+	
+	/** The number of property tracks in this animation */
+	public int getTrackCount() { return this.tracks.length; }
+	
+	/** The number of animations that could not be converted into tracks */
+	public int getOpaqueClipCount() { return this.opaqueClips.length; }
+	
+	/**
+	 * Sets every property this animation controls to the value it would have
+	 * the specified amount of time after the start of the animation.
+	 * <p>
+	 * Unlike {@code jumpTo}, this works while the animation is stopped.
+	 */
+	public void sample(Duration time) {
+		this.sample(time.toMillis());
+	}
+	
+	@Override
+	protected void interpolate(double frac) {
+		this.sample(frac * this.getCycleDuration().toMillis());
+	}
+	
+	private void sample(double time) {
+		if (! this.initialized) {
+			for (Track track : this.tracks) {
+				track.captureInitial();
+			}
+			this.initialized = true;
+		}
+		for (Track track : this.tracks) {
+			track.sample(time);
+		}
+		for (OpaqueClip clip : this.opaqueClips) {
+			clip.sample(time);
+		}
+		
+		final double previousTime = this.lastTime;
+		this.lastTime = time;
+		if (time < previousTime) {
+			// seeking backwards; skip cues rather than replaying them
+			int idx = Arrays.binarySearch(this.cueTimes, time);
+			if (idx < 0) {idx = -idx - 1;}
+			while (idx < this.cueTimes.length && this.cueTimes[idx] <= time) {idx++;}
+			this.cueCursor = idx;
+		} else {
+			while (this.cueCursor < this.cueTimes.length && this.cueTimes[this.cueCursor] <= time) {
+				this.cueHandlers.get(this.cueCursor).handle(new ActionEvent(this, null));
+				this.cueCursor++;
+			}
+		}
+	}
+	
+	private void reset() {
+		this.initialized = false;
+		this.lastTime = -1;
+		this.cueCursor = 0;
+		for (Track track : this.tracks) {
+			track.reset();
+		}
+	}
+	
+	
+	/**
+	 * Flattens an animation tree into tracks, opaque clips and cues
+	 */
+	private static final class Compiler {
+		private final Map<WritableValue<?>, List<Segment>> segments = new LinkedHashMap<>();
+		private final List<OpaqueClip> opaqueClips = new ArrayList<>();
+		private final List<Cue> cues = new ArrayList<>();
+		
+		/**
+		 * @param start the time, in millis, at which the animation starts relative to the root animation
+		 * @param isRoot whether the animation is the root, whose onFinished becomes the BakedAnimation's
+		 */
+		public void add(Animation anim, double start, boolean isRoot) {
+			final double length = anim.getTotalDuration().toMillis() / Math.abs(anim.getRate());
+			
+			if (anim.getCycleCount() != 1 || anim.getRate() != 1.0) {
+				this.opaqueClips.add(new OpaqueClip(anim, start, length));
+			} else if (anim instanceof SequentialTransition && null == ((SequentialTransition) anim).getNode()) {
+				final List<Animation> children = new ArrayList<>(((SequentialTransition) anim).getChildren());
+				((SequentialTransition) anim).getChildren().clear();
+				double cursor = start;
+				for (Animation child : children) {
+					// measured before adding, since adding a transition consumes its children
+					final double childLength = child.getTotalDuration().toMillis() / Math.abs(child.getRate());
+					cursor += child.getDelay().toMillis();
+					this.add(child, cursor, false);
+					cursor += childLength;
+				}
+			} else if (anim instanceof ParallelTransition && null == ((ParallelTransition) anim).getNode()) {
+				final List<Animation> children = new ArrayList<>(((ParallelTransition) anim).getChildren());
+				((ParallelTransition) anim).getChildren().clear();
+				for (Animation child : children) {
+					this.add(child, start + child.getDelay().toMillis(), false);
+				}
+			} else if (anim instanceof Timeline) {
+				this.addTimeline((Timeline) anim, start);
+			} else if (anim instanceof PauseTransition) {
+				// no effects
+			} else {
+				this.opaqueClips.add(new OpaqueClip(anim, start, length));
+			}
+			
+			if (! isRoot && null != anim.getOnFinished()) {
+				this.cues.add(new Cue(start + length, anim.getOnFinished()));
+			}
+		}
+		
+		private void addTimeline(Timeline anim, double start) {
+			final Map<WritableValue<?>, List<KeyPoint>> points = new LinkedHashMap<>();
+			for (KeyFrame frame : anim.getKeyFrames()) {
+				final double time = frame.getTime().toMillis();
+				for (KeyValue value : frame.getValues()) {
+					points.computeIfAbsent(value.getTarget(), x -> new ArrayList<>())
+						.add(new KeyPoint(time, value.getEndValue(), value.getInterpolator()));
+				}
+				if (null != frame.getOnFinished()) {
+					this.cues.add(new Cue(start + time, frame.getOnFinished()));
+				}
+			}
+			
+			for (Map.Entry<WritableValue<?>, List<KeyPoint>> e : points.entrySet()) {
+				final List<KeyPoint> targetPoints = e.getValue();
+				targetPoints.sort(Comparator.comparingDouble(x -> x.time));
+				final List<Segment> targetSegments = this.segments.computeIfAbsent(e.getKey(), x -> new ArrayList<>());
+				
+				double prevTime = 0;
+				Object prevValue = Segment.CURRENT_VALUE;
+				for (KeyPoint point : targetPoints) {
+					targetSegments.add(new Segment(start + prevTime, start + point.time, prevValue, point.value, point.interpolator));
+					prevTime = point.time;
+					prevValue = point.value;
+				}
+			}
+		}
+		
+		public BakedAnimation build(Animation source, Duration totalDuration) {
+			final Track[] tracks = new Track[this.segments.size()];
+			int i = 0;
+			for (Map.Entry<WritableValue<?>, List<Segment>> e : this.segments.entrySet()) {
+				final List<Segment> trackSegments = e.getValue();
+				trackSegments.sort(Comparator.comparingDouble(x -> x.start));
+				tracks[i] = new Track(e.getKey(), trackSegments);
+				i++;
+			}
+			
+			this.opaqueClips.sort(Comparator.comparingDouble(x -> x.start));
+			this.cues.sort(Comparator.comparingDouble(x -> x.time));
+			final double[] cueTimes = new double[this.cues.size()];
+			final List<EventHandler<ActionEvent>> cueHandlers = new ArrayList<>(this.cues.size());
+			for (int j = 0; j < cueTimes.length; j++) {
+				cueTimes[j] = this.cues.get(j).time;
+				cueHandlers.add(this.cues.get(j).handler);
+			}
+			
+			return new BakedAnimation(
+				  source
+				, totalDuration
+				, tracks
+				, this.opaqueClips.toArray(new OpaqueClip[0])
+				, cueTimes
+				, cueHandlers
+			);
+		}
+	}
+	
+	private static final class KeyPoint {
+		public final double time;
+		public final Object value;
+		public final Interpolator interpolator;
+		
+		public KeyPoint(double time, Object value, Interpolator interpolator) {
+			this.time = time;
+			this.value = value;
+			this.interpolator = interpolator;
+		}
+	}
+	
+	private static final class Segment {
+		/** A marker indicating that a segment starts from the target's value at the time the segment starts */
+		public static final Object CURRENT_VALUE = new Object();
+		
+		public final double start;
+		public final double end;
+		public final Object from;
+		public final Object to;
+		public final Interpolator interpolator;
+		
+		public Segment(double start, double end, Object from, Object to, Interpolator interpolator) {
+			this.start = start;
+			this.end = end;
+			this.from = from;
+			this.to = to;
+			this.interpolator = interpolator;
+		}
+	}
+	
+	private static final class Cue {
+		public final double time;
+		public final EventHandler<ActionEvent> handler;
+		
+		public Cue(double time, EventHandler<ActionEvent> handler) {
+			this.time = time;
+			this.handler = handler;
+		}
+	}
+	
+	/**
+	 * The time-sorted segments that affect a single property.
+	 * <p>
+	 * Values are stored in double arrays when the target is a WritableDoubleValue
+	 * and every value is a Number; otherwise, in Object arrays.
+	 * <p>
+	 * A segment that starts from the target's current value is resolved when the
+	 * track is built: it starts from the previous segment's end value, which is
+	 * what the target holds once the previous segment has finished. Resolving it
+	 * when the segment is first sampled instead would capture whatever value a
+	 * seek past the previous segment left behind. Only the first segment starts
+	 * from the value the target had when the animation started.
+	 */
+	private static final class Track {
+		private static final int STATE_NONE = -3;
+		private static final int STATE_INITIAL = -2;
+		private static final int STATE_INTERPOLATING = -1;
+		
+		private final WritableValue<Object> target;
+		private final WritableDoubleValue doubleTarget;
+		private final double[] starts;
+		private final double[] ends;
+		private final Interpolator[] interpolators;
+		/** Whether the first segment starts from the target's initial value */
+		private final boolean firstFromInitial;
+		private final double[] fromDoubles;
+		private final double[] toDoubles;
+		private final Object[] fromObjects;
+		private final Object[] toObjects;
+		
+		private double initialDouble;
+		private Object initialObject;
+		/** The last segment index that was used */
+		private int cursor;
+		/** Either the index of a segment whose end value was last written, or one of the STATE constants */
+		private int state;
+		
+		@SuppressWarnings("unchecked")
+		public Track(WritableValue<?> target, List<Segment> segments) {
+			final int size = segments.size();
+			final boolean isDouble = target instanceof WritableDoubleValue &&
+				segments.stream().allMatch(x -> x.to instanceof Number &&
+					(x.from == Segment.CURRENT_VALUE || x.from instanceof Number));
+			
+			this.target = (WritableValue<Object>) target;
+			this.doubleTarget = (isDouble ? (WritableDoubleValue) target : null);
+			this.starts = new double[size];
+			this.ends = new double[size];
+			this.interpolators = new Interpolator[size];
+			this.firstFromInitial = (size > 0 && segments.get(0).from == Segment.CURRENT_VALUE);
+			this.fromDoubles = (isDouble ? new double[size] : null);
+			this.toDoubles = (isDouble ? new double[size] : null);
+			this.fromObjects = (isDouble ? null : new Object[size]);
+			this.toObjects = (isDouble ? null : new Object[size]);
+			
+			for (int i = 0; i < size; i++) {
+				final Segment s = segments.get(i);
+				this.starts[i] = s.start;
+				this.ends[i] = s.end;
+				this.interpolators[i] = s.interpolator;
+				// the first segment's initial value is filled in by captureInitial
+				final Object from = (s.from != Segment.CURRENT_VALUE ? s.from : (i == 0 ? null : segments.get(i - 1).to));
+				if (isDouble) {
+					this.fromDoubles[i] = (null == from ? 0 : ((Number) from).doubleValue());
+					this.toDoubles[i] = ((Number) s.to).doubleValue();
+				} else {
+					this.fromObjects[i] = from;
+					this.toObjects[i] = s.to;
+				}
+			}
+		}
+		
+		public void reset() {
+			this.cursor = 0;
+			this.state = STATE_NONE;
+		}
+		
+		public void captureInitial() {
+			if (null != this.doubleTarget) {
+				this.initialDouble = this.doubleTarget.get();
+				if (this.firstFromInitial) {this.fromDoubles[0] = this.initialDouble;}
+			} else {
+				this.initialObject = this.target.getValue();
+				if (this.firstFromInitial) {this.fromObjects[0] = this.initialObject;}
+			}
+		}
+		
+		public void sample(double time) {
+			final int i = this.segmentAt(time);
+			if (i < 0) {
+				if (this.state != STATE_INITIAL) {
+					if (null != this.doubleTarget) {
+						this.doubleTarget.set(this.initialDouble);
+					} else {
+						this.target.setValue(this.initialObject);
+					}
+					this.state = STATE_INITIAL;
+				}
+			} else if (time >= this.ends[i]) {
+				if (this.state != i) {
+					if (null != this.doubleTarget) {
+						this.doubleTarget.set(this.toDoubles[i]);
+					} else {
+						this.target.setValue(this.toObjects[i]);
+					}
+					this.state = i;
+				}
+			} else {
+				final double frac = (time - this.starts[i]) / (this.ends[i] - this.starts[i]);
+				if (null != this.doubleTarget) {
+					this.doubleTarget.set(this.interpolators[i].interpolate(this.fromDoubles[i], this.toDoubles[i], frac));
+				} else {
+					this.target.setValue(this.interpolators[i].interpolate(this.fromObjects[i], this.toObjects[i], frac));
+				}
+				this.state = STATE_INTERPOLATING;
+			}
+		}
+		
+		/**
+		 * Returns the index of the last segment that starts at or before the specified time,
+		 * or -1 if there is no such segment
+		 */
+		private int segmentAt(double time) {
+			final int size = this.starts.length;
+			// during normal playback, the answer is usually the previous answer or the one after it
+			for (int i = this.cursor; i < size && i <= this.cursor + 1; i++) {
+				if (this.starts[i] <= time && (i + 1 == size || this.starts[i + 1] > time)) {
+					this.cursor = i;
+					return i;
+				}
+			}
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (this.starts[mid] <= time) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			if (low > 0) {this.cursor = low - 1;}
+			return low - 1;
+		}
+	}
+	
+	/**
+	 * An animation that could not be compiled into tracks, which is instead
+	 * driven by pausing it and then jumping to the required time
+	 */
+	private static final class OpaqueClip {
+		private static final int BEFORE = 0;
+		private static final int DURING = 1;
+		private static final int AFTER = 2;
+		
+		public final Animation animation;
+		public final double start;
+		public final double length;
+		private int state;
+		
+		public OpaqueClip(Animation animation, double start, double length) {
+			this.animation = animation;
+			this.start = start;
+			this.length = length;
+			this.state = BEFORE;
+		}
+		
+		public void sample(double time) {
+			if (time < this.start) {
+				if (this.state != BEFORE) {
+					this.ensurePaused();
+					this.animation.jumpTo(Duration.ZERO);
+					this.animation.stop();
+					this.state = BEFORE;
+				}
+			} else if (time < this.start + this.length) {
+				this.ensurePaused();
+				final double playhead = (time - this.start) * Math.abs(this.animation.getRate());
+				final double total = this.animation.getTotalDuration().toMillis();
+				this.animation.jumpTo(Duration.millis(this.animation.getRate() < 0 ? total - playhead : playhead));
+				this.state = DURING;
+			} else {
+				if (this.state != AFTER) {
+					this.ensurePaused();
+					this.animation.jumpTo(this.animation.getRate() < 0 ? Duration.ZERO : this.animation.getTotalDuration());
+					this.animation.stop();
+					this.state = AFTER;
+				}
+			}
+		}
+		
+		public void stop() {
+			this.animation.stop();
+			this.state = BEFORE;
+		}
+		
+		private void ensurePaused() {
+			if (this.animation.getStatus() == Animation.Status.STOPPED) {
+				this.animation.play();
+				this.animation.pause();
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.util.Duration;
+
+/**
+ * An object that is notified as a battle animation reaches certain points.
+ * <p>
+ * Each method is called on the thread that is playing the animation, and has
+ * a default implementation that does nothing.
+ */
+public interface BattleAnimationListener {
+	
+	/** Called when the swipe-in transition has completed */
+	default void swipeInFinished(Timing timing) {}
+	
+	/**
+	 * Called when a strike starts, before the camera pans to the attacker
+	 * @param strikeIndex the strike's index in the battle's list of strikes
+	 * @param strike the strike that is starting
+	 */
+	default void strikeStarted(int strikeIndex, Strike strike, Timing timing) {}
+	
+	/**
+	 * Called when a strike's hit animation starts
+	 * @param strikeIndex the strike's index in the battle's list of strikes
+	 * @param strike the strike whose hit is landing
+	 */
+	default void hitLanded(int strikeIndex, Strike strike, Timing timing) {}
+	
+	/**
+	 * Called after the last strike has finished, before any unit's death
+	 * animation and before the pause that precedes the swipe-out transition.
+	 * Called even if there were no strikes.
+	 */
+	default void strikesFinished(Timing timing) {}
+	
+	/**
+	 * Called when a unit starts its death animation
+	 * @param side the side of the unit that died
+	 */
+	default void unitDied(Side side, Timing timing) {}
+	
+	/** Called when the swipe-out transition has completed */
+	default void swipeOutFinished(Timing timing) {}
+	
+	
+	/**
+	 * When an event was expected to occur and when it did occur
+	 */
+	public static final class Timing {
+		/**
+		 * The time, relative to the start of the battle animation, at which
+		 * the event was scheduled. {@link Duration#UNKNOWN} if the event's
+		 * position in the animation could not be determined.
+		 */
+		public final Duration scheduledTime;
+		/** The battle animation's currentTime when the event was delivered */
+		public final Duration actualTime;
+		/** The value of {@link System#nanoTime} when the event was delivered */
+		public final long nanoTime;
+		
+		public Timing(Duration scheduledTime, Duration actualTime, long nanoTime) {
+			this.scheduledTime = scheduledTime;
+			this.actualTime = actualTime;
+			this.nanoTime = nanoTime;
+		}
+		
+		/** The amount of time between when the event was scheduled and when it was delivered */
+		public Duration latency() {
+			return this.actualTime.subtract(this.scheduledTime);
+		}
+		
+		@Override
+		public String toString() {
+			return "Timing[scheduled=" + scheduledTime + ", actual=" + actualTime + "]";
+		}
+	}
+}
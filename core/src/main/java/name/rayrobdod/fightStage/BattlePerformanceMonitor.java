@@ -0,0 +1,277 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.util.Duration;
+
+/**
+ * Records how long each frame takes while a battle animation plays.
+ * <p>
+ * Frame times are recorded in a fixed-size histogram and counted against a
+ * frame budget. Each frame is also attributed to the phase of the battle that
+ * was playing at the time - the introduction, one of the strikes, or the
+ * ending - so that slow frames can be traced to a particular spell. Nothing
+ * is allocated per frame.
+ * <p>
+ * To be told of strike boundaries, this object must be the listener passed to
+ * {@link BattleAnimation#buildAnimation(java.util.function.Function, javafx.geometry.Dimension2D, double, AggregateSideParams, AggregateSideParams, List, BattleAnimationListener)}
+ * or {@link BattleStage#prepare(AggregateSideParams, AggregateSideParams, BattlePlan, BattleAnimationListener)}.
+ * It then must be attached to the resulting animation.
+ */
+public final class BattlePerformanceMonitor implements BattleAnimationListener {
+	/** The number of histogram buckets, not counting the overflow bucket */
+	private static final int BUCKET_COUNT = 100;
+	private static final long BUCKET_WIDTH_NANOS = 1_000_000L;
+	
+	private final long frameBudgetNanos;
+	private final String[] phaseNames;
+	private final long[] histogram;
+	private final long[] phaseFrames;
+	private final long[] phaseOverBudget;
+	private final long[] phaseWorstNanos;
+	private final AnimationTimer timer;
+	
+	private int currentPhase;
+	private long lastPulseNanos;
+	
+	/**
+	 * @param left the parameters of the battle's left side
+	 * @param right the parameters of the battle's right side
+	 * @param strikes the battle's strikes
+	 * @param frameBudget the maximum length a frame can take before it is considered dropped
+	 */
+	public BattlePerformanceMonitor(
+		AggregateSideParams left,
+		AggregateSideParams right,
+		List<Strike> strikes,
+		Duration frameBudget
+	) {
+		this.frameBudgetNanos = (long) (frameBudget.toMillis() * 1_000_000L);
+		this.phaseNames = new String[strikes.size() + 2];
+		this.phaseNames[0] = "intro";
+		for (int i = 0; i < strikes.size(); i++) {
+			final AggregateSideParams attacker = (strikes.get(i).attacker == Side.LEFT ? left : right);
+			this.phaseNames[i + 1] = "strike " + i + " (" + attacker.spell.getClass().getSimpleName() + ")";
+		}
+		this.phaseNames[strikes.size() + 1] = "ending";
+		this.histogram = new long[BUCKET_COUNT + 1];
+		this.phaseFrames = new long[this.phaseNames.length];
+		this.phaseOverBudget = new long[this.phaseNames.length];
+		this.phaseWorstNanos = new long[this.phaseNames.length];
+		this.currentPhase = 0;
+		this.lastPulseNanos = -1;
+		this.timer = new AnimationTimer() {
+			@Override public void handle(long now) {
+				if (lastPulseNanos >= 0) {
+					recordFrame(now - lastPulseNanos);
+				}
+				lastPulseNanos = now;
+			}
+		};
+	}
+	
+	/**
+	 * Starts recording whenever the pair's animation is running, and reports
+	 * a summary each time the animation stops.
+	 *
+	 * @param pair the battle to monitor
+	 * @param onSummary called with a summary of the recorded frames when the animation stops
+	 */
+	public void attach(NodeAnimationPair pair, Consumer<Summary> onSummary) {
+		this.attach(pair.animation, onSummary);
+	}
+	
+	/**
+	 * Starts recording whenever the animation is running, and reports a
+	 * summary each time the animation stops.
+	 *
+	 * @param animation the battle animation to monitor
+	 * @param onSummary called with a summary of the recorded frames when the animation stops
+	 */
+	public void attach(Animation animation, Consumer<Summary> onSummary) {
+		animation.statusProperty().addListener((prop, oldValue, newValue) -> {
+			if (newValue == Animation.Status.RUNNING) {
+				this.lastPulseNanos = -1;
+				this.timer.start();
+			} else {
+				this.timer.stop();
+			}
+			if (newValue == Animation.Status.STOPPED) {
+				onSummary.accept(this.getSummary());
+			}
+		});
+	}
+	
+	/** Clears all recorded frames */
+	public void reset() {
+		Arrays.fill(this.histogram, 0);
+		Arrays.fill(this.phaseFrames, 0);
+		Arrays.fill(this.phaseOverBudget, 0);
+		Arrays.fill(this.phaseWorstNanos, 0);
+		this.currentPhase = 0;
+		this.lastPulseNanos = -1;
+	}
+	
+	/** Returns a summary of the frames recorded so far */
+	public Summary getSummary() {
+		final List<PhaseSummary> phases = new ArrayList<>(this.phaseNames.length);
+		for (int i = 0; i < this.phaseNames.length; i++) {
+			phases.add(new PhaseSummary(
+				this.phaseNames[i],
+				this.phaseFrames[i],
+				this.phaseOverBudget[i],
+				Duration.millis(this.phaseWorstNanos[i] / 1e6)
+			));
+		}
+		return new Summary(
+			Duration.millis(this.frameBudgetNanos / 1e6),
+			this.histogram.clone(),
+			Collections.unmodifiableList(phases)
+		);
+	}
+	
+	/**
+	 * Records one frame that took the specified amount of time, attributing it to the current phase
+	 */
+	void recordFrame(long frameNanos) {
+		final int bucket = (int) Math.min(BUCKET_COUNT, frameNanos / BUCKET_WIDTH_NANOS);
+		this.histogram[bucket]++;
+		this.phaseFrames[this.currentPhase]++;
+		if (frameNanos > this.frameBudgetNanos) {
+			this.phaseOverBudget[this.currentPhase]++;
+		}
+		if (frameNanos > this.phaseWorstNanos[this.currentPhase]) {
+			this.phaseWorstNanos[this.currentPhase] = frameNanos;
+		}
+	}
+	
+	@Override
+	public void strikeStarted(int strikeIndex, Strike strike, Timing timing) {
+		this.currentPhase = strikeIndex + 1;
+	}
+	
+	@Override
+	public void strikesFinished(Timing timing) {
+		this.currentPhase = this.phaseNames.length - 1;
+	}
+	
+	
+	/**
+	 * The frames recorded during one phase of a battle
+	 */
+	public static final class PhaseSummary {
+		/** A description of the phase, including the attacking spell's class for strikes */
+		public final String name;
+		/** The number of frames recorded */
+		public final long frameCount;
+		/** The number of frames which took longer than the frame budget */
+		public final long overBudgetCount;
+		/** The longest recorded frame */
+		public final Duration worstFrame;
+		
+		public PhaseSummary(String name, long frameCount, long overBudgetCount, Duration worstFrame) {
+			this.name = name;
+			this.frameCount = frameCount;
+			this.overBudgetCount = overBudgetCount;
+			this.worstFrame = worstFrame;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format("%s: %d frames, %d over budget, worst %.1fms", name, frameCount, overBudgetCount, worstFrame.toMillis());
+		}
+	}
+	
+	/**
+	 * The frames recorded during a battle
+	 */
+	public static final class Summary {
+		/** The frame budget used to determine whether a frame was over budget */
+		public final Duration frameBudget;
+		/** The phases of the battle, in order */
+		public final List<PhaseSummary> phases;
+		private final long[] histogram;
+		
+		private Summary(Duration frameBudget, long[] histogram, List<PhaseSummary> phases) {
+			this.frameBudget = frameBudget;
+			this.histogram = histogram;
+			this.phases = phases;
+		}
+		
+		/** The total number of frames recorded */
+		public long frameCount() {
+			return this.phases.stream().mapToLong(x -> x.frameCount).sum();
+		}
+		
+		/** The total number of frames which took longer than the frame budget */
+		public long overBudgetCount() {
+			return this.phases.stream().mapToLong(x -> x.overBudgetCount).sum();
+		}
+		
+		/**
+		 * Returns the number of frames which took at least `millis` milliseconds and less than `millis + 1` milliseconds.
+		 * Frames longer than the histogram's range are counted in the last bucket.
+		 */
+		public long histogramCount(int millis) {
+			return this.histogram[Math.min(millis, this.histogram.length - 1)];
+		}
+		
+		/**
+		 * Returns an upper bound of the specified percentile of frame times,
+		 * accurate to the histogram's one-millisecond bucket width.
+		 * @param percentile a value between 0 and 100
+		 */
+		public Duration percentile(double percentile) {
+			final long total = this.frameCount();
+			final long threshold = (long) Math.ceil(total * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < this.histogram.length; i++) {
+				seen += this.histogram[i];
+				if (seen >= threshold) {
+					return (i == this.histogram.length - 1 ? Duration.INDEFINITE : Duration.millis(i + 1));
+				}
+			}
+			return Duration.ZERO;
+		}
+		
+		/** Returns the phases, sorted by the number of over-budget frames with the most first */
+		public List<PhaseSummary> worstPhases() {
+			final List<PhaseSummary> retval = new ArrayList<>(this.phases);
+			retval.sort((a, b) -> Long.compare(b.overBudgetCount, a.overBudgetCount));
+			return retval;
+		}
+		
+		@Override
+		public String toString() {
+			final StringBuilder retval = new StringBuilder();
+			retval.append(String.format("%d frames, %d over %.1fms budget, p50 %s, p99 %s%n",
+				this.frameCount(), this.overBudgetCount(), this.frameBudget.toMillis(),
+				this.percentile(50), this.percentile(99)));
+			for (PhaseSummary phase : this.phases) {
+				retval.append("\t").append(phase).append(String.format("%n"));
+			}
+			return retval.toString();
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javafx.geometry.Dimension2D;
+
+/**
+ * The parts of a battle that can be determined without building any nodes or animations.
+ * <p>
+ * This includes each strike's effect on the units' hitpoints, whether a
+ * strike is a finisher, and each strike's position in a run of same-attacker
+ * strikes. Values of this class are immutable and do not require the JavaFX
+ * toolkit, so they can be computed on any thread.
+ * <p>
+ * Which part of the battlefield the camera pans to depends on where the
+ * units are at the time of a strike, and a unit may move as part of its
+ * attack animation; that is, the pan targets depend on the values of
+ * {@link UnitAnimationGroup#getCurrentXOffset} while the animation is being
+ * built. So, instead of a precomputed value, the plan provides
+ * {@link #panTargets}, which computes the pan targets given those offsets.
+ * <p>
+ * The plan also includes a {@link #seed}, from which every random value used
+ * by the battle's animation is derived, so that preparing the same plan with
+ * the same sides produces the same frames.
+ */
+public final class BattlePlan {
+	private static final double distanceExtendPastPoint = 150;
+	
+	/** The left unit's hitpoints before any strikes */
+	public final int leftInitialHitpoints;
+	/** The right unit's hitpoints before any strikes */
+	public final int rightInitialHitpoints;
+	/** The left unit's hitpoints after all strikes */
+	public final int leftFinalHitpoints;
+	/** The right unit's hitpoints after all strikes */
+	public final int rightFinalHitpoints;
+	/** The x-coordinate of the right unit's initial foot point. The left unit's is the negation of this value. */
+	public final double initialUnitXOffset;
+	/** The width of the screen, in the battle's coordinate system */
+	public final double logicalScreenWidth;
+	/** A description of each strike, in the order the strikes occur */
+	public final List<StrikePlan> strikes;
+	/** The seed of the random values used by the battle's animation */
+	public final long seed;
+	
+	private BattlePlan(
+		  int leftInitialHitpoints
+		, int rightInitialHitpoints
+		, int leftFinalHitpoints
+		, int rightFinalHitpoints
+		, double initialUnitXOffset
+		, double logicalScreenWidth
+		, List<StrikePlan> strikes
+		, long seed
+	) {
+		this.leftInitialHitpoints = leftInitialHitpoints;
+		this.rightInitialHitpoints = rightInitialHitpoints;
+		this.leftFinalHitpoints = leftFinalHitpoints;
+		this.rightFinalHitpoints = rightFinalHitpoints;
+		this.initialUnitXOffset = initialUnitXOffset;
+		this.logicalScreenWidth = logicalScreenWidth;
+		this.strikes = strikes;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Computes a BattlePlan with an arbitrary seed
+	 *
+	 * @param containerSize the size of the area the battle will be displayed in
+	 * @param verticalDistance the distance between the two units' starting foot points
+	 * @param leftInitialHitpoints the left unit's starting current hitpoints
+	 * @param rightInitialHitpoints the right unit's starting current hitpoints
+	 * @param strikes the strikes to perform, in order
+	 */
+	public static BattlePlan compute(
+		  Dimension2D containerSize
+		, double verticalDistance
+		, int leftInitialHitpoints
+		, int rightInitialHitpoints
+		, List<Strike> strikes
+	) {
+		return compute(containerSize, verticalDistance, leftInitialHitpoints, rightInitialHitpoints, strikes, ThreadLocalRandom.current().nextLong());
+	}
+	
+	/**
+	 * Computes a BattlePlan
+	 *
+	 * @param containerSize the size of the area the battle will be displayed in
+	 * @param verticalDistance the distance between the two units' starting foot points
+	 * @param leftInitialHitpoints the left unit's starting current hitpoints
+	 * @param rightInitialHitpoints the right unit's starting current hitpoints
+	 * @param strikes the strikes to perform, in order
+	 * @param seed the seed of the random values used by the battle's animation
+	 */
+	public static BattlePlan compute(
+		  Dimension2D containerSize
+		, double verticalDistance
+		, int leftInitialHitpoints
+		, int rightInitialHitpoints
+		, List<Strike> strikes
+		, long seed
+	) {
+		final double logicalScreenWidth = containerSize.getWidth() / BattleAnimation.magnification(containerSize.getWidth(), containerSize.getHeight());
+		final ConsecutiveAttackDescriptor[] consecutiveAttackDescs = consecutiveAttackDescriptors(strikes);
+		final List<StrikePlan> strikePlans = new ArrayList<>(strikes.size());
+		
+		int leftCurrentHitpoints = leftInitialHitpoints;
+		int rightCurrentHitpoints = rightInitialHitpoints;
+		for (int i = 0; i < strikes.size(); i++) {
+			final Strike strike = strikes.get(i);
+			final int leftHpDelta = (strike.attacker == Side.LEFT ? strike.drain : -strike.damage);
+			final int rightHpDelta = (strike.attacker == Side.RIGHT ? strike.drain : -strike.damage);
+			final int leftNewHp = leftCurrentHitpoints + leftHpDelta;
+			final int rightNewHp = rightCurrentHitpoints + rightHpDelta;
+			final boolean isFinisher = (strike.attacker == Side.LEFT ? rightNewHp : leftNewHp) <= 0;
+			
+			strikePlans.add(new StrikePlan(
+				  i
+				, strike
+				, consecutiveAttackDescs[i]
+				, leftCurrentHitpoints
+				, leftNewHp
+				, rightCurrentHitpoints
+				, rightNewHp
+				, isFinisher
+			));
+			
+			leftCurrentHitpoints = leftNewHp;
+			rightCurrentHitpoints = rightNewHp;
+		}
+		
+		return new BattlePlan(
+			  leftInitialHitpoints
+			, rightInitialHitpoints
+			, leftCurrentHitpoints
+			, rightCurrentHitpoints
+			, verticalDistance / 2
+			, logicalScreenWidth
+			, Collections.unmodifiableList(strikePlans)
+			, seed
+		);
+	}
+	
+	/** The x-coordinate of the left unit's initial foot point */
+	public double initialLeftXOffset() { return -this.initialUnitXOffset; }
+	/** The x-coordinate of the right unit's initial foot point */
+	public double initialRightXOffset() { return this.initialUnitXOffset; }
+	/** Returns true if the left unit has no hitpoints remaining after the battle */
+	public boolean leftDies() { return this.leftFinalHitpoints <= 0; }
+	/** Returns true if the right unit has no hitpoints remaining after the battle */
+	public boolean rightDies() { return this.rightFinalHitpoints <= 0; }
+	
+	/**
+	 * Determines the pan targets for a strike, given the current offsets of the two units.
+	 *
+	 * @param currentLeftOffset the left unit's current x-offset, as given by {@link UnitAnimationGroup#getCurrentXOffset}
+	 * @param currentRightOffset the right unit's current x-offset, as given by {@link UnitAnimationGroup#getCurrentXOffset}
+	 */
+	public PanTargets panTargets(double currentLeftOffset, double currentRightOffset) {
+		final double centerPan = -(currentLeftOffset + currentRightOffset) / 2;
+		final boolean useCenterPan = Math.abs(currentLeftOffset - currentRightOffset) <= (logicalScreenWidth - distanceExtendPastPoint * 2);
+		final double leftPan = (useCenterPan ? centerPan : -currentLeftOffset + distanceExtendPastPoint - logicalScreenWidth / 2);
+		final double rightPan = (useCenterPan ? centerPan : -currentRightOffset - distanceExtendPastPoint + logicalScreenWidth / 2);
+		return new PanTargets(useCenterPan, leftPan, rightPan);
+	}
+	
+	/**
+	 * Computes the ConsecutiveAttackDescriptor for each strike in a single pass over the list
+	 */
+	private static ConsecutiveAttackDescriptor[] consecutiveAttackDescriptors(List<Strike> strikes) {
+		final ConsecutiveAttackDescriptor[] retval = new ConsecutiveAttackDescriptor[strikes.size()];
+		int runStart = 0;
+		while (runStart < strikes.size()) {
+			final Side sideToMatch = strikes.get(runStart).attacker;
+			int runEnd = runStart;
+			while (runEnd < strikes.size() && strikes.get(runEnd).attacker == sideToMatch) {
+				runEnd++;
+			}
+			final int total = runEnd - runStart;
+			for (int i = runStart; i < runEnd; i++) {
+				retval[i] = new ConsecutiveAttackDescriptor(i - runStart + 1, total);
+			}
+			runStart = runEnd;
+		}
+		return retval;
+	}
+	
+	/**
+	 * The computed values associated with one strike
+	 */
+	public static final class StrikePlan {
+		/** The index of this strike in the battle's strike list */
+		public final int index;
+		/** The strike being described */
+		public final Strike strike;
+		/** This strike's position in a sequence of same-attacker strikes */
+		public final ConsecutiveAttackDescriptor consecutiveAttackDesc;
+		/** The left unit's hitpoints before this strike */
+		public final int leftHitpointsBefore;
+		/** The left unit's hitpoints after this strike */
+		public final int leftHitpointsAfter;
+		/** The right unit's hitpoints before this strike */
+		public final int rightHitpointsBefore;
+		/** The right unit's hitpoints after this strike */
+		public final int rightHitpointsAfter;
+		/** true if this strike reduces the defender's HP to zero */
+		public final boolean isFinisher;
+		
+		private StrikePlan(
+			  int index
+			, Strike strike
+			, ConsecutiveAttackDescriptor consecutiveAttackDesc
+			, int leftHitpointsBefore
+			, int leftHitpointsAfter
+			, int rightHitpointsBefore
+			, int rightHitpointsAfter
+			, boolean isFinisher
+		) {
+			this.index = index;
+			this.strike = strike;
+			this.consecutiveAttackDesc = consecutiveAttackDesc;
+			this.leftHitpointsBefore = leftHitpointsBefore;
+			this.leftHitpointsAfter = leftHitpointsAfter;
+			this.rightHitpointsBefore = rightHitpointsBefore;
+			this.rightHitpointsAfter = rightHitpointsAfter;
+			this.isFinisher = isFinisher;
+		}
+		
+		/** The side that is performing this strike */
+		public Side attacker() { return this.strike.attacker; }
+		/** The side that is receiving this strike */
+		public Side defender() { return (this.strike.attacker == Side.LEFT ? Side.RIGHT : Side.LEFT); }
+	}
+	
+	/**
+	 * The locations the camera should pan to when focusing on either unit
+	 */
+	public static final class PanTargets {
+		/** true if both units fit on screen, such that the camera should stay centered between them */
+		public final boolean useCenterPan;
+		/** The pan value that focuses on the left unit */
+		public final double leftPan;
+		/** The pan value that focuses on the right unit */
+		public final double rightPan;
+		
+		private PanTargets(boolean useCenterPan, double leftPan, double rightPan) {
+			this.useCenterPan = useCenterPan;
+			this.leftPan = leftPan;
+			this.rightPan = rightPan;
+		}
+		
+		/** The pan value that focuses on the given side */
+		public double forSide(Side side) { return (side == Side.LEFT ? leftPan : rightPan); }
+	}
+}
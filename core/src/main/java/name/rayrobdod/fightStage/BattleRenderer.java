@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+import javafx.application.Platform;
+import javafx.geometry.Dimension2D;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+/**
+ * Renders a battle to a sequence of images, without showing it in a window.
+ * <p>
+ * The battle is not played; instead, for each frame, the battle's animation
+ * is sampled at that frame's time and then the battle's scene is snapshotted.
+ * So, rendering is limited only by how quickly frames can be snapshotted,
+ * rather than by the length of the battle.
+ * <p>
+ * Snapshots require the JavaFX toolkit to be running. On a machine without
+ * a display, {@link #startHeadlessToolkit} starts the toolkit using
+ * Monocle's headless platform and the software renderer.
+ */
+public final class BattleRenderer {
+	private BattleRenderer() {}
+	
+	/**
+	 * Receives the frames of a rendered battle
+	 */
+	@FunctionalInterface
+	public static interface FrameSink {
+		/**
+		 * Called once for each frame, in order
+		 * @param index the frame's index, starting at zero
+		 * @param time the time within the battle animation that the frame depicts
+		 * @param frame the frame's image
+		 * @throws IOException if the frame could not be written. Rendering will stop.
+		 */
+		public void accept(int index, Duration time, Image frame) throws IOException;
+	}
+	
+	/**
+	 * Starts the JavaFX toolkit, if it has not already been started.
+	 * <p>
+	 * Unless the relevant system properties have already been set, this uses
+	 * Monocle's headless platform and the software renderer. Since those
+	 * properties are read when the toolkit starts, this has no effect on a
+	 * toolkit that is already running.
+	 */
+	public static synchronized void startHeadlessToolkit() throws InterruptedException {
+		setPropertyIfAbsent("glass.platform", "Monocle");
+		setPropertyIfAbsent("monocle.platform", "Headless");
+		setPropertyIfAbsent("prism.order", "sw");
+		setPropertyIfAbsent("java.awt.headless", "true");
+		
+		final CountDownLatch latch = new CountDownLatch(1);
+		try {
+			startupMethod().invoke(null, (Runnable) latch::countDown);
+		} catch (InvocationTargetException ex) {
+			if (ex.getCause() instanceof IllegalStateException) {
+				// toolkit already started
+				return;
+			}
+			throw asUnchecked(ex.getCause());
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Could not start the JavaFX toolkit", ex);
+		}
+		latch.await();
+		Platform.setImplicitExit(false);
+	}
+	
+	/**
+	 * Finds a static method that takes a Runnable and starts the toolkit.
+	 * <p>
+	 * {@code Platform.startup} only exists in JavaFX 9 and later; in JavaFX 8,
+	 * the same method is only available in the internal {@code PlatformImpl} class.
+	 */
+	private static Method startupMethod() throws ReflectiveOperationException {
+		try {
+			return Platform.class.getMethod("startup", Runnable.class);
+		} catch (NoSuchMethodException ex) {
+			return Class.forName("com.sun.javafx.application.PlatformImpl").getMethod("startup", Runnable.class);
+		}
+	}
+	
+	/**
+	 * Renders a battle, passing each frame to the sink.
+	 * <p>
+	 * The parameters before {@code framesPerSecond} are the same as those of
+	 * {@link BattleAnimation#buildAnimation(Function, Dimension2D, double, AggregateSideParams, AggregateSideParams, List, BattleAnimationListener, long)}.
+	 * The frames are sampled at times {@code 0, 1/framesPerSecond, 2/framesPerSecond, ...},
+	 * up to and including the battle's total duration, and each frame is
+	 * the size of the container.
+	 * <p>
+	 * The listener's events are delivered as the frames are sampled, and each
+	 * event's {@link BattleAnimationListener.Timing#actualTime} is the time of
+	 * the first frame sampled at or after the event.
+	 * <p>
+	 * If called on the JavaFX Application Thread, everything happens on
+	 * that thread. Otherwise, the battle is built and snapshotted on the
+	 * JavaFX Application Thread, while the sink is called on the calling
+	 * thread, so that encoding a frame does not hold up the application thread.
+	 *
+	 * @param framesPerSecond the number of frames to render for each second of the battle
+	 * @param sink the recipient of the frames
+	 * @return the number of frames rendered
+	 * @throws IOException if the sink throws an IOException
+	 * @throws InterruptedException if the calling thread is interrupted while waiting for the application thread
+	 */
+	public static int render(
+		Function<Dimension2D, Node> backgroundNode,
+		Dimension2D containerSize,
+		double verticalDistance,
+		AggregateSideParams left,
+		AggregateSideParams right,
+		List<Strike> strikes,
+		BattleAnimationListener listener,
+		long seed,
+		double framesPerSecond,
+		FrameSink sink
+	) throws IOException, InterruptedException {
+		if (! (framesPerSecond > 0)) {
+			throw new IllegalArgumentException("framesPerSecond must be positive: " + framesPerSecond);
+		}
+		
+		final Prepared prepared = callOnApplicationThread(() -> {
+			final NodeAnimationPair pair = BattleAnimation.buildAnimation(
+				backgroundNode, containerSize, verticalDistance, left, right, strikes, listener, seed);
+			return new Prepared(pair, containerSize);
+		});
+		final Scene scene = prepared.scene;
+		final BakedAnimation animation = prepared.animation;
+		final Duration totalDuration = prepared.totalDuration;
+		
+		final int frameCount = (int) Math.floor(totalDuration.toSeconds() * framesPerSecond) + 1;
+		for (int i = 0; i < frameCount; i++) {
+			final Duration time = Duration.seconds(i / framesPerSecond);
+			final Image frame = callOnApplicationThread(() -> {
+				animation.sample(time);
+				return scene.snapshot(null);
+			});
+			sink.accept(i, time, frame);
+		}
+		// the last frame is usually a little before the end; deliver any events between the two
+		callOnApplicationThread(() -> {
+			animation.sample(totalDuration);
+			return null;
+		});
+		return frameCount;
+	}
+	
+	
+	/**
+	 * Runs the task on the JavaFX Application Thread and returns its result,
+	 * waiting for the task to complete if called from a different thread
+	 */
+	private static <A> A callOnApplicationThread(Callable<A> task) throws InterruptedException {
+		try {
+			if (Platform.isFxApplicationThread()) {
+				return task.call();
+			} else {
+				final FutureTask<A> future = new FutureTask<>(task);
+				Platform.runLater(future);
+				return future.get();
+			}
+		} catch (ExecutionException ex) {
+			throw asUnchecked(ex.getCause());
+		} catch (RuntimeException | InterruptedException ex) {
+			throw ex;
+		} catch (Exception ex) {
+			throw asUnchecked(ex);
+		}
+	}
+	
+	private static RuntimeException asUnchecked(Throwable ex) {
+		if (ex instanceof RuntimeException) {
+			return (RuntimeException) ex;
+		} else if (ex instanceof Error) {
+			throw (Error) ex;
+		} else {
+			return new IllegalStateException(ex);
+		}
+	}
+	
+	/**
+	 * A battle, placed in a scene and with its animation baked
+	 */
+	private static final class Prepared {
+		public final Scene scene;
+		public final BakedAnimation animation;
+		public final Duration totalDuration;
+		
+		public Prepared(NodeAnimationPair pair, Dimension2D containerSize) {
+			this.scene = new Scene(new StackPane(pair.node), containerSize.getWidth(), containerSize.getHeight(), Color.TRANSPARENT);
+			// baking consumes the source animation, so measure it first
+			this.totalDuration = pair.animation.getTotalDuration();
+			this.animation = BakedAnimation.bake(pair.animation);
+		}
+	}
+	
+	private static void setPropertyIfAbsent(String key, String value) {
+		if (null == System.getProperty(key)) {
+			System.setProperty(key, value);
+		}
+	}
+}
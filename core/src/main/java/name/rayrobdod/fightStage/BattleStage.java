@@ -0,0 +1,726 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import static javafx.scene.text.FontWeight.BOLD;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.beans.binding.DoubleExpression;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.value.WritableDoubleValue;
+import javafx.event.ActionEvent;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
+import javafx.geometry.Pos;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.Label;
+import javafx.scene.effect.ColorAdjust;
+import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Translate;
+import javafx.util.Duration;
+
+/**
+ * A long-lived battle scene.
+ * <p>
+ * The HUD, clip and transform chain are built once, upon construction;
+ * each call to {@link #prepare} resets those elements in place and builds a
+ * new Animation which plays a battle using them. Thus a game which plays
+ * many battles in succession need only create one of these.
+ * <p>
+ * Only one Animation returned by `prepare` may be used at a time; the
+ * animation returned by a previous call to `prepare` should be stopped
+ * before `prepare` is called again.
+ */
+public final class BattleStage {
+	private static final Duration pauseDuration = Duration.millis(1000);
+	
+	private final Dimension2D containerSize;
+	private final double verticalDistance;
+	
+	private final Node background;
+	private final Group gameNodeBackgrounds;
+	private final Group gameNode;
+	private final AnchorPane node;
+	
+	private final Translate screenShakeTranslate;
+	private final Translate panTranslate;
+	private final SwipeAnimClip gamePaneClip;
+	private final ResizeCoalescer gamePaneSize;
+	private final ReadOnlyDoubleProperty magnifyBinding;
+	
+	private final HealthDisplay healthbarLeft;
+	private final HealthDisplay healthbarRight;
+	private final HudFlag leftUnitName;
+	private final HudFlag rightUnitName;
+	private final Label leftWeaponName;
+	private final Label rightWeaponName;
+	private final Group leftWeaponIcon;
+	private final Group rightWeaponIcon;
+	private final VBox leftModifierBox;
+	private final VBox rightModifierBox;
+	private final List<HudFlag> leftModifiers;
+	private final List<HudFlag> rightModifiers;
+	private final Node[] hudLayers;
+	
+	/**
+	 * Creates a stage whose health bars use {@link HealthBarStyle#NOTCHES}
+	 * @param backgroundNode a function that produces the battle's backdrop, given the container's size
+	 * @param containerSize the size of the area the battle will be displayed in
+	 * @param verticalDistance the distance between the two units' starting foot points
+	 */
+	public BattleStage(
+		Function<Dimension2D, Node> backgroundNode,
+		Dimension2D containerSize,
+		double verticalDistance
+	) {
+		this(backgroundNode, containerSize, verticalDistance, HealthBarStyle.NOTCHES);
+	}
+	
+	/**
+	 * @param backgroundNode a function that produces the battle's backdrop, given the container's size
+	 * @param containerSize the size of the area the battle will be displayed in
+	 * @param verticalDistance the distance between the two units' starting foot points
+	 * @param healthBarStyle the way the stage will display each unit's health
+	 */
+	public BattleStage(
+		Function<Dimension2D, Node> backgroundNode,
+		Dimension2D containerSize,
+		double verticalDistance,
+		HealthBarStyle healthBarStyle
+	) {
+		this.containerSize = containerSize;
+		this.verticalDistance = verticalDistance;
+		
+		this.screenShakeTranslate = new Translate();
+		final Translate centerTranslate = new Translate();
+		this.panTranslate = new Translate();
+		final Scale magnifyTransform = new Scale();
+		
+		final Translate backgroundCenter = new Translate();
+		final Translate backgroundPan = new Translate();
+		final Scale backgroundScale = new Scale();
+		
+		this.gameNodeBackgrounds = new Group();
+		gameNodeBackgrounds.getTransforms().add(backgroundScale);
+		gameNodeBackgrounds.getTransforms().add(backgroundCenter);
+		gameNodeBackgrounds.getTransforms().add(backgroundPan);
+		
+		this.background = backgroundNode.apply(containerSize);
+		this.gameNode = new Group(this.background, this.gameNodeBackgrounds);
+		gameNode.getTransforms().add(magnifyTransform);
+		gameNode.getTransforms().add(screenShakeTranslate);
+		gameNode.getTransforms().add(centerTranslate);
+		gameNode.getTransforms().add(panTranslate);
+		
+		final Pane gamePane = new Pane(gameNode);
+		this.gamePaneSize = new ResizeCoalescer(gamePane.widthProperty(), gamePane.heightProperty());
+		this.gamePaneClip = new SwipeAnimClip(gamePaneSize.widthProperty(), gamePaneSize.heightProperty());
+		this.magnifyBinding = gamePaneSize.magnificationProperty();
+		gamePane.setClip(gamePaneClip.getNode());
+		centerTranslate.xProperty().bind(gamePaneSize.widthProperty().divide(2));
+		centerTranslate.yProperty().bind(gamePaneSize.heightProperty().multiply(2d/3d));
+		magnifyTransform.xProperty().bind(magnifyBinding);
+		magnifyTransform.yProperty().bind(magnifyBinding);
+		magnifyTransform.pivotXProperty().bind(centerTranslate.xProperty());
+		magnifyTransform.pivotYProperty().bind(centerTranslate.yProperty());
+		
+		backgroundScale.xProperty().bind(gamePaneSize.widthProperty());
+		backgroundScale.yProperty().bind(gamePaneSize.heightProperty());
+		backgroundCenter.xProperty().bind(centerTranslate.xProperty().negate().divide(gamePaneSize.widthProperty()));
+		backgroundCenter.yProperty().bind(centerTranslate.yProperty().negate().divide(gamePaneSize.heightProperty()));
+		backgroundPan.xProperty().bind(panTranslate.xProperty().negate().divide(gamePaneSize.widthProperty()));
+		backgroundPan.yProperty().bind(panTranslate.yProperty().negate().divide(gamePaneSize.heightProperty()));
+		
+		this.healthbarLeft = healthBarStyle.create(HPos.LEFT, Color.BLACK, 0, 0);
+		this.healthbarRight = healthBarStyle.create(HPos.RIGHT, Color.BLACK, 0, 0);
+		this.leftUnitName = new HudFlag(HPos.LEFT, Color.WHITE, Color.BLACK);
+		this.rightUnitName = new HudFlag(HPos.RIGHT, Color.WHITE, Color.BLACK);
+		this.leftWeaponIcon = new Group();
+		this.rightWeaponIcon = new Group();
+		this.leftWeaponName = weaponLabel(leftWeaponIcon, HPos.LEFT, magnifyBinding);
+		this.rightWeaponName = weaponLabel(rightWeaponIcon, HPos.RIGHT, magnifyBinding);
+		this.leftModifiers = new ArrayList<>();
+		this.rightModifiers = new ArrayList<>();
+		
+		final GridPane bottomHud = new GridPane();
+		bottomHud.addRow(0, leftWeaponName, rightWeaponName);
+		bottomHud.addRow(1, healthbarLeft.getNode(), healthbarRight.getNode());
+		GridPane.setHgrow(healthbarLeft.getNode(), Priority.ALWAYS);
+		GridPane.setHgrow(healthbarRight.getNode(), Priority.ALWAYS);
+		GridPane.setHalignment(leftWeaponName, HPos.LEFT);
+		GridPane.setHalignment(rightWeaponName, HPos.RIGHT);
+		healthbarLeft.scaleProperty().bind(magnifyBinding);
+		healthbarRight.scaleProperty().bind(magnifyBinding);
+		leftUnitName.scaleProperty().bind(magnifyBinding);
+		rightUnitName.scaleProperty().bind(magnifyBinding);
+		
+		this.leftModifierBox = new VBox(15, leftUnitName.getNode());
+		leftModifierBox.setAlignment(Pos.TOP_LEFT);
+		this.rightModifierBox = new VBox(15, rightUnitName.getNode());
+		rightModifierBox.setAlignment(Pos.TOP_RIGHT);
+		
+		this.node = new AnchorPane();
+		AnchorPane.setTopAnchor(gamePane, 0.0);
+		AnchorPane.setLeftAnchor(gamePane, 0.0);
+		AnchorPane.setRightAnchor(gamePane, 0.0);
+		AnchorPane.setBottomAnchor(gamePane, 0.0);
+		AnchorPane.setLeftAnchor(bottomHud, 0.0);
+		AnchorPane.setRightAnchor(bottomHud, 0.0);
+		AnchorPane.setBottomAnchor(bottomHud, 0.0);
+		AnchorPane.setTopAnchor(leftModifierBox, 15.0);
+		AnchorPane.setLeftAnchor(leftModifierBox, 0.0);
+		AnchorPane.setTopAnchor(rightModifierBox, 15.0);
+		AnchorPane.setRightAnchor(rightModifierBox, 0.0);
+		node.getChildren().addAll(gamePane, bottomHud, leftModifierBox, rightModifierBox);
+		this.hudLayers = new Node[] {bottomHud, leftModifierBox, rightModifierBox};
+	}
+	
+	/**
+	 * Returns the node associated with this object.
+	 * The object returned has the same identity each time.
+	 */
+	public Node getNode() { return this.node; }
+	
+	/**
+	 * Whether changes to this stage's size are applied at most once per pulse.
+	 * <p>
+	 * While true, a resize is applied to the stage's transforms and HUD at the
+	 * start of the next pulse, so a window being dragged to a new size does
+	 * not recompute them on every layout pass. This delays resizes by one
+	 * frame, and since snapshots do not trigger a pulse, should be false while
+	 * taking snapshots of a stage that has been resized. Defaults to false.
+	 */
+	public BooleanProperty coalesceResizesProperty() { return this.gamePaneSize.coalescingProperty(); }
+	
+	/**
+	 * Resets this stage's HUD, layers and transforms, then creates an
+	 * animation that plays a battle between the two specified sides.
+	 *
+	 * @param left the parameters for the unit on the left side of the screen
+	 * @param right the parameters for the unit on the right side of the screen
+	 * @param strikes the strikes to perform, in order
+	 * @return an animation depicting the battle
+	 */
+	public Animation prepare(
+		AggregateSideParams left,
+		AggregateSideParams right,
+		List<Strike> strikes
+	) {
+		final BattlePlan plan = BattlePlan.compute(
+			containerSize,
+			verticalDistance,
+			left.initialCurrentHitpoints,
+			right.initialCurrentHitpoints,
+			strikes
+		);
+		return this.prepare(left, right, plan);
+	}
+	
+	/**
+	 * Resets this stage's HUD, layers and transforms, then creates an
+	 * animation that plays the specified precomputed battle between the two specified sides.
+	 * <p>
+	 * The plan's initial unit offset and hitpoints take precedence over this
+	 * stage's verticalDistance and the sides' initialCurrentHitpoints.
+	 *
+	 * @param left the parameters for the unit on the left side of the screen
+	 * @param right the parameters for the unit on the right side of the screen
+	 * @param plan the strikes to perform and their effects
+	 * @return an animation depicting the battle, simplified by {@link Animations#optimize}
+	 */
+	public Animation prepare(
+		AggregateSideParams left,
+		AggregateSideParams right,
+		BattlePlan plan
+	) {
+		return this.prepare(left, right, plan, null);
+	}
+	
+	/**
+	 * Resets this stage's HUD, layers and transforms, then creates an
+	 * animation that plays the specified precomputed battle between the two
+	 * specified sides and which notifies the listener of the battle's events.
+	 *
+	 * @param left the parameters for the unit on the left side of the screen
+	 * @param right the parameters for the unit on the right side of the screen
+	 * @param plan the strikes to perform and their effects
+	 * @param listener an object to notify as the animation reaches certain points. May be null.
+	 * @return an animation depicting the battle, simplified by {@link Animations#optimize}
+	 */
+	public Animation prepare(
+		AggregateSideParams left,
+		AggregateSideParams right,
+		BattlePlan plan,
+		BattleAnimationListener listener
+	) {
+		///////////// Reset the node graph
+		final int maxModifiersSize = plan.strikes.stream().mapToInt(x -> x.strike.maxModifierSize()).max().orElse(0);
+		
+		this.screenShakeTranslate.setX(0);
+		this.screenShakeTranslate.setY(0);
+		this.panTranslate.setX(0);
+		this.panTranslate.setY(0);
+		this.gamePaneClip.reset();
+		
+		this.gameNodeBackgrounds.getChildren().setAll(
+			  left.spell.backgroundLayer()
+			, right.spell.backgroundLayer()
+		);
+		this.gameNode.getChildren().setAll(
+			  this.background
+			, this.gameNodeBackgrounds
+			, left.spell.objectBehindLayer()
+			, right.spell.objectBehindLayer()
+			, left.unit.objectBehindLayer()
+			, right.unit.objectBehindLayer()
+			, left.spell.objectFrontLayer()
+			, right.spell.objectFrontLayer()
+		);
+		
+		resetHealthBar(healthbarLeft, left.maximumHitpoints, plan.leftInitialHitpoints, left.teamColor);
+		resetHealthBar(healthbarRight, right.maximumHitpoints, plan.rightInitialHitpoints, right.teamColor);
+		resetHudFlag(leftUnitName, left.teamColor);
+		resetHudFlag(rightUnitName, right.teamColor);
+		resetWeaponLabel(leftWeaponName, leftWeaponIcon, left);
+		resetWeaponLabel(rightWeaponName, rightWeaponIcon, right);
+		resetModifierFlags(leftModifiers, leftModifierBox, HPos.LEFT, maxModifiersSize);
+		resetModifierFlags(rightModifiers, rightModifierBox, HPos.RIGHT, maxModifiersSize);
+		
+		////////// The animation construction
+		
+		final SplittableRandom rng = new SplittableRandom(plan.seed);
+		final Node leftUnitLayer = left.unit.objectBehindLayer();
+		final Node rightUnitLayer = right.unit.objectBehindLayer();
+		final LayerCacheSchedule caching = new LayerCacheSchedule();
+		caching.reset(this.background, leftUnitLayer, rightUnitLayer);
+		caching.reset(this.hudLayers);
+		final ArrayList<Animation> animationParts = new ArrayList<>(plan.strikes.size());
+		final SequentialTransition retval = new SequentialTransition();
+		final EventMarkers markers = new EventMarkers(listener, retval);
+		
+		// place the units at their starting location
+		final RolloverState leftRolloverValues = left.unit.getInitializingRolloverState(Side.LEFT, new Point2D(plan.initialLeftXOffset(), BattleAnimation.GROUND_Y));
+		final RolloverState rightRolloverValues = right.unit.getInitializingRolloverState(Side.RIGHT, new Point2D(plan.initialRightXOffset(), BattleAnimation.GROUND_Y));
+		{
+			final Timeline initializeAnim = new Timeline();
+			initializeAnim.getKeyFrames().add(RolloverState.toDiscreteKeyFrame(Duration.ZERO, leftRolloverValues, rightRolloverValues));
+			initializeAnim.getKeyFrames().add(RolloverState.toDiscreteKeyFrame(Duration.ONE, leftRolloverValues, rightRolloverValues));
+			animationParts.add(caching.during(initializeAnim, LayerCacheSchedule.State.IDLE, this.background, leftUnitLayer, rightUnitLayer));
+		}
+		
+		// transition in
+		{
+			final Animation baseAnim = gamePaneClip.swipeInAnimation(new Random(rng.nextLong()));
+			animationParts.add(new ParallelTransition(
+				caching.set(LayerCacheSchedule.State.CHANGING, this.hudLayers),
+				leftUnitName.fadeInAnimation(left.unitName, baseAnim.getCycleDuration().multiply(2d/3d)),
+				rightUnitName.fadeInAnimation(right.unitName, baseAnim.getCycleDuration().multiply(2d/3d)),
+				baseAnim
+			));
+			animationParts.add(markers.marker((l, t) -> l.swipeInFinished(t)));
+		}
+		
+		// show both initiation animations at the same time
+		animationParts.add(
+			new ParallelTransition(
+				  caching.set(LayerCacheSchedule.State.IDLE, this.hudLayers)
+				, caching.set(LayerCacheSchedule.State.CHANGING, leftUnitLayer, rightUnitLayer)
+				, left.unit.getInitiateAnimation()
+				, right.unit.getInitiateAnimation()
+			)
+		);
+		
+		animationParts.add(caching.during(new PauseTransition(pauseDuration), LayerCacheSchedule.State.IDLE, leftUnitLayer, rightUnitLayer));
+		
+		// show each attack in sequence
+		BattlePanAnimations currentPan = new BattlePanAnimations(
+			panTranslate.xProperty(),
+			panTranslate.yProperty(),
+			0,
+			0
+		);
+		
+		for (BattlePlan.StrikePlan strikePlan : plan.strikes) {
+			final Strike strike = strikePlan.strike;
+			final BattlePlan.PanTargets panTargets = plan.panTargets(
+				left.unit.getCurrentXOffset(leftRolloverValues),
+				right.unit.getCurrentXOffset(rightRolloverValues)
+			);
+			final Animation leftHealthbarAnimation = healthbarAnimation(healthbarLeft, strikePlan.leftHitpointsBefore, strikePlan.leftHitpointsAfter);
+			final Animation rightHealthbarAnimation = healthbarAnimation(healthbarRight, strikePlan.rightHitpointsBefore, strikePlan.rightHitpointsAfter);
+			
+			AggregateSideParams attacker = (strike.attacker == Side.LEFT ? left : right);
+			AggregateSideParams defender = (strike.attacker == Side.LEFT ? right : left);
+			final RolloverState attackerRolloverValues = (strike.attacker == Side.LEFT ? leftRolloverValues : rightRolloverValues);
+			final RolloverState defenderRolloverValues = (strike.attacker == Side.LEFT ? rightRolloverValues : leftRolloverValues);
+			final double attackerPan = panTargets.forSide(strikePlan.attacker());
+			final double defenderPan = panTargets.forSide(strikePlan.defender());
+			currentPan = currentPan.withNewFocusCoords(attackerPan, 0, defenderPan, 0);
+			final BattlePanAnimations currentPanFinal = currentPan;
+			
+			final Animation attackModifierInAnims = HudFlag.seqFadeInAnim(
+				(strike.attacker == Side.LEFT ? leftModifiers : rightModifiers),
+				strike.attackerModifiers
+			);
+			final Animation defenderModifierInAnims = HudFlag.seqFadeInAnim(
+				(strike.attacker == Side.LEFT ? rightModifiers : leftModifiers),
+				strike.defenderModifiers
+			);
+			final Animation attackModifierOutAnims = HudFlag.seqFadeOutAnim(
+				(strike.attacker == Side.LEFT ? leftModifiers : rightModifiers),
+				strike.attackerModifiers
+			);
+			final Animation defenderModifierOutAnims = HudFlag.seqFadeOutAnim(
+				(strike.attacker == Side.LEFT ? rightModifiers : leftModifiers),
+				strike.defenderModifiers
+			);
+			
+			final Point2D target = defender.unit.getSpellTarget(defenderRolloverValues);
+			final Animation hitAnimation = defender.unit.getHitAnimation(
+				  defenderRolloverValues
+				, strike.attackerModifiers
+				, strike.defenderModifiers
+				, strikePlan.isFinisher
+			);
+			final Random spellRng = new Random(rng.nextLong());
+			animationParts.add(markers.marker((l, t) -> l.strikeStarted(strikePlan.index, strike, t)));
+			animationParts.add(
+				caching.during(currentPan.panToAttacker(), LayerCacheSchedule.State.MOVING, this.background, leftUnitLayer, rightUnitLayer)
+			);
+			animationParts.add(new ParallelTransition(
+				caching.set(LayerCacheSchedule.State.MOVING, this.background),
+				caching.set(LayerCacheSchedule.State.CHANGING, leftUnitLayer, rightUnitLayer),
+				caching.set(LayerCacheSchedule.State.CHANGING, this.hudLayers),
+				attackModifierInAnims,
+				attacker.unit.getAttackAnimation(
+					(origin) -> attacker.spell.getAnimation(
+						origin,
+						target,
+						currentPanFinal,
+						new ShakeAnimationFactory(screenShakeTranslate),
+						new ParallelTransition(
+							  markers.marker((l, t) -> l.hitLanded(strikePlan.index, strike, t))
+							, hitAnimation
+							, defenderModifierInAnims
+							, leftHealthbarAnimation
+							, rightHealthbarAnimation
+						),
+						spellRng
+					  )
+					, attackerRolloverValues
+					, target
+					, strikePlan.consecutiveAttackDesc
+					, strike.attackerModifiers
+					, strikePlan.isFinisher
+				)
+			));
+			animationParts.add(new ParallelTransition(
+				caching.set(LayerCacheSchedule.State.IDLE, this.background, leftUnitLayer, rightUnitLayer),
+				caching.set(LayerCacheSchedule.State.IDLE, this.hudLayers),
+				attackModifierOutAnims,
+				defenderModifierOutAnims
+			));
+		}
+		
+		animationParts.add(markers.marker((l, t) -> l.strikesFinished(t)));
+		
+		// If someone died, fade out the guys who died and make the ones who
+		// didn't die perform a flourish.
+		if (plan.leftDies() || plan.rightDies()) {
+			animationParts.add(caching.during(new PauseTransition(pauseDuration.divide(2)), LayerCacheSchedule.State.IDLE, this.hudLayers));
+			final ArrayList<Animation> deathParts = new ArrayList<>(5);
+			deathParts.add(caching.set(LayerCacheSchedule.State.CHANGING, leftUnitLayer, rightUnitLayer));
+			if (plan.leftDies()) {
+				deathParts.add(markers.marker((l, t) -> l.unitDied(Side.LEFT, t)));
+				deathParts.add(deathFadeOutAnimation(left.unit.objectBehindLayer()));
+			}
+			if (plan.rightDies()) {
+				deathParts.add(markers.marker((l, t) -> l.unitDied(Side.RIGHT, t)));
+				deathParts.add(deathFadeOutAnimation(right.unit.objectBehindLayer()));
+			}
+			if (! plan.rightDies()) {
+				deathParts.add(right.unit.getVictoryAnimation());
+			}
+			if (! plan.leftDies()) {
+				deathParts.add(left.unit.getVictoryAnimation());
+			}
+			
+			final ParallelTransition deathTransition = new ParallelTransition();
+			deathTransition.getChildren().addAll(deathParts);
+			animationParts.add(deathTransition);
+		}
+		
+		// pause a bit before fading back to the overworld
+		animationParts.add(new ParallelTransition(
+			caching.set(LayerCacheSchedule.State.IDLE, leftUnitLayer, rightUnitLayer),
+			caching.set(LayerCacheSchedule.State.IDLE, this.hudLayers),
+			new PauseTransition(pauseDuration)
+		));
+		
+		// fade out
+		animationParts.add(new ParallelTransition(
+			caching.set(LayerCacheSchedule.State.CHANGING, this.hudLayers),
+			leftUnitName.fadeOutAnimation(),
+			rightUnitName.fadeOutAnimation(),
+			gamePaneClip.swipeOutAnimation(new Random(rng.nextLong()))
+		));
+		animationParts.add(markers.marker((l, t) -> l.swipeOutFinished(t)));
+		
+		retval.getChildren().addAll(animationParts);
+		Animations.optimize(retval);
+		markers.computeScheduledTimes();
+		return retval;
+	}
+	
+	private static void resetHealthBar(HealthDisplay hb, int maximumHitpoints, int currentHitpoints, Color teamColor) {
+		hb.teamColorProperty().set(teamColor);
+		hb.maximumHealthProperty().set(maximumHitpoints);
+		hb.currentHealthProperty().set(currentHitpoints);
+	}
+	
+	private static void resetHudFlag(HudFlag flag, Color background) {
+		flag.reset();
+		flag.backgroundProperty().set(background);
+	}
+	
+	private static void resetWeaponLabel(Label label, Group iconHolder, AggregateSideParams side) {
+		label.setText(side.weaponName);
+		iconHolder.getChildren().setAll(side.weaponIcon);
+	}
+	
+	/**
+	 * Ensures that `flags` contains at least `count` elements, that the
+	 * first `count` flags are displayed and retracted, and that any other flags are hidden
+	 */
+	private void resetModifierFlags(List<HudFlag> flags, VBox box, HPos alignment, int count) {
+		while (flags.size() < count) {
+			final HudFlag x = new HudFlag(alignment, Color.BLACK, Color.GOLD);
+			x.scaleProperty().bind(magnifyBinding);
+			flags.add(x);
+			box.getChildren().add(x.getNode());
+		}
+		for (int i = 0; i < flags.size(); i++) {
+			final HudFlag x = flags.get(i);
+			x.reset();
+			x.getNode().setVisible(i < count);
+			x.getNode().setManaged(i < count);
+		}
+	}
+	
+	private static Animation healthbarAnimation(HealthDisplay hb, int from, int to) {
+		// a notch drains at the same rate however many points of health it represents,
+		// so a full bar takes no longer to drain than it did with one point per notch
+		final Duration timePerNotch = Duration.millis(50);
+		final Duration timePerTick = timePerNotch.divide(CanvasHealthBar.healthPerNotch(hb.maximumHealthProperty().get()));
+		final Duration time = timePerTick.multiply(Math.abs(to - from));
+		
+		return Animations.simpleAnimation(time, hb.currentHealthProperty(), from, to);
+	}
+	
+	private static final class ShakeAnimationFactory implements ShakeAnimationBiFunction {
+		private static final Duration shakeFrequency = Duration.millis(160);
+		
+		private final WritableDoubleValue xProperty;
+		private final WritableDoubleValue yProperty;
+		
+		private static final double DEFAULT_INTENSITY = 6;
+		private static final Duration DEFAULT_DURATION = shakeFrequency;
+		
+		public ShakeAnimationFactory(
+			  javafx.scene.transform.Translate translate
+		) {
+			this.xProperty = translate.xProperty();
+			this.yProperty = translate.yProperty();
+		}
+		
+		public Animation apply() {
+			return this.apply(DEFAULT_INTENSITY, DEFAULT_DURATION);
+		}
+		
+		public Animation apply(double intensity) {
+			return this.apply(intensity, DEFAULT_DURATION);
+		}
+		
+		public Animation apply(Duration duration) {
+			return this.apply(DEFAULT_INTENSITY, duration);
+		}
+		
+		public Animation apply(double intensity, Duration duration) {
+			return new ShakeTransition(xProperty, yProperty, intensity, shakeFrequency, duration);
+		}
+	}
+	
+	private static Animation deathFadeOutAnimation(Node n) {
+		final ColorAdjust toWhiteEffect = new ColorAdjust();
+		toWhiteEffect.setInput(n.getEffect());
+		n.setEffect(toWhiteEffect);
+		
+		return new SequentialTransition(
+			  Animations.simpleAnimation(Duration.millis(300), toWhiteEffect.brightnessProperty(), 0, 1)
+			, Animations.simpleAnimation(Duration.millis(200), n.opacityProperty(), 1, 0)
+		);
+	}
+	
+	private static HPos negate(HPos hpos) {
+		switch (hpos) {
+			case LEFT: return HPos.RIGHT;
+			case CENTER: return HPos.CENTER;
+			case RIGHT: return HPos.LEFT;
+		}
+		return HPos.CENTER;
+	}
+	
+	private static ContentDisplay toContentDisplay(HPos hpos) {
+		switch (hpos) {
+			case LEFT: return ContentDisplay.LEFT;
+			case CENTER: return ContentDisplay.CENTER;
+			case RIGHT: return ContentDisplay.RIGHT;
+		}
+		return ContentDisplay.CENTER;
+	}
+	
+	/**
+	 * @param iconHolder a group which will contain the weapon icon
+	 */
+	private static Label weaponLabel(Group iconHolder, HPos alignment, DoubleExpression scale) {
+		iconHolder.scaleXProperty().bind(scale);
+		iconHolder.scaleYProperty().bind(scale);
+		final Group iconGG = new Group(iconHolder);
+		
+		final Label retval = new Label("", iconGG);
+		retval.borderProperty().bind(
+			Bindings.solidScalableWidthBorder(
+				Color.WHITE,
+				3,
+				(alignment == HPos.RIGHT ? 0 : 3),
+				0,
+				(alignment == HPos.LEFT ? 0 : 3),
+				scale
+			)
+		);
+		retval.setBackground(BattleAnimation.solidBackground(Color.GOLDENROD.darker()));
+		retval.prefWidthProperty().bind(scale.multiply(180));
+		retval.setTextFill(Color.WHITE);
+		retval.paddingProperty().bind(Bindings.insetScale(new Insets(3, 3, 3, 3), scale));
+		retval.fontProperty().bind(Bindings.fontScale(Font.font("Sans", BOLD, 15), scale));
+		retval.setAlignment(BattleAnimation.withVCenter(negate(alignment)));
+		retval.setContentDisplay(toContentDisplay(negate(alignment)));
+		return retval;
+	}
+	
+	/**
+	 * Creates zero-length animations which notify a BattleAnimationListener
+	 * when played, and determines when each of those will be played
+	 */
+	private static final class EventMarkers {
+		private final BattleAnimationListener listener;
+		private final Animation root;
+		private final Map<Animation, Duration[]> scheduledTimes = new IdentityHashMap<>();
+		
+		public EventMarkers(BattleAnimationListener listener, Animation root) {
+			this.listener = listener;
+			this.root = root;
+		}
+		
+		/**
+		 * Returns an animation which calls the callback when played.
+		 * If there is no listener, returns an animation which does nothing.
+		 */
+		public Animation marker(BiConsumer<BattleAnimationListener, BattleAnimationListener.Timing> callback) {
+			if (null == this.listener) {
+				return Animations.nil();
+			}
+			final Duration[] scheduledTime = {Duration.UNKNOWN};
+			final PauseTransition retval = new PauseTransition(Duration.ZERO);
+			retval.setOnFinished((e) -> callback.accept(this.listener,
+				new BattleAnimationListener.Timing(scheduledTime[0], this.actualTime(e), System.nanoTime())
+			));
+			this.scheduledTimes.put(retval, scheduledTime);
+			return retval;
+		}
+		
+		/**
+		 * Returns the time within the battle animation at which the event was delivered.
+		 * If the root has been baked, its currentTime no longer advances, so the
+		 * time is taken from the BakedAnimation that delivered the event instead.
+		 */
+		private Duration actualTime(ActionEvent e) {
+			if (e.getSource() instanceof BakedAnimation) {
+				return ((BakedAnimation) e.getSource()).getSampledTime();
+			} else {
+				return this.root.getCurrentTime();
+			}
+		}
+		
+		/**
+		 * Finds each marker in the root animation and records its start time
+		 */
+		public void computeScheduledTimes() {
+			if (! this.scheduledTimes.isEmpty()) {
+				this.computeScheduledTimes(this.root, 0, 1);
+			}
+		}
+		
+		/**
+		 * @param start the time, in millis relative to the root, at which anim starts
+		 * @param scale the number of root millis per anim-local millis
+		 */
+		private void computeScheduledTimes(Animation anim, double start, double scale) {
+			final Duration[] scheduledTime = this.scheduledTimes.get(anim);
+			if (null != scheduledTime) {
+				scheduledTime[0] = Duration.millis(start);
+			}
+			if (anim instanceof SequentialTransition) {
+				double cursor = start;
+				for (Animation child : ((SequentialTransition) anim).getChildren()) {
+					cursor += child.getDelay().toMillis() * scale;
+					final double childScale = scale / Math.abs(child.getRate());
+					this.computeScheduledTimes(child, cursor, childScale);
+					cursor += child.getTotalDuration().toMillis() * childScale;
+				}
+			} else if (anim instanceof ParallelTransition) {
+				for (Animation child : ((ParallelTransition) anim).getChildren()) {
+					this.computeScheduledTimes(child, start + child.getDelay().toMillis() * scale, scale / Math.abs(child.getRate()));
+				}
+			}
+		}
+	}
+}
@@ -15,23 +15,83 @@
  */
 package name.rayrobdod.fightStage;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.DoubleFunction;
+
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.value.ObservableDoubleValue;
+import javafx.beans.value.ObservableObjectValue;
 import javafx.geometry.Insets;
+import javafx.scene.layout.Background;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderStroke;
 import javafx.scene.layout.BorderStrokeStyle;
 import javafx.scene.layout.BorderWidths;
 import javafx.scene.layout.CornerRadii;
+import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.scene.text.Font;
 
 /**
  * A collection of static functions that create bindings
+ * <p>
+ * The scaled values are interned in a cache shared by every binding created
+ * by this class, so that components with the same base value and the same
+ * scale share an instance instead of each allocating their own every time
+ * the scale changes.
  */
 final class Bindings {
 	private Bindings() {}
 	
+	/**
+	 * The number of scaled values to retain. Scales are usually small
+	 * integers from a magnification, so only a few are in use at once.
+	 */
+	private static final int CACHE_CAPACITY = 64;
+	
+	private static final Map<ScaledKey, Object> cache = new LinkedHashMap<ScaledKey, Object>(CACHE_CAPACITY, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ScaledKey, Object> eldest) {
+			return this.size() > CACHE_CAPACITY;
+		}
+	};
+	
+	/**
+	 * Returns the cached value of `base` scaled by `scale`, creating it with `scaler` if it is not cached
+	 */
+	@SuppressWarnings("unchecked")
+	static synchronized <A> A scaled(A base, double scale, DoubleFunction<A> scaler) {
+		return (A) cache.computeIfAbsent(new ScaledKey(base, scale), k -> scaler.apply(scale));
+	}
+	
+	private static final class ScaledKey {
+		private final Object base;
+		private final double scale;
+		
+		public ScaledKey(Object base, double scale) {
+			this.base = base;
+			this.scale = scale;
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			if (other instanceof ScaledKey) {
+				final ScaledKey other2 = (ScaledKey) other;
+				return this.base.equals(other2.base) &&
+					Double.compare(this.scale, other2.scale) == 0;
+			} else {
+				return false;
+			}
+		}
+		
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.base, this.scale);
+		}
+	}
+	
 	private final static class InsetMultiplyBinding extends ObjectBinding<Insets> {
 		private final Insets base;
 		private final ObservableDoubleValue scale;
@@ -44,13 +104,12 @@ public InsetMultiplyBinding(Insets base, ObservableDoubleValue scale) {
 		
 		@Override
 		protected Insets computeValue() {
-			final double scaleVal = this.scale.get();
-			return new Insets(
+			return scaled(base, this.scale.get(), scaleVal -> new Insets(
 				  scaleVal * base.getTop()
 				, scaleVal * base.getRight()
 				, scaleVal * base.getBottom()
 				, scaleVal * base.getLeft()
-			);
+			));
 		}
 	}
 	
@@ -72,11 +131,10 @@ public static ObjectBinding<Font> fontScale(Font base, ObservableDoubleValue sca
 			
 			@Override
 			protected Font computeValue() {
-				final double scaleVal = scale.get();
-				return new Font(
+				return scaled(base, scale.get(), scaleVal -> new Font(
 					base.getName(),
 					scaleVal * base.getSize()
-				);
+				));
 			}
 		};
 	}
@@ -85,6 +143,7 @@ protected Font computeValue() {
 	 * A Binding whose value is a solid single-stroke border with the given color and scaled widths
 	 */
 	public static ObjectBinding<Border> solidScalableWidthBorder(Paint color, double top, double right, double bottom, double left, ObservableDoubleValue scale) {
+		final Border base = solidBorder(color, top, right, bottom, left);
 		return new ObjectBinding<Border>() {
 			{
 				super.bind(scale);
@@ -92,20 +151,40 @@ public static ObjectBinding<Border> solidScalableWidthBorder(Paint color, double
 			
 			@Override
 			protected Border computeValue() {
-				final double scaleVal = scale.get();
-				return new Border(
-					new BorderStroke(
-						color,
-						BorderStrokeStyle.SOLID,
-						CornerRadii.EMPTY,
-						new BorderWidths(
-							scaleVal * top,
-							scaleVal * right,
-							scaleVal * bottom,
-							scaleVal * left
-						)
-					)
-				);
+				return scaled(base, scale.get(), scaleVal -> solidBorder(
+					color,
+					scaleVal * top,
+					scaleVal * right,
+					scaleVal * bottom,
+					scaleVal * left
+				));
+			}
+		};
+	}
+	
+	private static Border solidBorder(Paint color, double top, double right, double bottom, double left) {
+		return new Border(
+			new BorderStroke(
+				color,
+				BorderStrokeStyle.SOLID,
+				CornerRadii.EMPTY,
+				new BorderWidths(top, right, bottom, left)
+			)
+		);
+	}
+	
+	/**
+	 * A Binding whose value is a solid background of the given color
+	 */
+	public static ObjectBinding<Background> solidBackground(ObservableObjectValue<Color> color) {
+		return new ObjectBinding<Background>() {
+			{
+				super.bind(color);
+			}
+			
+			@Override
+			protected Background computeValue() {
+				return BattleAnimation.solidBackground(color.get());
 			}
 		};
 	}
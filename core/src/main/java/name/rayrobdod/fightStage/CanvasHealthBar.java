@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import static javafx.scene.text.FontWeight.BOLD;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * A component that displays a unit's current and maximum health, drawing the
+ * health notches on a single canvas.
+ * <p>
+ * Looks like {@link HealthBar} when the maximum health is at most 80. When the
+ * maximum health is higher, each notch represents several points of health, and
+ * a notch that is partially filled is drawn as partially filled.
+ * <p>
+ * A change to the current health only redraws the notches between the
+ * previous and new values.
+ */
+final class CanvasHealthBar implements HealthDisplay {
+	
+	static final int NOTCHES_PER_ROW = 40;
+	static final int ROWS = 2;
+	static final int MAX_NOTCHES = NOTCHES_PER_ROW * ROWS;
+	
+	private static final double NOTCH_WIDTH = 3;
+	private static final double NOTCH_HEIGHT = 14;
+	private static final double ROW_GAP = 2;
+	private static final double STROKE_WIDTH = 1;
+	
+	private final DoubleProperty scale;
+	private final IntegerProperty maximumHealth;
+	private final IntegerProperty currentHealth;
+	private final ObjectProperty<Color> teamColor;
+	private final Canvas notches;
+	private final BorderPane node;
+	
+	/**
+	 * @param labelPosition if HPos.LEFT, the text label will be on the left side of the notches;
+			else if HPos.RIGHT, the text label will be on the right side of the notches;
+			else there will be no text label.
+	 * @param teamColor the initial value of the teamColor property
+	 * @param currentHealth the initial value of the currentHealth property
+	 * @param maxHealth the initial value of the maximumHealth property
+	 */
+	public CanvasHealthBar(
+		  HPos labelPosition
+		, Color teamColor
+		, int currentHealth
+		, int maxHealth
+	) {
+		this.scale = new SimpleDoubleProperty(1.0);
+		this.maximumHealth = new SimpleIntegerProperty(maxHealth);
+		this.currentHealth = new SimpleIntegerProperty(currentHealth);
+		this.teamColor = new SimpleObjectProperty<>(teamColor);
+		
+		this.notches = new Canvas();
+		this.notches.getStyleClass().add("healthbar-notches");
+		this.scale.addListener((a, b, c) -> this.redrawAll());
+		this.maximumHealth.addListener((a, b, c) -> this.redrawAll());
+		this.currentHealth.addListener((a, oldValue, newValue) -> this.redrawRange(oldValue.intValue(), newValue.intValue()));
+		this.redrawAll();
+		
+		final Label hpText = new Label();
+		hpText.textProperty().bind(this.currentHealth.asString());
+		hpText.setTextFill(Color.WHITE);
+		hpText.fontProperty().bind(
+			Bindings.fontScale(Font.font("Sans", BOLD, 18), CanvasHealthBar.this.scale)
+		);
+		hpText.paddingProperty().bind(
+			Bindings.insetScale(new Insets(6), CanvasHealthBar.this.scale)
+		);
+		hpText.prefWidthProperty().bind(this.scale.multiply(40));
+		hpText.setAlignment(Pos.CENTER);
+		
+		this.node = new BorderPane();
+		this.node.setCenter(notches);
+		BorderPane.setAlignment(notches, BattleAnimation.withVCenter(labelPosition));
+		if (labelPosition == HPos.LEFT) {
+			this.node.setLeft(hpText);
+		}
+		if (labelPosition == HPos.RIGHT) {
+			this.node.setRight(hpText);
+		}
+		BorderPane.setAlignment(hpText, Pos.CENTER);
+		this.node.paddingProperty().bind(
+			Bindings.insetScale(new Insets(8, 3, 6, 3), CanvasHealthBar.this.scale)
+		);
+		this.node.backgroundProperty().bind(Bindings.solidBackground(this.teamColor));
+		this.node.borderProperty().bind(
+			Bindings.solidScalableWidthBorder(
+				Color.WHITE,
+				3,
+				(labelPosition == HPos.RIGHT ? 0 : 1.5),
+				0,
+				(labelPosition == HPos.LEFT ? 0 : 1.5),
+				CanvasHealthBar.this.scale
+			)
+		);
+	}
+	
+	@Override public Node getNode() { return this.node; }
+	@Override public IntegerProperty maximumHealthProperty() { return this.maximumHealth; }
+	@Override public IntegerProperty currentHealthProperty() { return this.currentHealth; }
+	@Override public ObjectProperty<Color> teamColorProperty() { return this.teamColor; }
+	@Override public DoubleProperty scaleProperty() { return this.scale; }
+	
+	/** The number of points of health each notch represents */
+	int healthPerNotch() {
+		return healthPerNotch(this.maximumHealth.get());
+	}
+	
+	/** The number of points of health each notch represents in a bar with the specified maximum health */
+	static int healthPerNotch(int maximumHealth) {
+		return Math.max(1, (maximumHealth + MAX_NOTCHES - 1) / MAX_NOTCHES);
+	}
+	
+	/** The number of notches displayed */
+	int notchCount() {
+		final int max = Math.max(0, this.maximumHealth.get());
+		final int perNotch = this.healthPerNotch();
+		return (max + perNotch - 1) / perNotch;
+	}
+	
+	/** The fraction of the notch at the specified index that is filled */
+	double notchFill(int index) {
+		final int perNotch = this.healthPerNotch();
+		final int inNotch = this.currentHealth.get() - index * perNotch;
+		return Math.max(0, Math.min(perNotch, inNotch)) / (double) perNotch;
+	}
+	
+	
+	private void redrawAll() {
+		final double scale = this.scale.get();
+		this.notches.setWidth(NOTCHES_PER_ROW * cellWidth(scale));
+		this.notches.setHeight(ROWS * cellHeight(scale) + (ROWS - 1) * ROW_GAP * scale);
+		
+		final GraphicsContext g = this.notches.getGraphicsContext2D();
+		g.clearRect(0, 0, this.notches.getWidth(), this.notches.getHeight());
+		this.drawNotches(0, this.notchCount());
+	}
+	
+	/**
+	 * Redraws the notches which display health values between the two specified values
+	 */
+	private void redrawRange(int health1, int health2) {
+		final int perNotch = this.healthPerNotch();
+		final int low = Math.max(0, Math.min(health1, health2)) / perNotch;
+		final int high = (Math.max(health1, health2) + perNotch - 1) / perNotch;
+		this.drawNotches(low, Math.min(high, this.notchCount()));
+	}
+	
+	/** Draws the notches with indexes in [from, until) */
+	private void drawNotches(int from, int until) {
+		final double scale = this.scale.get();
+		final double width = NOTCH_WIDTH * scale;
+		final double height = NOTCH_HEIGHT * scale;
+		final GraphicsContext g = this.notches.getGraphicsContext2D();
+		g.setStroke(Color.BLACK);
+		g.setLineWidth(STROKE_WIDTH);
+		
+		for (int i = from; i < until; i++) {
+			final double x = (i % NOTCHES_PER_ROW) * cellWidth(scale) + STROKE_WIDTH / 2;
+			final double y = (i / NOTCHES_PER_ROW) * (cellHeight(scale) + ROW_GAP * scale) + STROKE_WIDTH / 2;
+			final double filledHeight = height * this.notchFill(i);
+			
+			g.setFill(Color.GREY);
+			g.fillRect(x, y, width, height - filledHeight);
+			g.setFill(Color.LIME);
+			g.fillRect(x, y + height - filledHeight, width, filledHeight);
+			g.strokeRect(x, y, width, height);
+		}
+	}
+	
+	private static double cellWidth(double scale) {
+		return NOTCH_WIDTH * scale + STROKE_WIDTH;
+	}
+	
+	private static double cellHeight(double scale) {
+		return NOTCH_HEIGHT * scale + STROKE_WIDTH;
+	}
+}
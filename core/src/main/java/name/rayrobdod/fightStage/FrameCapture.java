@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Captures the frames of an animated node, from a thread other than the JavaFX
+ * Application Thread.
+ * <p>
+ * Each capture seeks the animation and requests a snapshot of the node in the
+ * same turn of the application thread, then waits for the snapshot to be
+ * delivered, so each frame takes one hand-off to the application thread.
+ * <p>
+ * Snapshots are rendered into preallocated images rather than into new images.
+ * {@link #capture(Runnable)} cycles through a small ring of images owned by
+ * this object, so the image it returns is overwritten by a later capture;
+ * {@link #capture(Runnable, WritableImage)} renders into an image supplied by
+ * the caller, for callers that hold onto frames for longer. Either way, the
+ * pixels can be copied out with {@link #readArgb}.
+ */
+public final class FrameCapture {
+	private final Node node;
+	private final SnapshotParameters parameters;
+	private final int width;
+	private final int height;
+	private final WritableImage[] ring;
+	private int ringNext;
+	
+	/**
+	 * @param node the node to snapshot
+	 * @param viewport the part of the node to snapshot, in the node's parent's coordinates
+	 * @param ringSize the number of images that {@link #capture(Runnable)} cycles through
+	 */
+	public FrameCapture(Node node, Rectangle2D viewport, int ringSize) {
+		if (ringSize < 1) {
+			throw new IllegalArgumentException("ringSize must be positive: " + ringSize);
+		}
+		this.node = node;
+		this.parameters = new SnapshotParameters();
+		this.parameters.setFill(Color.TRANSPARENT);
+		this.parameters.setViewport(viewport);
+		this.width = (int) Math.ceil(viewport.getWidth());
+		this.height = (int) Math.ceil(viewport.getHeight());
+		this.ring = new WritableImage[ringSize];
+		for (int i = 0; i < ringSize; i++) {
+			this.ring[i] = this.newImage();
+		}
+		this.ringNext = 0;
+	}
+	
+	/** The width of each captured frame */
+	public int getWidth() { return this.width; }
+	
+	/** The height of each captured frame */
+	public int getHeight() { return this.height; }
+	
+	/** Creates an image that is the size of a captured frame */
+	public WritableImage newImage() {
+		return new WritableImage(this.width, this.height);
+	}
+	
+	/**
+	 * Runs seek on the application thread, then snapshots the node into the
+	 * next image in this object's ring of images.
+	 * <p>
+	 * The returned image remains unchanged until this has been called
+	 * {@code ringSize} more times.
+	 * <p>
+	 * MUST NOT be called on the JavaFX application thread
+	 * @param seek an action that brings the node to the state to capture, such as seeking its animation
+	 * @return the captured frame
+	 */
+	public WritableImage capture(Runnable seek) throws InterruptedException {
+		final WritableImage target = this.ring[this.ringNext];
+		this.ringNext = (this.ringNext + 1) % this.ring.length;
+		return this.capture(seek, target);
+	}
+	
+	/**
+	 * Runs seek on the application thread, then snapshots the node into target.
+	 * <p>
+	 * MUST NOT be called on the JavaFX application thread
+	 * @param seek an action that brings the node to the state to capture, such as seeking its animation
+	 * @param target the image to render into. Should be an image created by {@link #newImage}.
+	 * @return the captured frame, which is target
+	 */
+	public WritableImage capture(Runnable seek, WritableImage target) throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final RuntimeException[] seekException = new RuntimeException[1];
+		Platform.runLater(() -> {
+			try {
+				seek.run();
+			} catch (RuntimeException ex) {
+				seekException[0] = ex;
+				latch.countDown();
+				return;
+			}
+			this.node.snapshot((result) -> {
+				latch.countDown();
+				return null;
+			}, this.parameters, target);
+		});
+		latch.await();
+		if (null != seekException[0]) {
+			throw seekException[0];
+		}
+		return target;
+	}
+	
+	/**
+	 * Runs seek on the application thread, snapshots the node, then copies the
+	 * snapshot's pixels into dest as non-premultiplied ARGB values, row by row.
+	 * <p>
+	 * MUST NOT be called on the JavaFX application thread
+	 * @param dest a buffer with at least {@code getWidth() * getHeight()} remaining ints
+	 */
+	public void captureArgb(Runnable seek, IntBuffer dest) throws InterruptedException {
+		readArgb(this.capture(seek), dest);
+	}
+	
+	/**
+	 * Copies the image's pixels into dest as non-premultiplied ARGB values, row by row.
+	 * Does not change dest's position.
+	 * @param dest a buffer with at least {@code width * height} remaining ints
+	 */
+	public static void readArgb(Image image, IntBuffer dest) {
+		final int width = (int) image.getWidth();
+		final int height = (int) image.getHeight();
+		image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), dest, width);
+	}
+}
@@ -20,8 +20,10 @@
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -37,18 +39,19 @@
 /**
  * A component that displays a unit's current and maximum health
  */
-final class HealthBar {
+final class HealthBar implements HealthDisplay {
 	
 	private final DoubleProperty scale;
 	private final IntegerProperty maximumHealth;
 	private final IntegerProperty currentHealth;
+	private final ObjectProperty<Color> teamColor;
 	private final BorderPane node;
 	
 	/**
 	 * @param labelPosition if HPos.LEFT, the text label will be on the left side of the notches;
 			else if HPos.RIGHT, the text label will be on the right side of the notches;
 			else there will be no text label.
-	 * @param teamColor a color representing the unit's team
+	 * @param teamColor the initial value of the teamColor property
 	 * @param currentHealth the initial value of the currentHealth property
 	 * @param maxHealth the initial value of the maximumHealth property
 	 */
@@ -61,6 +64,7 @@ public HealthBar(
 		this.scale = new SimpleDoubleProperty(1.0);
 		this.maximumHealth = new SimpleIntegerProperty(maxHealth);
 		this.currentHealth = new SimpleIntegerProperty(currentHealth);
+		this.teamColor = new SimpleObjectProperty<>(teamColor);
 		
 		final GridPane notches = new GridPane();
 		for (int i2 = 1; i2 <= 80; i2++) {
@@ -115,7 +119,7 @@ protected Paint computeValue() {
 		this.node.paddingProperty().bind(
 			Bindings.insetScale(new Insets(8, 3, 6, 3), HealthBar.this.scale)
 		);
-		this.node.setBackground(BattleAnimation.solidBackground(teamColor));
+		this.node.backgroundProperty().bind(Bindings.solidBackground(this.teamColor));
 		this.node.borderProperty().bind(
 			Bindings.solidScalableWidthBorder(
 				Color.WHITE,
@@ -138,6 +142,8 @@ protected Paint computeValue() {
 	public IntegerProperty maximumHealthProperty() { return this.maximumHealth; }
 	/** The current health displayed by this component */
 	public IntegerProperty currentHealthProperty() { return this.currentHealth; }
+	/** A color representing the unit's team; used as this component's background */
+	public ObjectProperty<Color> teamColorProperty() { return this.teamColor; }
 	/** A value that any internal related to size are multiplied by */
 	public DoubleProperty scaleProperty() { return this.scale; }
 	
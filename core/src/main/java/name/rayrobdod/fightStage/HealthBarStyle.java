@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.geometry.HPos;
+import javafx.scene.paint.Color;
+
+/**
+ * The ways a battle can display each unit's health
+ */
+public enum HealthBarStyle {
+	/**
+	 * One node per point of health. Cannot display more than 80 points of health.
+	 */
+	NOTCHES,
+	/**
+	 * Notches drawn on a single canvas. When the maximum health is more than
+	 * 80, each notch represents several points of health.
+	 */
+	CANVAS;
+	
+	/** The largest maximum health that this style can display */
+	public int maximumDisplayableHealth() {
+		switch (this) {
+			case NOTCHES: return CanvasHealthBar.MAX_NOTCHES;
+			default: return Integer.MAX_VALUE;
+		}
+	}
+	
+	/**
+	 * Returns NOTCHES if it can display the specified maximum health, else CANVAS
+	 */
+	public static HealthBarStyle forMaximumHealth(int maximumHealth) {
+		return (maximumHealth <= NOTCHES.maximumDisplayableHealth() ? NOTCHES : CANVAS);
+	}
+	
+	/** Creates a health display in this style */
+	HealthDisplay create(HPos labelPosition, Color teamColor, int currentHealth, int maxHealth) {
+		switch (this) {
+			case NOTCHES: return new HealthBar(labelPosition, teamColor, currentHealth, maxHealth);
+			default: return new CanvasHealthBar(labelPosition, teamColor, currentHealth, maxHealth);
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+
+/**
+ * A component that displays a unit's current and maximum health
+ */
+interface HealthDisplay {
+	/**
+	 * Returns the node associated with this component.
+	 * The object returned has the same identity each time.
+	 */
+	public Node getNode();
+	
+	/** The maximum health displayed by this component */
+	public IntegerProperty maximumHealthProperty();
+	/** The current health displayed by this component */
+	public IntegerProperty currentHealthProperty();
+	/** A color representing the unit's team; used as this component's background */
+	public ObjectProperty<Color> teamColorProperty();
+	/** A value that any internal related to size are multiplied by */
+	public DoubleProperty scaleProperty();
+}
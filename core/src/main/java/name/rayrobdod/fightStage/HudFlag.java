@@ -27,7 +27,9 @@
 import javafx.animation.ParallelTransition;
 import javafx.animation.Timeline;
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
@@ -46,6 +48,7 @@ final class HudFlag {
 	private final Label node;
 	private final DoubleProperty scale;
 	private final DoubleProperty width;
+	private final ObjectProperty<Color> background;
 	
 	public HudFlag(
 		  HPos alignment
@@ -55,6 +58,7 @@ public HudFlag(
 		this.node = new Label();
 		this.scale = new SimpleDoubleProperty(1.0);
 		this.width = new SimpleDoubleProperty(0.0);
+		this.background = new SimpleObjectProperty<>(background);
 		
 		this.node.borderProperty().bind(
 			Bindings.solidScalableWidthBorder(
@@ -66,7 +70,7 @@ public HudFlag(
 				HudFlag.this.scale
 			)
 		);
-		node.setBackground(BattleAnimation.solidBackground(background));
+		node.backgroundProperty().bind(Bindings.solidBackground(this.background));
 		node.setMinWidth(0);
 		node.prefWidthProperty().bind(this.scale.multiply(this.width));
 		node.setTextFill(foreground);
@@ -84,6 +88,18 @@ public HudFlag(
 	/** A value that any internal related to size are multiplied by */
 	public DoubleProperty scaleProperty() { return this.scale; }
 	
+	/** The color of this flag's background */
+	public ObjectProperty<Color> backgroundProperty() { return this.background; }
+	
+	/**
+	 * Retracts this flag and clears its text,
+	 * returning it to the state it had immediately after construction.
+	 */
+	public void reset() {
+		this.width.set(0.0);
+		this.node.setText("");
+	}
+	
 	
 	public Animation fadeInAnimation(String newText) {
 		return this.fadeInAnimation(newText, Duration.millis(250));
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.animation.Animation;
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.ParallelTransition;
+import javafx.animation.Timeline;
+import javafx.scene.CacheHint;
+import javafx.scene.Node;
+import javafx.util.Duration;
+
+/**
+ * Creates the animations that change a battle's layers' cache hints as the
+ * layers go between being idle, being moved and being changed.
+ * <p>
+ * A cached node is rendered from a bitmap as long as its contents do not
+ * change, which is cheaper than rendering its tree of nodes, but the bitmap
+ * must be rerendered each time its contents do change. So, a layer is
+ * cached while idle, cached with {@link CacheHint#SPEED} while only its
+ * transforms are changing, and not cached while its contents are changing.
+ * <p>
+ * Since the cache hints are set by KeyFrames, they are correct after the
+ * battle animation is jumped to any time, and they are set correctly by
+ * {@link SeekIndex} and {@link BakedAnimation}.
+ */
+final class LayerCacheSchedule {
+	
+	/** What is happening to a layer */
+	public static enum State {
+		/** The layer is not changing */
+		IDLE(true, CacheHint.DEFAULT),
+		/** The layer's transforms are changing, such as during pans and shakes, but its contents are not */
+		MOVING(true, CacheHint.SPEED),
+		/** The layer's contents are changing */
+		CHANGING(false, CacheHint.DEFAULT);
+		
+		final boolean cache;
+		final CacheHint cacheHint;
+		
+		private State(boolean cache, CacheHint cacheHint) {
+			this.cache = cache;
+			this.cacheHint = cacheHint;
+		}
+	}
+	
+	/** The state of each layer at the end of the most recently created animation */
+	private final Map<Node, State> states = new IdentityHashMap<>();
+	
+	/**
+	 * Returns an animation that puts the specified layers into the specified state.
+	 * <p>
+	 * The returned animation lasts one millisecond, so it should be played
+	 * in parallel with the animation during which the layers are in that
+	 * state. Animations are expected to be played in the order they were created.
+	 */
+	public Animation set(State state, Node... layers) {
+		final List<KeyValue> values = new ArrayList<>();
+		for (Node layer : layers) {
+			if (this.states.put(layer, state) != state) {
+				values.add(new KeyValue(layer.cacheProperty(), state.cache, Interpolator.DISCRETE));
+				values.add(new KeyValue(layer.cacheHintProperty(), state.cacheHint, Interpolator.DISCRETE));
+			}
+		}
+		if (values.isEmpty()) {
+			return Animations.nil();
+		}
+		final KeyValue[] valuesArray = values.toArray(new KeyValue[0]);
+		return new Timeline(
+			new KeyFrame(Duration.ZERO, valuesArray),
+			new KeyFrame(Duration.ONE, valuesArray)
+		);
+	}
+	
+	/**
+	 * Returns an animation that plays `during` and puts the specified layers
+	 * into the specified state at the same time.
+	 */
+	public Animation during(Animation during, State state, Node... layers) {
+		return new ParallelTransition(this.set(state, layers), during);
+	}
+	
+	/**
+	 * Turns off caching for each layer immediately, and forgets each layer's state
+	 */
+	public void reset(Node... layers) {
+		for (Node layer : layers) {
+			layer.setCache(false);
+			layer.setCacheHint(CacheHint.DEFAULT);
+			this.states.remove(layer);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.value.ObservableDoubleValue;
+
+/**
+ * Follows a container's size, optionally applying changes at most once per pulse.
+ * <p>
+ * While a window is being resized, a container's size can change several
+ * times per pulse. When the coalescing property is true, size changes are
+ * held until the next pulse, and then the latest size is applied once. When
+ * the coalescing property is false, size changes are applied immediately.
+ * <p>
+ * In both modes, the magnification is only updated when its value changes,
+ * so the many components that depend on it are not invalidated by a resize
+ * that does not cross a magnification boundary.
+ */
+final class ResizeCoalescer {
+	private final ObservableDoubleValue sourceWidth;
+	private final ObservableDoubleValue sourceHeight;
+	private final ReadOnlyDoubleWrapper width;
+	private final ReadOnlyDoubleWrapper height;
+	private final ReadOnlyDoubleWrapper magnification;
+	private final BooleanProperty coalescing;
+	private final AnimationTimer nextPulse;
+	private boolean pending;
+	
+	/**
+	 * @param sourceWidth the container's width
+	 * @param sourceHeight the container's height
+	 */
+	public ResizeCoalescer(ObservableDoubleValue sourceWidth, ObservableDoubleValue sourceHeight) {
+		this.sourceWidth = sourceWidth;
+		this.sourceHeight = sourceHeight;
+		this.width = new ReadOnlyDoubleWrapper();
+		this.height = new ReadOnlyDoubleWrapper();
+		this.magnification = new ReadOnlyDoubleWrapper();
+		this.coalescing = new SimpleBooleanProperty(false);
+		this.pending = false;
+		this.nextPulse = new AnimationTimer() {
+			@Override public void handle(long now) {
+				ResizeCoalescer.this.flush();
+			}
+		};
+		
+		sourceWidth.addListener(x -> this.sourceInvalidated());
+		sourceHeight.addListener(x -> this.sourceInvalidated());
+		this.coalescing.addListener((a, b, newValue) -> {
+			if (! newValue) { this.flush(); }
+		});
+		this.apply();
+	}
+	
+	/** The container's width, as of the most recently applied change */
+	public ReadOnlyDoubleProperty widthProperty() { return this.width.getReadOnlyProperty(); }
+	/** The container's height, as of the most recently applied change */
+	public ReadOnlyDoubleProperty heightProperty() { return this.height.getReadOnlyProperty(); }
+	/** The magnification of the logical screen that fits in the container, as of the most recently applied change */
+	public ReadOnlyDoubleProperty magnificationProperty() { return this.magnification.getReadOnlyProperty(); }
+	/** Whether size changes are held until the next pulse */
+	public BooleanProperty coalescingProperty() { return this.coalescing; }
+	
+	/** Applies any held size change immediately */
+	public void flush() {
+		if (this.pending) {
+			this.nextPulse.stop();
+			this.pending = false;
+			this.apply();
+		}
+	}
+	
+	private void sourceInvalidated() {
+		if (this.coalescing.get()) {
+			if (! this.pending) {
+				this.pending = true;
+				this.nextPulse.start();
+			}
+		} else {
+			this.apply();
+		}
+	}
+	
+	private void apply() {
+		final double w = this.sourceWidth.get();
+		final double h = this.sourceHeight.get();
+		this.width.set(w);
+		this.height.set(h);
+		this.magnification.set(BattleAnimation.magnification(w, h));
+	}
+}
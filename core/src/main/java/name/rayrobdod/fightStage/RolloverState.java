@@ -0,0 +1,287 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.beans.value.WritableDoubleValue;
+import javafx.util.Duration;
+
+/**
+ * The values that a unit's properties will have at the end of the most
+ * recently built part of a battle animation, which are carried over from one
+ * strike to the next.
+ * <p>
+ * Each property is identified by a handle, which is the index at which the
+ * property was added to the state; the first property added has handle 0,
+ * the second 1, and so on. A state made by {@link #of} from a map adds the
+ * properties in the map's iteration order, which need not match the order
+ * in which {@link UnitAnimationGroup#getInitializingRolloverState} added
+ * them, so units should not assume that a property has a particular handle.
+ * Instead, units can read and write their values with {@link #get(WritableDoubleValue)}
+ * and {@link #set(WritableDoubleValue, double)}, which find a property by
+ * comparing identity among the state's few properties, without boxing or hashing.
+ * <p>
+ * {@link #asMap} provides a view of this state as a
+ * {@code Map<WritableDoubleValue, Double>}, for use with units which
+ * implement the map-based methods of {@link UnitAnimationGroup}.
+ */
+public final class RolloverState {
+	private WritableDoubleValue[] properties;
+	private double[] values;
+	private int size;
+	
+	/** Creates an empty state */
+	public RolloverState() {
+		this(4);
+	}
+	
+	/**
+	 * Creates an empty state
+	 * @param capacity the number of properties the state can hold before having to grow
+	 */
+	public RolloverState(int capacity) {
+		this.properties = new WritableDoubleValue[capacity];
+		this.values = new double[capacity];
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns a state containing the entries of the specified map.
+	 * If the map is a view returned by {@link #asMap}, returns the state backing that view.
+	 */
+	public static RolloverState of(Map<WritableDoubleValue, Double> map) {
+		if (map instanceof MapView) {
+			return ((MapView) map).backing;
+		}
+		final RolloverState retval = new RolloverState(map.size());
+		for (Map.Entry<WritableDoubleValue, Double> entry : map.entrySet()) {
+			retval.add(entry.getKey(), entry.getValue());
+		}
+		return retval;
+	}
+	
+	/**
+	 * Adds a property to this state, or sets the value of the property if it is already in this state
+	 * @return the property's handle
+	 */
+	public int add(WritableDoubleValue property, double value) {
+		final int existing = this.indexOf(property);
+		if (existing >= 0) {
+			this.values[existing] = value;
+			return existing;
+		}
+		if (this.size == this.properties.length) {
+			final int newCapacity = Math.max(4, this.size * 2);
+			this.properties = Arrays.copyOf(this.properties, newCapacity);
+			this.values = Arrays.copyOf(this.values, newCapacity);
+		}
+		this.properties[this.size] = property;
+		this.values[this.size] = value;
+		return this.size++;
+	}
+	
+	/** Returns the handle of the specified property, or -1 if the property is not in this state */
+	public int indexOf(Object property) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.properties[i] == property) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/** The number of properties in this state */
+	public int size() { return this.size; }
+	
+	/** Returns the property with the specified handle */
+	public WritableDoubleValue property(int handle) {
+		this.checkHandle(handle);
+		return this.properties[handle];
+	}
+	
+	/** Returns the value of the property with the specified handle */
+	public double get(int handle) {
+		this.checkHandle(handle);
+		return this.values[handle];
+	}
+	
+	/** Sets the value of the property with the specified handle */
+	public void set(int handle, double value) {
+		this.checkHandle(handle);
+		this.values[handle] = value;
+	}
+	
+	/**
+	 * Returns the value of the specified property
+	 * @throws NoSuchElementException if the property is not in this state
+	 */
+	public double get(WritableDoubleValue property) {
+		return this.values[this.requireIndexOf(property)];
+	}
+	
+	/**
+	 * Sets the value of the specified property
+	 * @throws NoSuchElementException if the property is not in this state
+	 */
+	public void set(WritableDoubleValue property, double value) {
+		this.values[this.requireIndexOf(property)] = value;
+	}
+	
+	/**
+	 * Returns a live view of this state as a map. Changes to the map write
+	 * through to this state, and the reverse. Removing entries is not supported.
+	 */
+	public Map<WritableDoubleValue, Double> asMap() {
+		return new MapView(this);
+	}
+	
+	/**
+	 * Returns a KeyFrame that sets each property in the specified states to
+	 * its value in that state, without interpolation
+	 */
+	public static KeyFrame toDiscreteKeyFrame(Duration time, RolloverState... states) {
+		int count = 0;
+		for (RolloverState state : states) {
+			count += state.size;
+		}
+		final KeyValue[] keyValues = new KeyValue[count];
+		int i = 0;
+		for (RolloverState state : states) {
+			for (int j = 0; j < state.size; j++) {
+				keyValues[i] = new KeyValue(state.properties[j], state.values[j], Interpolator.DISCRETE);
+				i++;
+			}
+		}
+		return new KeyFrame(time, keyValues);
+	}
+	
+	private int requireIndexOf(WritableDoubleValue property) {
+		final int retval = this.indexOf(property);
+		if (retval < 0) {
+			throw new NoSuchElementException("property not in state: " + property);
+		}
+		return retval;
+	}
+	
+	private void checkHandle(int handle) {
+		if (handle < 0 || handle >= this.size) {
+			throw new IndexOutOfBoundsException("handle " + handle + " out of bounds for size " + this.size);
+		}
+	}
+	
+	
+	/**
+	 * A map view of a RolloverState
+	 */
+	private static final class MapView extends AbstractMap<WritableDoubleValue, Double> {
+		public final RolloverState backing;
+		
+		public MapView(RolloverState backing) {
+			this.backing = backing;
+		}
+		
+		@Override
+		public int size() { return this.backing.size; }
+		
+		@Override
+		public boolean containsKey(Object key) {
+			return this.backing.indexOf(key) >= 0;
+		}
+		
+		@Override
+		public Double get(Object key) {
+			final int handle = this.backing.indexOf(key);
+			return (handle >= 0 ? this.backing.values[handle] : null);
+		}
+		
+		@Override
+		public Double put(WritableDoubleValue key, Double value) {
+			final Double retval = this.get(key);
+			this.backing.add(key, value);
+			return retval;
+		}
+		
+		@Override
+		public Set<Map.Entry<WritableDoubleValue, Double>> entrySet() {
+			return new AbstractSet<Map.Entry<WritableDoubleValue, Double>>() {
+				@Override public int size() { return MapView.this.backing.size; }
+				
+				@Override public Iterator<Map.Entry<WritableDoubleValue, Double>> iterator() {
+					return new Iterator<Map.Entry<WritableDoubleValue, Double>>() {
+						private int next = 0;
+						
+						@Override public boolean hasNext() { return this.next < MapView.this.backing.size; }
+						
+						@Override public Map.Entry<WritableDoubleValue, Double> next() {
+							if (! this.hasNext()) {
+								throw new NoSuchElementException();
+							}
+							final int handle = this.next;
+							this.next++;
+							return new ViewEntry(MapView.this.backing, handle);
+						}
+					};
+				}
+			};
+		}
+	}
+	
+	/**
+	 * An entry of a MapView
+	 */
+	private static final class ViewEntry implements Map.Entry<WritableDoubleValue, Double> {
+		private final RolloverState backing;
+		private final int handle;
+		
+		public ViewEntry(RolloverState backing, int handle) {
+			this.backing = backing;
+			this.handle = handle;
+		}
+		
+		@Override public WritableDoubleValue getKey() { return this.backing.properties[this.handle]; }
+		@Override public Double getValue() { return this.backing.values[this.handle]; }
+		@Override public Double setValue(Double value) {
+			final Double retval = this.getValue();
+			this.backing.values[this.handle] = value;
+			return retval;
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			if (other instanceof Map.Entry) {
+				final Map.Entry<?, ?> other2 = (Map.Entry<?, ?>) other;
+				return this.getKey().equals(other2.getKey()) && this.getValue().equals(other2.getValue());
+			} else {
+				return false;
+			}
+		}
+		
+		@Override
+		public int hashCode() {
+			return this.getKey().hashCode() ^ this.getValue().hashCode();
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.beans.value.WritableValue;
+import javafx.util.Duration;
+
+/**
+ * Allows jumping to arbitrary times in a SequentialTransition, such as the one
+ * created by {@link BattleAnimation#buildAnimation}, at a cost that does not
+ * depend on the number of children before that time.
+ * <p>
+ * The index records the absolute start and end time of each of the
+ * SequentialTransition's children, along with the values each child leaves
+ * its properties at when it finishes, where those can be determined without
+ * playing the child. A {@link #seek} then only has to apply the end values of
+ * the children finished since the previous seek and jump within the one child
+ * that is active at the requested time.
+ * <p>
+ * In order to control the children individually, the children are removed
+ * from the SequentialTransition while this index is open; {@link #close}
+ * returns them. An animation which is not a SequentialTransition is treated
+ * as a SequentialTransition with one child.
+ * <p>
+ * A seek does not call the onFinished handlers of the children it passes
+ * over, so the {@link BattleAnimationListener} of a battle animation is not
+ * notified of events between the previous and the new time. A caller that
+ * needs those events should play the animation or use {@link BakedAnimation}.
+ */
+public final class SeekIndex implements AutoCloseable {
+	private final SequentialTransition root;
+	private final Animation[] children;
+	/** the start time of each child, in millis */
+	private final double[] starts;
+	/** the end time of each child, in millis */
+	private final double[] ends;
+	/** for each child, the properties that child sets, or null if the child's end state could not be determined */
+	private final WritableValue<?>[][] endTargets;
+	/** for each child, the values of the properties that child sets */
+	private final Object[][] endValues;
+	private final WritableValue<?>[] initialTargets;
+	private final Object[] initialValues;
+	
+	/** children at indexes lower than this have had their end values applied */
+	private int applied;
+	/** the child that was most recently jumped within, or -1 */
+	private int active;
+	
+	/**
+	 * @param animation the animation to index. Must be stopped.
+	 * @throws IllegalStateException if animation is not stopped
+	 */
+	public SeekIndex(Animation animation) {
+		if (animation.getStatus() != Animation.Status.STOPPED) {
+			throw new IllegalStateException("Cannot index a running animation");
+		}
+		
+		if (animation instanceof SequentialTransition &&
+				animation.getCycleCount() == 1 && animation.getRate() == 1.0) {
+			this.root = (SequentialTransition) animation;
+			this.children = this.root.getChildren().toArray(new Animation[0]);
+			this.root.getChildren().clear();
+		} else {
+			this.root = null;
+			this.children = new Animation[] {animation};
+		}
+		
+		final int size = this.children.length;
+		this.starts = new double[size];
+		this.ends = new double[size];
+		this.endTargets = new WritableValue<?>[size][];
+		this.endValues = new Object[size][];
+		final Map<WritableValue<?>, Object> initial = new LinkedHashMap<>();
+		
+		double cursor = 0;
+		for (int i = 0; i < size; i++) {
+			final Animation child = this.children[i];
+			cursor += child.getDelay().toMillis();
+			this.starts[i] = cursor;
+			cursor += child.getTotalDuration().toMillis() / Math.abs(child.getRate());
+			this.ends[i] = cursor;
+			
+			final Map<WritableValue<?>, Object> endState = new LinkedHashMap<>();
+			if (endState(child, endState)) {
+				this.endTargets[i] = endState.keySet().toArray(new WritableValue<?>[0]);
+				this.endValues[i] = endState.values().toArray();
+				for (WritableValue<?> target : this.endTargets[i]) {
+					initial.computeIfAbsent(target, WritableValue::getValue);
+				}
+			}
+		}
+		this.initialTargets = initial.keySet().toArray(new WritableValue<?>[0]);
+		this.initialValues = initial.values().toArray();
+		this.applied = 0;
+		this.active = -1;
+	}
+	
+	/** The total duration of the indexed animation */
+	public Duration getTotalDuration() {
+		return Duration.millis(this.ends.length == 0 ? 0 : this.ends[this.ends.length - 1]);
+	}
+	
+	/**
+	 * Sets the indexed animation's properties to the values they would have
+	 * at the specified time.
+	 */
+	public void seek(Duration time) {
+		final double t = time.toMillis();
+		final int finished = this.finishedCount(t);
+		
+		if (finished < this.applied || (this.active >= finished && this.starts[this.active] > t)) {
+			this.rewind();
+		}
+		while (this.applied < finished) {
+			this.applyEnd(this.applied);
+			this.applied++;
+		}
+		if (finished < this.children.length && this.starts[finished] <= t) {
+			final Animation child = this.children[finished];
+			if (this.active != finished) {
+				ensurePaused(child);
+				this.active = finished;
+			}
+			child.jumpTo(localTime(child, t - this.starts[finished]));
+		}
+	}
+	
+	/**
+	 * Stops the indexed animation's children and returns them to the indexed SequentialTransition.
+	 */
+	@Override
+	public void close() {
+		for (Animation child : this.children) {
+			child.stop();
+		}
+		this.active = -1;
+		this.applied = 0;
+		if (null != this.root) {
+			Collections.addAll(this.root.getChildren(), this.children);
+		}
+	}
+	
+	
+	/** Returns the number of children which end at or before the specified time */
+	private int finishedCount(double time) {
+		int low = 0;
+		int high = this.ends.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (this.ends[mid] <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	private void applyEnd(int index) {
+		final Animation child = this.children[index];
+		if (null != this.endTargets[index]) {
+			child.stop();
+			final WritableValue<?>[] targets = this.endTargets[index];
+			final Object[] values = this.endValues[index];
+			for (int i = 0; i < targets.length; i++) {
+				setValue(targets[i], values[i]);
+			}
+		} else {
+			ensurePaused(child);
+			child.jumpTo(child.getRate() < 0 ? Duration.ZERO : child.getTotalDuration());
+			child.stop();
+		}
+		if (this.active == index) {
+			this.active = -1;
+		}
+	}
+	
+	/** Returns every property to the state it was in before any child was applied */
+	private void rewind() {
+		for (int i = this.children.length - 1; i >= 0; i--) {
+			final Animation child = this.children[i];
+			if (null == this.endTargets[i] && (i < this.applied || i == this.active)) {
+				ensurePaused(child);
+				child.jumpTo(child.getRate() < 0 ? child.getTotalDuration() : Duration.ZERO);
+			}
+			child.stop();
+		}
+		for (int i = 0; i < this.initialTargets.length; i++) {
+			setValue(this.initialTargets[i], this.initialValues[i]);
+		}
+		this.applied = 0;
+		this.active = -1;
+	}
+	
+	private static Duration localTime(Animation child, double elapsed) {
+		final double playhead = elapsed * Math.abs(child.getRate());
+		return Duration.millis(child.getRate() < 0 ? child.getTotalDuration().toMillis() - playhead : playhead);
+	}
+	
+	/**
+	 * A stopped animation does not update its properties when jumped; a paused one does.
+	 */
+	private static void ensurePaused(Animation anim) {
+		if (anim.getStatus() == Animation.Status.STOPPED) {
+			anim.play();
+			anim.pause();
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static void setValue(WritableValue<?> target, Object value) {
+		((WritableValue<Object>) target).setValue(value);
+	}
+	
+	/**
+	 * Adds the values that the animation leaves its properties at to `out`.
+	 * @return false if the animation's end state cannot be determined without playing it
+	 */
+	private static boolean endState(Animation anim, Map<WritableValue<?>, Object> out) {
+		if (anim.getCycleCount() != 1 || anim.getRate() <= 0) {
+			return false;
+		} else if (anim instanceof SequentialTransition) {
+			for (Animation child : ((SequentialTransition) anim).getChildren()) {
+				if (! endState(child, out)) {
+					return false;
+				}
+			}
+			return true;
+		} else if (anim instanceof ParallelTransition) {
+			// the child that ends last is the one whose values remain
+			final List<Animation> children = new ArrayList<>(((ParallelTransition) anim).getChildren());
+			children.sort(Comparator.comparingDouble(x -> x.getDelay().toMillis() + x.getTotalDuration().toMillis() / Math.abs(x.getRate())));
+			for (Animation child : children) {
+				if (! endState(child, out)) {
+					return false;
+				}
+			}
+			return true;
+		} else if (anim instanceof Timeline) {
+			final List<KeyFrame> frames = new ArrayList<>(((Timeline) anim).getKeyFrames());
+			frames.sort(Comparator.comparing(KeyFrame::getTime));
+			for (KeyFrame frame : frames) {
+				for (KeyValue value : frame.getValues()) {
+					out.remove(value.getTarget());
+					out.put(value.getTarget(), value.getEndValue());
+				}
+			}
+			return true;
+		} else if (anim instanceof PauseTransition) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+}
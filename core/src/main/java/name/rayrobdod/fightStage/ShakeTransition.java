@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.animation.Interpolator;
+import javafx.animation.Transition;
+import javafx.beans.value.WritableDoubleValue;
+import javafx.util.Duration;
+
+/**
+ * An animation that shakes a pair of properties back and forth diagonally,
+ * with an intensity that fades to zero over the second half of the animation.
+ * <p>
+ * The offset is a piecewise-linear function of time: starting from zero, it
+ * alternates between a positive peak and a negative trough every half
+ * period, with the first peak a quarter period in, and returns to zero at the
+ * end. The offset at each time is computed directly from the time, so no
+ * KeyFrames are created, regardless of the animation's length.
+ */
+final class ShakeTransition extends Transition {
+	private static final double fullIntensityFraction = 0.5;
+	
+	private final WritableDoubleValue xProperty;
+	private final WritableDoubleValue yProperty;
+	private final double intensity;
+	private final double periodMillis;
+	private final double durationMillis;
+	/** the index of the last extremum before the end of the animation; -1 if there are no extremums */
+	private final int lastExtremum;
+	
+	/**
+	 * @param xProperty the property to shake horizontally
+	 * @param yProperty the property to shake vertically, opposite to the x property
+	 * @param intensity the distance of the first extremums from zero
+	 * @param period the time between consecutive peaks
+	 * @param duration the length of the animation
+	 */
+	public ShakeTransition(
+		  WritableDoubleValue xProperty
+		, WritableDoubleValue yProperty
+		, double intensity
+		, Duration period
+		, Duration duration
+	) {
+		this.xProperty = xProperty;
+		this.yProperty = yProperty;
+		this.intensity = intensity;
+		this.periodMillis = period.toMillis();
+		this.durationMillis = duration.toMillis();
+		this.lastExtremum = (int) Math.ceil((durationMillis - periodMillis / 4) / (periodMillis / 2)) - 1;
+		this.setCycleDuration(duration);
+		this.setInterpolator(Interpolator.LINEAR);
+	}
+	
+	@Override
+	protected void interpolate(double frac) {
+		final double offset = this.offsetAt(frac * this.durationMillis);
+		this.xProperty.set(offset);
+		this.yProperty.set(-offset);
+	}
+	
+	/** The x offset at the specified time, in milliseconds since the start of the animation */
+	double offsetAt(double time) {
+		if (! (time > 0 && time < this.durationMillis)) {
+			return 0;
+		}
+		final int prevIndex = Math.min(this.lastExtremum,
+			(int) Math.floor((time - this.periodMillis / 4) / (this.periodMillis / 2)));
+		final int nextIndex = prevIndex + 1;
+		
+		final double prevTime = (prevIndex < 0 ? 0 : this.extremumTime(prevIndex));
+		final double prevValue = (prevIndex < 0 ? 0 : this.extremumValue(prevIndex));
+		final double nextTime = (nextIndex > this.lastExtremum ? this.durationMillis : this.extremumTime(nextIndex));
+		final double nextValue = (nextIndex > this.lastExtremum ? 0 : this.extremumValue(nextIndex));
+		
+		return prevValue + (nextValue - prevValue) * (time - prevTime) / (nextTime - prevTime);
+	}
+	
+	private double extremumTime(int index) {
+		return this.periodMillis / 4 + index * this.periodMillis / 2;
+	}
+	
+	/** Peaks are at even indexes; troughs at odd indexes */
+	private double extremumValue(int index) {
+		final double fraction = this.extremumTime(index) / this.durationMillis;
+		final double magnitude = this.intensity * Math.min(1.0, (1.0 - fraction) / fullIntensityFraction);
+		return (index % 2 == 0 ? magnitude : -magnitude);
+	}
+}
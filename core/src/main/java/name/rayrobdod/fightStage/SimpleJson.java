@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal JSON reader, sufficient for reading sprite sheet manifests.
+ * <p>
+ * Objects are read as Maps, arrays as Lists, numbers as Doubles, strings as
+ * Strings, true and false as Booleans and null as null.
+ */
+final class SimpleJson {
+	private final String text;
+	private int index;
+	
+	private SimpleJson(String text) {
+		this.text = text;
+		this.index = 0;
+	}
+	
+	/**
+	 * Reads a JSON value
+	 * @throws IllegalArgumentException if text is not a single JSON value
+	 */
+	public static Object parse(String text) {
+		final SimpleJson reader = new SimpleJson(text);
+		final Object retval = reader.value();
+		reader.skipWhitespace();
+		if (reader.index != text.length()) {
+			throw reader.error("Expected end of input");
+		}
+		return retval;
+	}
+	
+	private Object value() {
+		this.skipWhitespace();
+		if (this.index >= this.text.length()) {
+			throw this.error("Expected value");
+		}
+		final char c = this.text.charAt(this.index);
+		switch (c) {
+			case '{': return this.object();
+			case '[': return this.array();
+			case '"': return this.string();
+			case 't': this.literal("true"); return Boolean.TRUE;
+			case 'f': this.literal("false"); return Boolean.FALSE;
+			case 'n': this.literal("null"); return null;
+			default: return this.number();
+		}
+	}
+	
+	private Map<String, Object> object() {
+		final Map<String, Object> retval = new LinkedHashMap<>();
+		this.expect('{');
+		this.skipWhitespace();
+		if (this.peek() == '}') {
+			this.index++;
+			return Collections.unmodifiableMap(retval);
+		}
+		do {
+			this.skipWhitespace();
+			final String key = this.string();
+			this.skipWhitespace();
+			this.expect(':');
+			retval.put(key, this.value());
+			this.skipWhitespace();
+		} while (this.tryConsume(','));
+		this.expect('}');
+		return Collections.unmodifiableMap(retval);
+	}
+	
+	private List<Object> array() {
+		final List<Object> retval = new ArrayList<>();
+		this.expect('[');
+		this.skipWhitespace();
+		if (this.peek() == ']') {
+			this.index++;
+			return Collections.unmodifiableList(retval);
+		}
+		do {
+			retval.add(this.value());
+			this.skipWhitespace();
+		} while (this.tryConsume(','));
+		this.expect(']');
+		return Collections.unmodifiableList(retval);
+	}
+	
+	private String string() {
+		this.expect('"');
+		final StringBuilder retval = new StringBuilder();
+		while (true) {
+			if (this.index >= this.text.length()) {
+				throw this.error("Unterminated string");
+			}
+			final char c = this.text.charAt(this.index++);
+			if (c == '"') {
+				return retval.toString();
+			} else if (c == '\\') {
+				if (this.index >= this.text.length()) {
+					throw this.error("Unterminated string");
+				}
+				final char escaped = this.text.charAt(this.index++);
+				switch (escaped) {
+					case '"': retval.append('"'); break;
+					case '\\': retval.append('\\'); break;
+					case '/': retval.append('/'); break;
+					case 'b': retval.append('\b'); break;
+					case 'f': retval.append('\f'); break;
+					case 'n': retval.append('\n'); break;
+					case 'r': retval.append('\r'); break;
+					case 't': retval.append('\t'); break;
+					case 'u': {
+						if (this.index + 4 > this.text.length()) {
+							throw this.error("Truncated unicode escape");
+						}
+						try {
+							retval.append((char) Integer.parseInt(this.text.substring(this.index, this.index + 4), 16));
+						} catch (NumberFormatException ex) {
+							throw this.error("Invalid unicode escape");
+						}
+						this.index += 4;
+						break;
+					}
+					default: throw this.error("Invalid escape");
+				}
+			} else {
+				retval.append(c);
+			}
+		}
+	}
+	
+	private Double number() {
+		final int start = this.index;
+		while (this.index < this.text.length() && "+-0123456789.eE".indexOf(this.text.charAt(this.index)) >= 0) {
+			this.index++;
+		}
+		try {
+			return Double.valueOf(this.text.substring(start, this.index));
+		} catch (NumberFormatException ex) {
+			this.index = start;
+			throw this.error("Expected value");
+		}
+	}
+	
+	private void literal(String expected) {
+		if (! this.text.startsWith(expected, this.index)) {
+			throw this.error("Expected " + expected);
+		}
+		this.index += expected.length();
+	}
+	
+	private void skipWhitespace() {
+		while (this.index < this.text.length() && Character.isWhitespace(this.text.charAt(this.index))) {
+			this.index++;
+		}
+	}
+	
+	private char peek() {
+		return (this.index < this.text.length() ? this.text.charAt(this.index) : '\0');
+	}
+	
+	private boolean tryConsume(char c) {
+		if (this.peek() == c) {
+			this.index++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+	
+	private void expect(char c) {
+		if (! this.tryConsume(c)) {
+			throw this.error("Expected '" + c + "'");
+		}
+	}
+	
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at index " + this.index);
+	}
+}
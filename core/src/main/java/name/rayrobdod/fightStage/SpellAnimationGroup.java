@@ -15,6 +15,8 @@
  */
 package name.rayrobdod.fightStage;
 
+import java.util.Random;
+
 import javafx.animation.Animation;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
@@ -89,4 +91,34 @@ public Animation getAnimation(
 		ShakeAnimationBiFunction shakeAnimationFactory,
 		Animation hitAnimation
 	);
+	
+	/**
+	 * Returns an animation to be used for an attack animation, drawing any
+	 * random values from the specified source.
+	 * 
+	 * Given the same parameters and a Random in the same state, this must
+	 * return an animation that produces the same frames. Implementations
+	 * which use random values should override this method, and have the
+	 * five-argument overload delegate to this one with a new Random. The
+	 * default implementation ignores `rng` and calls the five-argument
+	 * overload.
+	 * 
+	 * @param origin the origin point of the spell animation
+	 * @param target the target point of the spell animation
+	 * @param panAnimations a factory of animations that move the viewport
+	 * @param shakeAnimationFactory A factory of animations that will cause the camera to shake
+	 * @param hitAnimation the effects that happen to indicate a hit.
+	 * @param rng the source of any random values the animation uses
+	 * @return an animation representing this spell
+	 */
+	default Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimations,
+		ShakeAnimationBiFunction shakeAnimationFactory,
+		Animation hitAnimation,
+		Random rng
+	) {
+		return this.getAnimation(origin, target, panAnimations, shakeAnimationFactory, hitAnimation);
+	}
 }
@@ -0,0 +1,398 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javafx.animation.Animation;
+import javafx.animation.Interpolator;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Transition;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.util.Duration;
+
+/**
+ * A SpellAnimationGroup that plays back prerendered sprite sheets, such as
+ * those created by the demo project's rasterizer, as flipbooks.
+ * <p>
+ * Each of the three layers is a sheet of equally-sized frames and a JSON
+ * manifest that describes the sheet. The hit animation and a screen shake
+ * start at the manifest's first hit frame; each later hit frame starts
+ * another screen shake.
+ * <p>
+ * The object layers are positioned relative to the spell's target, so
+ * the distance between origin and target is that which the sheets were
+ * rendered with, rather than the distance in the battle. If the sheets were
+ * rendered with the origin on the other side of the target than it is in
+ * the battle, the layers are mirrored horizontally.
+ */
+public final class SpriteSheetSpellAnimationGroup implements SpellAnimationGroup {
+	private static final String[] LAYER_SUFFIXES = {"_behind", "_front", "_background"};
+	
+	private final Sheet behindSheet;
+	private final Sheet frontSheet;
+	private final Sheet backgroundSheet;
+	private final ImageView behindView;
+	private final ImageView frontView;
+	private final ImageView backgroundView;
+	private final Group backLayer;
+	private final Group frontLayer;
+	private final Group background;
+	
+	/**
+	 * @param behindSheet the sheet to show behind the units. May be null.
+	 * @param frontSheet the sheet to show in front of the units. May be null.
+	 * @param backgroundSheet the sheet to show in the background. May be null.
+	 */
+	public SpriteSheetSpellAnimationGroup(
+		  Sheet behindSheet
+		, Sheet frontSheet
+		, Sheet backgroundSheet
+	) {
+		this.behindSheet = behindSheet;
+		this.frontSheet = frontSheet;
+		this.backgroundSheet = backgroundSheet;
+		this.behindView = flipbookView(behindSheet);
+		this.frontView = flipbookView(frontSheet);
+		this.backgroundView = flipbookView(backgroundSheet);
+		this.backLayer = new Group(this.behindView);
+		this.frontLayer = new Group(this.frontView);
+		this.background = new Group(this.backgroundView);
+	}
+	
+	/**
+	 * Loads the sheets written by the rasterizer for a single spell.
+	 * <p>
+	 * The sheets are read from `base + "_behind.png"`, `base + "_front.png"`
+	 * and `base + "_background.png"`, and their manifests from the same
+	 * locations with a `.json` extension. A layer whose manifest does not
+	 * exist is left empty.
+	 *
+	 * @param base the URL of the sheets, without the layer suffix or extension
+	 * @throws IOException if a sheet or manifest exists but could not be read
+	 */
+	public static SpriteSheetSpellAnimationGroup load(String base) throws IOException {
+		final Sheet[] sheets = new Sheet[LAYER_SUFFIXES.length];
+		for (int i = 0; i < sheets.length; i++) {
+			final String manifest = readManifest(new URL(base + LAYER_SUFFIXES[i] + ".json"));
+			if (null != manifest) {
+				final String imageUrl = base + LAYER_SUFFIXES[i] + ".png";
+				final Image image = new Image(imageUrl);
+				if (image.isError()) {
+					throw new IOException("Could not load " + imageUrl, image.getException());
+				}
+				try {
+					sheets[i] = Sheet.read(image, manifest);
+				} catch (IllegalArgumentException ex) {
+					throw new IOException("Could not read manifest for " + imageUrl, ex);
+				}
+			}
+		}
+		return new SpriteSheetSpellAnimationGroup(sheets[0], sheets[1], sheets[2]);
+	}
+	
+	public Node objectBehindLayer() { return this.backLayer; }
+	public Node objectFrontLayer() { return this.frontLayer; }
+	public Node backgroundLayer() { return this.background; }
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation
+	) {
+		final Sheet timing = (null != behindSheet ? behindSheet : null != frontSheet ? frontSheet : backgroundSheet);
+		final Duration totalDuration = (null == timing ? Duration.ZERO : timing.frameDuration.multiply(timing.frameCount));
+		final List<Integer> hitFrames = (null == timing ? Collections.emptyList() : timing.hitFrames);
+		
+		final ParallelTransition retval = new ParallelTransition();
+		if (null != behindSheet) {
+			retval.getChildren().add(objectFlipbook(behindView, behindSheet, origin, target));
+		}
+		if (null != frontSheet) {
+			retval.getChildren().add(objectFlipbook(frontView, frontSheet, origin, target));
+		}
+		if (null != backgroundSheet) {
+			retval.getChildren().add(backgroundFlipbook(backgroundView, backgroundSheet, origin, target));
+		}
+		
+		final Duration firstHitTime = (hitFrames.isEmpty() ? totalDuration : timing.frameDuration.multiply(hitFrames.get(0)));
+		retval.getChildren().add(firstHitTime.greaterThan(Duration.ZERO) ? panAnimation.panToDefender(firstHitTime) : panAnimation.panToDefender());
+		
+		// shakes must not overlap, so a shake which would start before the previous one ends is delayed
+		final SequentialTransition hits = new SequentialTransition();
+		Duration cursor = Duration.ZERO;
+		for (int i = 0; i < Math.max(1, hitFrames.size()); i++) {
+			final Duration hitTime = (i == 0 ? firstHitTime : timing.frameDuration.multiply(hitFrames.get(i)));
+			if (hitTime.greaterThan(cursor)) {
+				hits.getChildren().add(new PauseTransition(hitTime.subtract(cursor)));
+				cursor = hitTime;
+			}
+			final Animation shake = (null == timing || Double.isNaN(timing.shakeIntensity) ? shakeAnimation.apply() :
+				timing.shakeDuration.greaterThan(Duration.ZERO) ? shakeAnimation.apply(timing.shakeIntensity, timing.shakeDuration) :
+				shakeAnimation.apply(timing.shakeIntensity)
+			);
+			hits.getChildren().add(shake);
+			cursor = cursor.add(shake.getTotalDuration());
+		}
+		retval.getChildren().add(hits);
+		
+		// the hit animation can outlast a shake, so it runs beside the shakes rather than delaying the later ones
+		retval.getChildren().add(firstHitTime.greaterThan(Duration.ZERO) ?
+			new SequentialTransition(new PauseTransition(firstHitTime), hitAnimation) :
+			hitAnimation
+		);
+		
+		return retval;
+	}
+	
+	
+	private static ImageView flipbookView(Sheet sheet) {
+		final ImageView retval = new ImageView();
+		retval.setVisible(false);
+		if (null != sheet) {
+			retval.setImage(sheet.image);
+		}
+		return retval;
+	}
+	
+	/** Whether the sheet should be mirrored, given that the battle has the specified origin and target */
+	private static boolean isFlipped(Sheet sheet, Point2D origin, Point2D target) {
+		final double sheetDirection = Math.signum(sheet.originX - sheet.targetX);
+		final double battleDirection = Math.signum(origin.getX() - target.getX());
+		return sheetDirection != 0 && battleDirection != 0 && sheetDirection != battleDirection;
+	}
+	
+	/** A flipbook in the battle's coordinate system, with the sheet's target placed at `target` */
+	private static Flipbook objectFlipbook(ImageView view, Sheet sheet, Point2D origin, Point2D target) {
+		final boolean flip = isFlipped(sheet, origin, target);
+		final double width = sheet.frameWidth / sheet.scale;
+		final double height = sheet.frameHeight / sheet.scale;
+		final double left = (flip ?
+			target.getX() - (sheet.frameX + sheet.frameWidth - sheet.targetX) / sheet.scale :
+			target.getX() + (sheet.frameX - sheet.targetX) / sheet.scale
+		);
+		final double top = target.getY() + (sheet.frameY - sheet.targetY) / sheet.scale;
+		return new Flipbook(view, sheet, left, top, width, height, flip);
+	}
+	
+	/** A flipbook in the background's unit-square coordinate system */
+	private static Flipbook backgroundFlipbook(ImageView view, Sheet sheet, Point2D origin, Point2D target) {
+		final boolean flip = isFlipped(sheet, origin, target);
+		final double width = sheet.frameWidth / sheet.canvasWidth;
+		final double height = sheet.frameHeight / sheet.canvasHeight;
+		final double left = (flip ?
+			1 - (sheet.frameX + sheet.frameWidth) / sheet.canvasWidth :
+			sheet.frameX / sheet.canvasWidth
+		);
+		final double top = sheet.frameY / sheet.canvasHeight;
+		return new Flipbook(view, sheet, left, top, width, height, flip);
+	}
+	
+	/** Returns the manifest's contents, or null if the manifest does not exist */
+	private static String readManifest(URL url) throws IOException {
+		try (InputStream in = url.openStream()) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[4096];
+			int count;
+			while ((count = in.read(buffer)) > 0) {
+				bytes.write(buffer, 0, count);
+			}
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		} catch (FileNotFoundException ex) {
+			return null;
+		}
+	}
+	
+	
+	/**
+	 * A sprite sheet and the values from its manifest
+	 */
+	public static final class Sheet {
+		/** The sheet */
+		public final Image image;
+		/** The number of frames in the sheet */
+		public final int frameCount;
+		/** The width of each frame, in pixels */
+		public final int frameWidth;
+		/** The height of each frame, in pixels */
+		public final int frameHeight;
+		/** The number of frames in each row of the sheet */
+		public final int columns;
+		/** The length of time each frame is shown */
+		public final Duration frameDuration;
+		/** The frames at which a hit occurs, in ascending order */
+		public final List<Integer> hitFrames;
+		/** The intensity of each screen shake. NaN if the default intensity should be used. */
+		public final double shakeIntensity;
+		/** The duration of each screen shake. Zero if the default duration should be used. */
+		public final Duration shakeDuration;
+		/** The width of the area the frames were rendered from, in pixels */
+		public final double canvasWidth;
+		/** The height of the area the frames were rendered from, in pixels */
+		public final double canvasHeight;
+		/** The x position of each frame's left edge in the rendered area */
+		public final double frameX;
+		/** The y position of each frame's top edge in the rendered area */
+		public final double frameY;
+		/** The x position of the spell's origin in the rendered area */
+		public final double originX;
+		/** The y position of the spell's origin in the rendered area */
+		public final double originY;
+		/** The x position of the spell's target in the rendered area */
+		public final double targetX;
+		/** The y position of the spell's target in the rendered area */
+		public final double targetY;
+		/** The number of pixels in the rendered area per unit in the battle's coordinate system */
+		public final double scale;
+		private final Rectangle2D[] viewports;
+		
+		private Sheet(Image image, Map<?, ?> manifest) {
+			this.image = image;
+			this.frameCount = (int) number(manifest, "frames");
+			this.frameWidth = (int) number(manifest, "width");
+			this.frameHeight = (int) number(manifest, "height");
+			this.columns = (int) number(manifest, "columns");
+			this.frameDuration = Duration.seconds(number(manifest, "speed"));
+			this.canvasWidth = number(manifest, "canvasWidth");
+			this.canvasHeight = number(manifest, "canvasHeight");
+			this.frameX = number(manifest, "x");
+			this.frameY = number(manifest, "y");
+			this.originX = number(manifest, "originX");
+			this.originY = number(manifest, "originY");
+			this.targetX = number(manifest, "targetX");
+			this.targetY = number(manifest, "targetY");
+			this.scale = number(manifest, "scale");
+			
+			final List<Integer> hitFrames = new ArrayList<>();
+			if (manifest.get("hitframes") instanceof List) {
+				for (Object hitFrame : (List<?>) manifest.get("hitframes")) {
+					if (! (hitFrame instanceof Double)) {
+						throw new IllegalArgumentException("hitframes must contain only numbers");
+					}
+					hitFrames.add(((Double) hitFrame).intValue());
+				}
+			}
+			Collections.sort(hitFrames);
+			this.hitFrames = Collections.unmodifiableList(hitFrames);
+			
+			// the manifest uses femp's units: a halved intensity and two-thirds of the duration in frames
+			if (manifest.get("shakeIntensity") instanceof Double && manifest.get("shakeFrames") instanceof Double) {
+				this.shakeIntensity = ((Double) manifest.get("shakeIntensity")) * 2;
+				this.shakeDuration = this.frameDuration.multiply(Math.max(0, (Double) manifest.get("shakeFrames")) * 3 / 2);
+			} else {
+				this.shakeIntensity = Double.NaN;
+				this.shakeDuration = Duration.ZERO;
+			}
+			
+			if (frameCount < 0 || frameWidth <= 0 || frameHeight <= 0 || columns <= 0) {
+				throw new IllegalArgumentException("frames must not be negative, and width, height and columns must be positive");
+			}
+			this.viewports = new Rectangle2D[frameCount];
+			for (int i = 0; i < frameCount; i++) {
+				this.viewports[i] = new Rectangle2D(
+					(i % columns) * frameWidth,
+					(i / columns) * frameHeight,
+					frameWidth,
+					frameHeight
+				);
+			}
+		}
+		
+		/**
+		 * Creates a Sheet from an image and the text of that image's manifest
+		 * @throws IllegalArgumentException if the manifest is not valid JSON or is missing required values
+		 */
+		public static Sheet read(Image image, String manifest) {
+			final Object parsed = SimpleJson.parse(manifest);
+			if (! (parsed instanceof Map)) {
+				throw new IllegalArgumentException("Manifest is not a JSON object");
+			}
+			return new Sheet(image, (Map<?, ?>) parsed);
+		}
+		
+		/** The area of the image that contains the specified frame */
+		public Rectangle2D viewport(int frame) {
+			return this.viewports[frame];
+		}
+		
+		private static double number(Map<?, ?> manifest, String key) {
+			final Object retval = manifest.get(key);
+			if (! (retval instanceof Double)) {
+				throw new IllegalArgumentException("Manifest value " + key + " must be a number");
+			}
+			return (Double) retval;
+		}
+	}
+	
+	/**
+	 * Shows each frame of a sheet in turn, then hides the view
+	 */
+	private static final class Flipbook extends Transition {
+		private final ImageView view;
+		private final Sheet sheet;
+		private final double x;
+		private final double y;
+		private final double width;
+		private final double height;
+		private final boolean flip;
+		
+		public Flipbook(ImageView view, Sheet sheet, double x, double y, double width, double height, boolean flip) {
+			this.view = view;
+			this.sheet = sheet;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.flip = flip;
+			this.setCycleDuration(sheet.frameDuration.multiply(sheet.frameCount));
+			this.setInterpolator(Interpolator.LINEAR);
+		}
+		
+		@Override
+		protected void interpolate(double frac) {
+			final int frame = (int) Math.floor(frac * sheet.frameCount);
+			if (frame >= sheet.frameCount) {
+				view.setVisible(false);
+			} else {
+				view.setX(x);
+				view.setY(y);
+				view.setFitWidth(width);
+				view.setFitHeight(height);
+				view.setScaleX(flip ? -1 : 1);
+				view.setViewport(sheet.viewport(frame));
+				view.setVisible(true);
+			}
+		}
+	}
+}
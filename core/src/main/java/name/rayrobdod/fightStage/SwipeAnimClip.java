@@ -96,11 +96,22 @@ public SwipeAnimClip(
 	 */
 	public Node getNode() { return this.node; }
 	
-	public Animation swipeInAnimation() {
-		return anim(rightXs, 1.0, leftXs, 1.0, 0.0);
+	/**
+	 * Returns the clip to the state it had immediately after construction:
+	 * that is, a clip that hides the entirety of the clipped node.
+	 */
+	public void reset() {
+		this.leftXs.forEach(x -> x.set(0));
+		this.rightXs.forEach(x -> x.set(0));
+	}
+	
+	/** @param rng the source of the variation in each row's timing */
+	public Animation swipeInAnimation(Random rng) {
+		return anim(rightXs, 1.0, leftXs, 1.0, 0.0, rng);
 	}
-	public Animation swipeOutAnimation() {
-		return anim(leftXs, 0.0, rightXs, 1.0, 0.0);
+	/** @param rng the source of the variation in each row's timing */
+	public Animation swipeOutAnimation(Random rng) {
+		return anim(leftXs, 0.0, rightXs, 1.0, 0.0, rng);
 	}
 	
 	private static Animation anim(
@@ -109,8 +120,8 @@ private static Animation anim(
 		, List<DoubleProperty> dynamicProps
 		, double dynamicFrom
 		, double dynamicTo
+		, Random rng
 	) {
-		final Random rng = new Random();
 		final List<KeyFrame> timeline = new ArrayList<>();
 		
 		timeline.add(new KeyFrame(Duration.ZERO,
@@ -31,6 +31,12 @@
  * and a {@link javafx.scene.transform.Translate} to the node's transforms, us
  * those to describe the node's offsets, and otherwise have operations take place
  * as if on a personal coordinate system.
+ * 
+ * The methods that use the rollover values come in pairs: one which takes a
+ * {@link RolloverState} and one which takes a {@code Map<WritableDoubleValue, Double>}.
+ * An implementor implements the RolloverState versions; the Map versions
+ * are adapters which call the RolloverState versions through a map view.
+ * The BattleStage only calls the RolloverState versions, which avoid boxing the values.
  */
 public interface UnitAnimationGroup {
 	
@@ -45,7 +51,16 @@ public interface UnitAnimationGroup {
 	 * 
 	 * @param rolloverKeyValues the return value of `getInitializingKeyValues`. Probably mutable.
 	 */
-	public Point2D getSpellTarget(Map<WritableDoubleValue, Double> rolloverKeyValues);
+	default Point2D getSpellTarget(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+		return this.getSpellTarget(RolloverState.of(rolloverKeyValues));
+	}
+	
+	/**
+	 * Returns the location on the node at which spells targeting this unit should be centered.
+	 * 
+	 * @param rolloverState the return value of `getInitializingRolloverState`. Probably mutable.
+	 */
+	public Point2D getSpellTarget(RolloverState rolloverState);
 	
 	/**
 	 * Returns the offset of this unit in the x-direction.
@@ -56,7 +71,20 @@ public interface UnitAnimationGroup {
 	 * 
 	 * @param rolloverKeyValues the return value of `getInitializingKeyValues`. Probably mutable.
 	 */
-	public double getCurrentXOffset(Map<WritableDoubleValue, Double> rolloverKeyValues);
+	default double getCurrentXOffset(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+		return this.getCurrentXOffset(RolloverState.of(rolloverKeyValues));
+	}
+	
+	/**
+	 * Returns the offset of this unit in the x-direction.
+	 * 
+	 * Barring any mutations of rolloverState by {@code getAttackAnimation},
+	 * this should have the same value as the x-coordinate of the point passed to {@link getInitializingRolloverState}
+	 * when rolloverState was returned from that function.
+	 * 
+	 * @param rolloverState the return value of `getInitializingRolloverState`. Probably mutable.
+	 */
+	public double getCurrentXOffset(RolloverState rolloverState);
 	
 	/**
 	 * Returns an animation used to represent an attack
@@ -69,13 +97,38 @@ public interface UnitAnimationGroup {
 	 * @param isFinisher true if this attack reduces the opponent's HP to zero
 	 * @param rolloverKeyValues the return value of `getInitializingKeyValues`. Probably mutable.
 	 */
-	public Animation getAttackAnimation(
+	default Animation getAttackAnimation(
 		  Function<Point2D, Animation> spellAnimationFun
 		, Map<WritableDoubleValue, Double> rolloverKeyValues
 		, Point2D target
 		, ConsecutiveAttackDescriptor consecutiveAttackDesc
 		, Set<AttackModifier> attackerModifiers
 		, boolean isFinisher
+	) {
+		final RolloverState rolloverState = RolloverState.of(rolloverKeyValues);
+		final Animation retval = this.getAttackAnimation(spellAnimationFun, rolloverState, target, consecutiveAttackDesc, attackerModifiers, isFinisher);
+		rolloverKeyValues.putAll(rolloverState.asMap());
+		return retval;
+	}
+	
+	/**
+	 * Returns an animation used to represent an attack
+	 * @param spellAnimationFun the hit animation associated with the weapon.
+			The function input is the spell origin.
+			This animation must be invoked exactly once in the returned animation.
+	 * @param target the target point of the spell animation
+	 * @param consecutiveAttackDesc Describes this attack's position in a sequence of consecutive strikes
+	 * @param attackerModifiers modifiers describing the current attack
+	 * @param isFinisher true if this attack reduces the opponent's HP to zero
+	 * @param rolloverState the return value of `getInitializingRolloverState`. Probably mutable.
+	 */
+	public Animation getAttackAnimation(
+		  Function<Point2D, Animation> spellAnimationFun
+		, RolloverState rolloverState
+		, Point2D target
+		, ConsecutiveAttackDescriptor consecutiveAttackDesc
+		, Set<AttackModifier> attackerModifiers
+		, boolean isFinisher
 	);
 	
 	/**
@@ -86,6 +139,18 @@ default Animation getHitAnimation(
 		, Set<AttackModifier> attackerModifiers
 		, Set<AttackModifier> defenderModifiers
 		, boolean isFinisher
+	) {
+		return this.getHitAnimation(RolloverState.of(rolloverKeyValues), attackerModifiers, defenderModifiers, isFinisher);
+	}
+	
+	/**
+	 * Returns an animation used to represent being hit by an attack
+	 */
+	default Animation getHitAnimation(
+		  RolloverState rolloverState
+		, Set<AttackModifier> attackerModifiers
+		, Set<AttackModifier> defenderModifiers
+		, boolean isFinisher
 	) { return Animations.nil(); }
 	
 	/**
@@ -106,7 +171,22 @@ default Animation getHitAnimation(
 	 * @param initialOffset The initial 'foot point' of the unit
 	 * @return a map of Properties and their values
 	 */
-	public Map<WritableDoubleValue, Double> getInitializingKeyValues(
+	default Map<WritableDoubleValue, Double> getInitializingKeyValues(
+		  Side side
+		, Point2D initialOffset
+	) {
+		return this.getInitializingRolloverState(side, initialOffset).asMap();
+	}
+	
+	/**
+	 * Returns the properties and starting values which compose the starting
+	 * values of the rolloverState
+	 * 
+	 * @param side The side of the battle that is unit is on.
+	 * @param initialOffset The initial 'foot point' of the unit
+	 * @return the properties and their values
+	 */
+	public RolloverState getInitializingRolloverState(
 		  Side side
 		, Point2D initialOffset
 	);
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.Arrays;
+
+import javafx.animation.Animation;
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.geometry.Point2D;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class AnimationsTest {
+	
+	@Test
+	public void optimize_removesNil() {
+		final SequentialTransition dut = new SequentialTransition(
+			  Animations.nil()
+			, new PauseTransition(Duration.millis(100))
+			, Animations.nil()
+			, new ParallelTransition()
+		);
+		Assertions.assertEquals(3, Animations.optimize(dut));
+		Assertions.assertEquals(1, dut.getChildren().size());
+		Assertions.assertEquals(Duration.millis(100), dut.getTotalDuration());
+	}
+	
+	@Test
+	public void optimize_flattensSameKindNesting() {
+		final SequentialTransition dut = new SequentialTransition(
+			  new PauseTransition(Duration.millis(100))
+			, new SequentialTransition(
+				  new PauseTransition(Duration.millis(100))
+				, new ParallelTransition(new PauseTransition(Duration.millis(100)), new PauseTransition(Duration.millis(50)))
+			)
+		);
+		final Duration expected = dut.getTotalDuration();
+		Assertions.assertEquals(1, Animations.optimize(dut));
+		Assertions.assertEquals(3, dut.getChildren().size());
+		Assertions.assertEquals(expected, dut.getTotalDuration());
+	}
+	
+	@Test
+	public void optimize_collapsesSingleChild() {
+		final Animation inner = new PauseTransition(Duration.millis(100));
+		final SequentialTransition dut = new SequentialTransition(
+			  new PauseTransition(Duration.millis(100))
+			, new ParallelTransition(new SequentialTransition(inner))
+		);
+		Assertions.assertEquals(2, Animations.optimize(dut));
+		Assertions.assertSame(inner, dut.getChildren().get(1));
+		Assertions.assertEquals(Duration.millis(200), dut.getTotalDuration());
+	}
+	
+	@Test
+	public void optimize_keepsDelayedWrappers() {
+		final ParallelTransition wrapper = new ParallelTransition(new PauseTransition(Duration.millis(100)));
+		wrapper.setDelay(Duration.millis(50));
+		final SequentialTransition dut = new SequentialTransition(new PauseTransition(Duration.millis(100)), wrapper);
+		Assertions.assertEquals(0, Animations.optimize(dut));
+		Assertions.assertEquals(Duration.millis(250), dut.getTotalDuration());
+	}
+	
+	@Test
+	public void optimize_mergesDisjointParallelTimelines() {
+		final DoubleProperty a = new SimpleDoubleProperty();
+		final DoubleProperty b = new SimpleDoubleProperty();
+		final ParallelTransition dut = new ParallelTransition(
+			  new Timeline(new KeyFrame(Duration.millis(100), new KeyValue(a, 10, Interpolator.LINEAR)))
+			, new Timeline(new KeyFrame(Duration.millis(200), new KeyValue(b, 20, Interpolator.LINEAR)))
+			, new Timeline(new KeyFrame(Duration.millis(50), new KeyValue(a, 30, Interpolator.LINEAR)))
+		);
+		Assertions.assertEquals(1, Animations.optimize(dut));
+		Assertions.assertEquals(2, dut.getChildren().size());
+		Assertions.assertEquals(Duration.millis(200), dut.getTotalDuration());
+	}
+	
+	@Test
+	public void procedural_pathWritesPointAtEachTime() {
+		final DoubleProperty x = new SimpleDoubleProperty();
+		final DoubleProperty y = new SimpleDoubleProperty();
+		final Animation dut = Animations.procedural(Duration.millis(200), x, y, f -> new Point2D(f * 10, -f * 20));
+		Assertions.assertEquals(Duration.millis(200), dut.getTotalDuration());
+		dut.play();
+		dut.pause();
+		dut.jumpTo(Duration.millis(50));
+		Assertions.assertEquals(2.5, x.get(), 1e-9);
+		Assertions.assertEquals(-5, y.get(), 1e-9);
+		dut.jumpTo(Duration.millis(200));
+		Assertions.assertEquals(10, x.get(), 1e-9);
+		Assertions.assertEquals(-20, y.get(), 1e-9);
+		dut.stop();
+	}
+	
+	@Test
+	public void procedural_batchWritesEachTarget() {
+		final DoubleProperty a = new SimpleDoubleProperty();
+		final DoubleProperty b = new SimpleDoubleProperty();
+		final DoubleProperty c = new SimpleDoubleProperty();
+		final Animation dut = Animations.procedural(Duration.millis(100), Arrays.asList(a, b, c), (f, values) -> {
+			values[0] = f;
+			values[1] = 2 * f;
+			values[2] = 3 * f;
+		});
+		dut.play();
+		dut.pause();
+		dut.jumpTo(Duration.millis(50));
+		Assertions.assertEquals(0.5, a.get(), 1e-9);
+		Assertions.assertEquals(1.0, b.get(), 1e-9);
+		Assertions.assertEquals(1.5, c.get(), 1e-9);
+		dut.stop();
+	}
+}
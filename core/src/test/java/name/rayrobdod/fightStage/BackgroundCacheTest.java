@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.Dimension2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.util.WaitForAsyncUtils;
+
+@ExtendWith(ApplicationExtension.class)
+public final class BackgroundCacheTest {
+	
+	@Test
+	public void get_sameTerrainAndSize_buildsOnce() {
+		final List<Dimension2D> builds = new ArrayList<>();
+		final BackgroundCache<String> dut = new BackgroundCache<>(x -> size -> {builds.add(size); return new Group();}, false, 4);
+		final Node first = dut.get("Field", new Dimension2D(640, 480));
+		final Node second = dut.get("Field", new Dimension2D(640, 480));
+		
+		Assertions.assertEquals(1, builds.size());
+		Assertions.assertSame(first, second);
+	}
+	
+	@Test
+	public void get_differentTerrainOrSize_buildsAgain() {
+		final List<String> builds = new ArrayList<>();
+		final BackgroundCache<String> dut = new BackgroundCache<>(x -> size -> {builds.add(x); return new Group();}, false, 4);
+		dut.get("Field", new Dimension2D(640, 480));
+		dut.get("Field", new Dimension2D(320, 240));
+		dut.get("Desert", new Dimension2D(640, 480));
+		
+		Assertions.assertEquals(3, builds.size());
+		Assertions.assertEquals(3, dut.size());
+	}
+	
+	@Test
+	public void get_overCapacity_forgetsLeastRecentlyUsed() {
+		final List<String> builds = new ArrayList<>();
+		final BackgroundCache<String> dut = new BackgroundCache<>(x -> size -> {builds.add(x); return new Group();}, false, 2);
+		final Dimension2D size = new Dimension2D(640, 480);
+		dut.get("A", size);
+		dut.get("B", size);
+		dut.get("A", size);
+		dut.get("C", size);
+		dut.get("A", size);
+		dut.get("B", size);
+		
+		Assertions.assertEquals(Arrays.asList("A", "B", "C", "B"), builds);
+		Assertions.assertEquals(2, dut.size());
+	}
+	
+	@Test
+	public void get_notRasterized_removesNodeFromPreviousParent() {
+		final BackgroundCache<String> dut = new BackgroundCache<>(x -> size -> new Group(), false, 4);
+		final Node first = dut.get("Field", new Dimension2D(640, 480));
+		final Group previousStage = new Group(first);
+		final Node second = dut.get("Field", new Dimension2D(640, 480));
+		
+		Assertions.assertNull(second.getParent());
+		Assertions.assertTrue(previousStage.getChildren().isEmpty());
+	}
+	
+	@Test
+	public void get_rasterized_returnsImageViewsCoveringTheBackground() throws Exception {
+		final List<Dimension2D> builds = new ArrayList<>();
+		final BackgroundCache<String> dut = new BackgroundCache<>(x -> size -> {
+			builds.add(size);
+			final Rectangle retval = new Rectangle(-960, -720, 1920, 1440);
+			retval.setFill(Color.CYAN);
+			return retval;
+		}, true, 4);
+		// snapshots must be taken on the application thread
+		final Node first = WaitForAsyncUtils.asyncFx(() -> dut.get("Field", new Dimension2D(640, 480))).get();
+		final Node second = WaitForAsyncUtils.asyncFx(() -> dut.get("Field", new Dimension2D(640, 480))).get();
+		
+		Assertions.assertEquals(1, builds.size());
+		Assertions.assertTrue(first instanceof ImageView);
+		Assertions.assertNotSame(first, second);
+		Assertions.assertSame(((ImageView) first).getImage(), ((ImageView) second).getImage());
+		Assertions.assertEquals(1920 * 2, ((ImageView) first).getImage().getWidth(), 1);
+		final Bounds bounds = first.getBoundsInParent();
+		Assertions.assertEquals(-960, bounds.getMinX(), 1e-9);
+		Assertions.assertEquals(-720, bounds.getMinY(), 1e-9);
+		Assertions.assertEquals(1920, bounds.getWidth(), 1e-9);
+		Assertions.assertEquals(1440, bounds.getHeight(), 1e-9);
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.ParallelTransition;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class BakedAnimationTest {
+	
+	@Test
+	public void bake_preservesTotalDuration() {
+		final Animation pause = new PauseTransition(Duration.millis(100));
+		pause.setDelay(Duration.millis(50));
+		final Animation source = new SequentialTransition(
+			  pause
+			, new ParallelTransition(new PauseTransition(Duration.millis(30)), new PauseTransition(Duration.millis(70)))
+		);
+		final Duration expected = source.getTotalDuration();
+		final BakedAnimation dut = BakedAnimation.bake(source);
+		Assertions.assertEquals(expected, dut.getTotalDuration());
+	}
+	
+	@Test
+	public void sample_timelineInsideSequence() {
+		final DoubleProperty prop = new SimpleDoubleProperty(-1);
+		final BakedAnimation dut = BakedAnimation.bake(new SequentialTransition(
+			  new PauseTransition(Duration.millis(100))
+			, linear(prop, 0, 10, Duration.millis(100))
+		));
+		
+		Assertions.assertEquals(1, dut.getTrackCount());
+		dut.sample(Duration.millis(150));
+		Assertions.assertEquals(5, prop.get(), 1e-9);
+		dut.sample(Duration.millis(250));
+		Assertions.assertEquals(10, prop.get(), 1e-9);
+		dut.sample(Duration.millis(50));
+		Assertions.assertEquals(-1, prop.get(), 1e-9);
+	}
+	
+	@Test
+	public void sample_timelineAfterParallelInsideSequence() {
+		final DoubleProperty prop = new SimpleDoubleProperty(-1);
+		final BakedAnimation dut = BakedAnimation.bake(new SequentialTransition(
+			  new ParallelTransition(new PauseTransition(Duration.millis(100)))
+			, linear(prop, 0, 10, Duration.millis(100))
+		));
+		
+		dut.sample(Duration.millis(50));
+		Assertions.assertEquals(-1, prop.get(), 1e-9);
+		dut.sample(Duration.millis(150));
+		Assertions.assertEquals(5, prop.get(), 1e-9);
+	}
+	
+	@Test
+	public void sample_seekPastPreviousSegment_startsFromPreviousSegmentsEndValue() {
+		final DoubleProperty prop = new SimpleDoubleProperty(-1);
+		final BakedAnimation dut = BakedAnimation.bake(new SequentialTransition(
+			  linear(prop, 0, 10, Duration.millis(10))
+			, new Timeline(new KeyFrame(Duration.millis(100), new KeyValue(prop, 20, Interpolator.LINEAR)))
+		));
+		
+		dut.sample(Duration.millis(50));
+		Assertions.assertEquals(14, prop.get(), 1e-9);
+		dut.sample(Duration.millis(5));
+		Assertions.assertEquals(5, prop.get(), 1e-9);
+		dut.sample(Duration.millis(60));
+		Assertions.assertEquals(15, prop.get(), 1e-9);
+	}
+	
+	@Test
+	public void sample_parallelTracksAreIndependent() {
+		final DoubleProperty a = new SimpleDoubleProperty(0);
+		final DoubleProperty b = new SimpleDoubleProperty(0);
+		final Animation delayedB = linear(b, 0, 100, Duration.millis(100));
+		delayedB.setDelay(Duration.millis(100));
+		final BakedAnimation dut = BakedAnimation.bake(new ParallelTransition(
+			  linear(a, 0, 100, Duration.millis(100))
+			, delayedB
+		));
+		
+		Assertions.assertEquals(2, dut.getTrackCount());
+		dut.sample(Duration.millis(50));
+		Assertions.assertEquals(50, a.get(), 1e-9);
+		Assertions.assertEquals(0, b.get(), 1e-9);
+		dut.sample(Duration.millis(175));
+		Assertions.assertEquals(100, a.get(), 1e-9);
+		Assertions.assertEquals(75, b.get(), 1e-9);
+	}
+	
+	@Test
+	public void sample_drivesOpaqueTransitions() {
+		final Rectangle rect = new Rectangle();
+		final FadeTransition fade = new FadeTransition(Duration.millis(100), rect);
+		fade.setFromValue(1.0);
+		fade.setToValue(0.0);
+		fade.setInterpolator(Interpolator.LINEAR);
+		final BakedAnimation dut = BakedAnimation.bake(new SequentialTransition(
+			  new PauseTransition(Duration.millis(100))
+			, fade
+		));
+		
+		Assertions.assertEquals(1, dut.getOpaqueClipCount());
+		dut.sample(Duration.millis(125));
+		Assertions.assertEquals(0.75, rect.getOpacity(), 1e-6);
+		dut.sample(Duration.millis(300));
+		Assertions.assertEquals(0.0, rect.getOpacity(), 1e-6);
+	}
+	
+	@Test
+	public void sample_firesNestedOnFinishedOnce() {
+		final int[] count = {0};
+		final Animation inner = new PauseTransition(Duration.millis(100));
+		inner.setOnFinished(e -> count[0]++);
+		final BakedAnimation dut = BakedAnimation.bake(new SequentialTransition(
+			  inner
+			, new PauseTransition(Duration.millis(100))
+		));
+		
+		dut.sample(Duration.millis(50));
+		Assertions.assertEquals(0, count[0]);
+		dut.sample(Duration.millis(150));
+		Assertions.assertEquals(1, count[0]);
+		dut.sample(Duration.millis(200));
+		Assertions.assertEquals(1, count[0]);
+	}
+	
+	
+	private static Animation linear(DoubleProperty prop, double from, double to, Duration dur) {
+		return new Timeline(
+			new KeyFrame(Duration.ZERO, new KeyValue(prop, from, Interpolator.DISCRETE)),
+			new KeyFrame(dur, new KeyValue(prop, to, Interpolator.LINEAR))
+		);
+	}
+}
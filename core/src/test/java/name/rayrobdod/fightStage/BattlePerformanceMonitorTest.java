@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class BattlePerformanceMonitorTest {
+	
+	@Test
+	public void recordFrame_attributesFramesToCurrentStrike() {
+		final List<Strike> strikes = Arrays.asList(
+			  new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+			, new Strike(Side.RIGHT, 10, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final BattlePerformanceMonitor dut = new BattlePerformanceMonitor(side(), side(), strikes, Duration.millis(16.7));
+		
+		dut.recordFrame(ms(16));
+		dut.strikeStarted(0, strikes.get(0), null);
+		dut.recordFrame(ms(17));
+		dut.recordFrame(ms(40));
+		dut.strikeStarted(1, strikes.get(1), null);
+		dut.recordFrame(ms(10));
+		dut.strikesFinished(null);
+		dut.recordFrame(ms(500));
+		
+		final BattlePerformanceMonitor.Summary summary = dut.getSummary();
+		Assertions.assertEquals(4, summary.phases.size());
+		Assertions.assertEquals("strike 0 (NilSpellAnimationGroup)", summary.phases.get(1).name);
+		Assertions.assertEquals(5, summary.frameCount());
+		Assertions.assertEquals(3, summary.overBudgetCount());
+		Assertions.assertEquals(1, summary.phases.get(0).frameCount);
+		Assertions.assertEquals(0, summary.phases.get(0).overBudgetCount);
+		Assertions.assertEquals(2, summary.phases.get(1).frameCount);
+		Assertions.assertEquals(2, summary.phases.get(1).overBudgetCount);
+		Assertions.assertEquals(Duration.millis(40), summary.phases.get(1).worstFrame);
+		Assertions.assertEquals(1, summary.phases.get(3).overBudgetCount);
+		Assertions.assertSame(summary.phases.get(1), summary.worstPhases().get(0));
+	}
+	
+	@Test
+	public void listener_endingPhaseStartsAfterLastStrikeWhenNoUnitDies() {
+		final List<Strike> strikes = Arrays.asList(
+			new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final BattlePerformanceMonitor dut = new BattlePerformanceMonitor(side(), side(), strikes, Duration.millis(16.7));
+		final BattlePlan plan = BattlePlan.compute(new Dimension2D(640, 480), 200, 60, 60, strikes);
+		Assertions.assertFalse(plan.leftDies() || plan.rightDies());
+		final Animation anim = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200)
+			.prepare(side(), side(), plan, dut);
+		final Duration totalDuration = anim.getTotalDuration();
+		final BakedAnimation baked = BakedAnimation.bake(anim);
+		
+		for (double t = 0; t < totalDuration.toMillis(); t += 10) {
+			baked.sample(Duration.millis(t));
+			dut.recordFrame(ms(1));
+		}
+		baked.sample(totalDuration);
+		dut.recordFrame(ms(30));
+		
+		final BattlePerformanceMonitor.Summary summary = dut.getSummary();
+		Assertions.assertEquals(3, summary.phases.size());
+		Assertions.assertTrue(summary.phases.get(1).frameCount > 0);
+		Assertions.assertEquals(Duration.millis(1), summary.phases.get(1).worstFrame);
+		// the pause and swipe-out after the strike are not charged to the strike
+		Assertions.assertTrue(summary.phases.get(2).frameCount > 1);
+		Assertions.assertEquals(Duration.millis(30), summary.phases.get(2).worstFrame);
+	}
+	
+	@Test
+	public void summary_histogramAndPercentiles() {
+		final BattlePerformanceMonitor dut = new BattlePerformanceMonitor(side(), side(), Collections.emptyList(), Duration.millis(16.7));
+		for (int i = 0; i < 99; i++) {
+			dut.recordFrame(ms(16));
+		}
+		dut.recordFrame(ms(1000));
+		
+		final BattlePerformanceMonitor.Summary summary = dut.getSummary();
+		Assertions.assertEquals(99, summary.histogramCount(16));
+		Assertions.assertEquals(1, summary.histogramCount(1000));
+		Assertions.assertEquals(Duration.millis(17), summary.percentile(50));
+		Assertions.assertEquals(Duration.millis(17), summary.percentile(99));
+		Assertions.assertEquals(Duration.INDEFINITE, summary.percentile(100));
+	}
+	
+	
+	private static long ms(long millis) {
+		return millis * 1_000_000L;
+	}
+	
+	private static AggregateSideParams side() {
+		return new AggregateSideParams(
+			new NilUnitAnimationGroup(), new NilSpellAnimationGroup(), Color.RED,
+			"Name", "Weapon", new Group(),
+			60, 60
+		);
+	}
+	
+	private static class NilUnitAnimationGroup implements UnitAnimationGroup {
+		private Node node = new Group();
+		public Node objectBehindLayer() {return node;}
+		public Point2D getSpellTarget(RolloverState _1) {return Point2D.ZERO;}
+		public double getCurrentXOffset(RolloverState _1) {return 0;}
+		public Animation getAttackAnimation(
+			  Function<Point2D, Animation> spellAnimationFun
+			, RolloverState rolloverState
+			, Point2D target
+			, ConsecutiveAttackDescriptor consecutiveAttackDesc
+			, Set<AttackModifier> attackerModifiers
+			, boolean isFinisher
+		) { return spellAnimationFun.apply(Point2D.ZERO); }
+		public RolloverState getInitializingRolloverState(
+			  Side side
+			, Point2D initialOffset
+		) {return new RolloverState(0);}
+	}
+	
+	private static class NilSpellAnimationGroup implements SpellAnimationGroup {
+		private Node fore = new Group();
+		private Node back = new Group();
+		private Node backer = new Group();
+		public Node objectBehindLayer() {return back;}
+		public Node objectFrontLayer() {return fore;}
+		public Node backgroundLayer() {return backer;}
+		public Animation getAnimation(
+			  Point2D origin
+			, Point2D target
+			, BattlePanAnimations panAnimation
+			, ShakeAnimationBiFunction shakeAnimation
+			, Animation hitAnimation
+		) { return hitAnimation; }
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.geometry.Dimension2D;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class BattlePlanTest {
+	
+	@Test
+	public void compute_tracksHitpoints() {
+		final List<Strike> strikes = Arrays.asList(
+			  strike(Side.LEFT, 10, 5)
+			, strike(Side.RIGHT, 20, 0)
+		);
+		final BattlePlan dut = BattlePlan.compute(new Dimension2D(640, 480), 200, 40, 50, strikes);
+		
+		Assertions.assertEquals(40, dut.strikes.get(0).leftHitpointsBefore);
+		Assertions.assertEquals(45, dut.strikes.get(0).leftHitpointsAfter);
+		Assertions.assertEquals(50, dut.strikes.get(0).rightHitpointsBefore);
+		Assertions.assertEquals(40, dut.strikes.get(0).rightHitpointsAfter);
+		Assertions.assertEquals(45, dut.strikes.get(1).leftHitpointsBefore);
+		Assertions.assertEquals(25, dut.strikes.get(1).leftHitpointsAfter);
+		Assertions.assertEquals(25, dut.leftFinalHitpoints);
+		Assertions.assertEquals(40, dut.rightFinalHitpoints);
+		Assertions.assertFalse(dut.leftDies());
+		Assertions.assertFalse(dut.rightDies());
+	}
+	
+	@Test
+	public void compute_marksFinisher() {
+		final List<Strike> strikes = Arrays.asList(
+			  strike(Side.LEFT, 10, 0)
+			, strike(Side.LEFT, 10, 0)
+		);
+		final BattlePlan dut = BattlePlan.compute(new Dimension2D(640, 480), 200, 40, 20, strikes);
+		
+		Assertions.assertFalse(dut.strikes.get(0).isFinisher);
+		Assertions.assertTrue(dut.strikes.get(1).isFinisher);
+		Assertions.assertTrue(dut.rightDies());
+	}
+	
+	@Test
+	public void compute_keepsSeed() {
+		final BattlePlan dut = BattlePlan.compute(new Dimension2D(640, 480), 200, 40, 40, Collections.emptyList(), 1234L);
+		
+		Assertions.assertEquals(1234L, dut.seed);
+	}
+	
+	@Test
+	public void compute_consecutiveAttackDescriptors() {
+		final List<Strike> strikes = Arrays.asList(
+			  strike(Side.LEFT, 1, 0)
+			, strike(Side.LEFT, 1, 0)
+			, strike(Side.RIGHT, 1, 0)
+			, strike(Side.LEFT, 1, 0)
+			, strike(Side.LEFT, 1, 0)
+			, strike(Side.LEFT, 1, 0)
+		);
+		final BattlePlan dut = BattlePlan.compute(new Dimension2D(640, 480), 200, 40, 40, strikes);
+		final int[][] expected = {{1, 2}, {2, 2}, {1, 1}, {1, 3}, {2, 3}, {3, 3}};
+		
+		for (int i = 0; i < expected.length; i++) {
+			Assertions.assertEquals(expected[i][0], dut.strikes.get(i).consecutiveAttackDesc.current);
+			Assertions.assertEquals(expected[i][1], dut.strikes.get(i).consecutiveAttackDesc.total);
+		}
+	}
+	
+	@Test
+	public void panTargets_nearUnitsUseCenter() {
+		final BattlePlan dut = BattlePlan.compute(new Dimension2D(640, 480), 200, 40, 40, Collections.emptyList());
+		final BattlePlan.PanTargets pan = dut.panTargets(-5, 15);
+		
+		Assertions.assertEquals(320, dut.logicalScreenWidth, 1e-9);
+		Assertions.assertTrue(pan.useCenterPan);
+		Assertions.assertEquals(-5, pan.leftPan, 1e-9);
+		Assertions.assertEquals(-5, pan.rightPan, 1e-9);
+	}
+	
+	@Test
+	public void panTargets_farUnitsUseSeparatePans() {
+		final BattlePlan dut = BattlePlan.compute(new Dimension2D(640, 480), 2000, 40, 40, Collections.emptyList());
+		final BattlePlan.PanTargets pan = dut.panTargets(dut.initialLeftXOffset(), dut.initialRightXOffset());
+		
+		Assertions.assertFalse(pan.useCenterPan);
+		Assertions.assertTrue(pan.leftPan > 0);
+		Assertions.assertTrue(pan.rightPan < 0);
+		Assertions.assertEquals(pan.leftPan, pan.forSide(Side.LEFT), 1e-9);
+		Assertions.assertEquals(pan.rightPan, pan.forSide(Side.RIGHT), 1e-9);
+	}
+	
+	
+	private static Strike strike(Side attacker, int damage, int drain) {
+		return new Strike(attacker, damage, drain, Collections.emptySet(), Collections.emptySet());
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class BattleRendererTest {
+	
+	@Test
+	public void render_deliversEveryFrameInOrder() throws Exception {
+		final List<Integer> indexes = new ArrayList<>();
+		final List<Duration> times = new ArrayList<>();
+		final List<Image> frames = new ArrayList<>();
+		final int frameCount = BattleRenderer.render(
+			x -> new Group(), new Dimension2D(320, 240), 100,
+			side(), side(), Collections.emptyList(), null, 0L,
+			10, (index, time, frame) -> {indexes.add(index); times.add(time); frames.add(frame);}
+		);
+		
+		Assertions.assertTrue(frameCount > 1);
+		Assertions.assertEquals(frameCount, frames.size());
+		for (int i = 0; i < frameCount; i++) {
+			Assertions.assertEquals(i, (int) indexes.get(i));
+			Assertions.assertEquals(i * 100, times.get(i).toMillis(), 1e-6);
+		}
+	}
+	
+	@Test
+	public void render_frameCountCoversDuration() throws Exception {
+		final Duration totalDuration = BattleAnimation.buildAnimation(
+			x -> new Group(), new Dimension2D(320, 240), 100,
+			side(), side(), Collections.emptyList(), null, 0L
+		).animation.getTotalDuration();
+		final int frameCount = BattleRenderer.render(
+			x -> new Group(), new Dimension2D(320, 240), 100,
+			side(), side(), Collections.emptyList(), null, 0L,
+			25, (index, time, frame) -> {}
+		);
+		
+		Assertions.assertEquals((int) Math.floor(totalDuration.toSeconds() * 25) + 1, frameCount);
+	}
+	
+	@Test
+	public void render_framesAreContainerSized() throws Exception {
+		final List<Image> frames = new ArrayList<>();
+		BattleRenderer.render(
+			x -> new Group(), new Dimension2D(320, 240), 100,
+			side(), side(), Collections.emptyList(), null, 0L,
+			2, (index, time, frame) -> frames.add(frame)
+		);
+		
+		for (Image frame : frames) {
+			Assertions.assertEquals(320, frame.getWidth(), 1e-9);
+			Assertions.assertEquals(240, frame.getHeight(), 1e-9);
+		}
+	}
+	
+	@Test
+	public void render_listenerTimingsAreSampledTimes() throws Exception {
+		final List<BattleAnimationListener.Timing> timings = new ArrayList<>();
+		final BattleAnimationListener listener = new BattleAnimationListener() {
+			@Override public void swipeInFinished(Timing timing) {timings.add(timing);}
+			@Override public void strikeStarted(int strikeIndex, Strike strike, Timing timing) {timings.add(timing);}
+			@Override public void hitLanded(int strikeIndex, Strike strike, Timing timing) {timings.add(timing);}
+			@Override public void swipeOutFinished(Timing timing) {timings.add(timing);}
+		};
+		final double framesPerSecond = 10;
+		BattleRenderer.render(
+			x -> new Group(), new Dimension2D(320, 240), 100,
+			side(), side(),
+			Collections.singletonList(new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())),
+			listener, 0L,
+			framesPerSecond, (index, time, frame) -> {}
+		);
+		
+		Assertions.assertEquals(4, timings.size());
+		for (BattleAnimationListener.Timing timing : timings) {
+			Assertions.assertFalse(timing.scheduledTime.isUnknown(), timing.toString());
+			// each event is delivered by the first frame sampled at or after its scheduled time
+			Assertions.assertTrue(timing.latency().toMillis() >= 0, timing.toString());
+			Assertions.assertTrue(timing.latency().toSeconds() < 1 / framesPerSecond, timing.toString());
+		}
+	}
+	
+	@Test
+	public void render_nonPositiveFramesPerSecond_throws() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> BattleRenderer.render(
+			x -> new Group(), new Dimension2D(320, 240), 100,
+			side(), side(), Collections.emptyList(), null, 0L,
+			0, (index, time, frame) -> {}
+		));
+	}
+	
+	
+	private static AggregateSideParams side() {
+		return new AggregateSideParams(
+			new NilUnitAnimationGroup(), new NilSpellAnimationGroup(), Color.RED,
+			"Name", "Weapon", new Group(),
+			60, 60
+		);
+	}
+	
+	private static class NilUnitAnimationGroup implements UnitAnimationGroup {
+		private Node node = new Group();
+		public Node objectBehindLayer() {return node;}
+		public Point2D getSpellTarget(RolloverState _1) {return Point2D.ZERO;}
+		public double getCurrentXOffset(RolloverState _1) {return 0;}
+		public Animation getAttackAnimation(
+			  Function<Point2D, Animation> spellAnimationFun
+			, RolloverState rolloverState
+			, Point2D target
+			, ConsecutiveAttackDescriptor consecutiveAttackDesc
+			, Set<AttackModifier> attackerModifiers
+			, boolean isFinisher
+		) { return spellAnimationFun.apply(Point2D.ZERO); }
+		public RolloverState getInitializingRolloverState(
+			  Side side
+			, Point2D initialOffset
+		) {return new RolloverState(0);}
+	}
+	
+	private static class NilSpellAnimationGroup implements SpellAnimationGroup {
+		private Node fore = new Group();
+		private Node back = new Group();
+		private Node backer = new Group();
+		public Node objectBehindLayer() {return back;}
+		public Node objectFrontLayer() {return fore;}
+		public Node backgroundLayer() {return backer;}
+		public Animation getAnimation(
+			  Point2D origin
+			, Point2D target
+			, BattlePanAnimations panAnimation
+			, ShakeAnimationBiFunction shakeAnimation
+			, Animation hitAnimation
+		) { return hitAnimation; }
+	}
+}
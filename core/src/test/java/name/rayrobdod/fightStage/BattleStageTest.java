@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class BattleStageTest {
+	
+	@Test
+	public void getNode_isStableAcrossPrepares() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final Node n1 = dut.getNode();
+		dut.prepare(side(), side(), Collections.emptyList());
+		final Node n2 = dut.getNode();
+		dut.prepare(side(), side(), Collections.emptyList());
+		final Node n3 = dut.getNode();
+		Assertions.assertSame(n1, n2);
+		Assertions.assertSame(n1, n3);
+	}
+	
+	@Test
+	public void prepare_replacesUnitLayers() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final AggregateSideParams firstLeft = side();
+		final AggregateSideParams secondLeft = side();
+		dut.prepare(firstLeft, side(), Collections.emptyList());
+		dut.prepare(secondLeft, side(), Collections.emptyList());
+		Assertions.assertFalse(isDescendant(dut.getNode(), firstLeft.unit.objectBehindLayer()));
+		Assertions.assertTrue(isDescendant(dut.getNode(), secondLeft.unit.objectBehindLayer()));
+	}
+	
+	@Test
+	public void prepare_returnsDistinctAnimations() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final List<Strike> strikes = Arrays.asList(
+			new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final Animation a1 = dut.prepare(side(), side(), strikes);
+		final Animation a2 = dut.prepare(side(), side(), strikes);
+		Assertions.assertNotSame(a1, a2);
+		Assertions.assertEquals(a1.getTotalDuration(), a2.getTotalDuration());
+	}
+	
+	@Test
+	public void prepare_largeHealthDrainsNoSlowerThanAFullBarOfNotches() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200, HealthBarStyle.CANVAS);
+		final Animation small = dut.prepare(side(), sideWithHitpoints(CanvasHealthBar.MAX_NOTCHES),
+			Arrays.asList(new Strike(Side.LEFT, CanvasHealthBar.MAX_NOTCHES, 0, Collections.emptySet(), Collections.emptySet())));
+		final Animation large = dut.prepare(side(), sideWithHitpoints(1000),
+			Arrays.asList(new Strike(Side.LEFT, 1000, 0, Collections.emptySet(), Collections.emptySet())));
+		
+		Assertions.assertTrue(large.getTotalDuration().lessThanOrEqualTo(small.getTotalDuration()),
+			large.getTotalDuration() + " > " + small.getTotalDuration());
+	}
+	
+	@Test
+	public void prepare_listenerReceivesEventsInOrder() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final List<Strike> strikes = Arrays.asList(
+			  new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+			, new Strike(Side.RIGHT, 100, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final BattlePlan plan = BattlePlan.compute(new Dimension2D(640, 480), 200, 60, 60, strikes);
+		final List<String> events = new ArrayList<>();
+		final List<Duration> times = new ArrayList<>();
+		final Animation anim = dut.prepare(side(), side(), plan, new BattleAnimationListener() {
+			@Override public void swipeInFinished(Timing t) { events.add("swipeIn"); times.add(t.scheduledTime); }
+			@Override public void strikeStarted(int i, Strike s, Timing t) { events.add("strike" + i); times.add(t.scheduledTime); }
+			@Override public void hitLanded(int i, Strike s, Timing t) { events.add("hit" + i); times.add(t.scheduledTime); }
+			@Override public void strikesFinished(Timing t) { events.add("strikesFinished"); times.add(t.scheduledTime); }
+			@Override public void unitDied(Side s, Timing t) { events.add("died" + s); times.add(t.scheduledTime); }
+			@Override public void swipeOutFinished(Timing t) { events.add("swipeOut"); times.add(t.scheduledTime); }
+		});
+		final Duration totalDuration = anim.getTotalDuration();
+		BakedAnimation.bake(anim).sample(totalDuration);
+		
+		Assertions.assertEquals(
+			Arrays.asList("swipeIn", "strike0", "hit0", "strike1", "hit1", "strikesFinished", "diedLEFT", "swipeOut"),
+			events
+		);
+		for (int i = 1; i < times.size(); i++) {
+			Assertions.assertTrue(times.get(i - 1).lessThanOrEqualTo(times.get(i)), times.toString());
+		}
+		Assertions.assertEquals(totalDuration, times.get(times.size() - 1));
+	}
+	
+	@Test
+	public void prepare_unitLayersAreCachedOnlyWhileNotChanging() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final AggregateSideParams left = side();
+		final List<Strike> strikes = Arrays.asList(
+			new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final BattlePlan plan = BattlePlan.compute(new Dimension2D(640, 480), 200, 60, 60, strikes);
+		final List<Duration> hitTimes = new ArrayList<>();
+		final Animation anim = dut.prepare(left, side(), plan, new BattleAnimationListener() {
+			@Override public void hitLanded(int i, Strike s, Timing t) { hitTimes.add(t.scheduledTime); }
+		});
+		final Duration totalDuration = anim.getTotalDuration();
+		final BakedAnimation baked = BakedAnimation.bake(anim);
+		baked.sample(totalDuration);
+		
+		baked.sample(hitTimes.get(0).add(Duration.ONE));
+		Assertions.assertFalse(left.unit.objectBehindLayer().isCache());
+		baked.sample(totalDuration);
+		Assertions.assertTrue(left.unit.objectBehindLayer().isCache());
+	}
+	
+	@Test
+	public void prepare_hudIsCachedWhilePanningToLaterStrikes() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final List<Strike> strikes = Arrays.asList(
+			  new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+			, new Strike(Side.RIGHT, 10, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final BattlePlan plan = BattlePlan.compute(new Dimension2D(640, 480), 200, 60, 60, strikes);
+		final List<Duration> strikeTimes = new ArrayList<>();
+		final List<Duration> hitTimes = new ArrayList<>();
+		// far enough apart that the camera pans between the units
+		final Animation anim = dut.prepare(side(-1000), side(1000), plan, new BattleAnimationListener() {
+			@Override public void strikeStarted(int i, Strike s, Timing t) { strikeTimes.add(t.scheduledTime); }
+			@Override public void hitLanded(int i, Strike s, Timing t) { hitTimes.add(t.scheduledTime); }
+		});
+		final List<Node> hudLayers = ((Parent) dut.getNode()).getChildrenUnmodifiable().subList(1, 4);
+		final Duration totalDuration = anim.getTotalDuration();
+		final BakedAnimation baked = BakedAnimation.bake(anim);
+		baked.sample(totalDuration);
+		
+		baked.sample(hitTimes.get(0).add(Duration.ONE));
+		for (Node layer : hudLayers) {
+			Assertions.assertFalse(layer.isCache());
+		}
+		Assertions.assertTrue(hitTimes.get(1).subtract(strikeTimes.get(1)).greaterThan(Duration.millis(10)));
+		baked.sample(strikeTimes.get(1).add(hitTimes.get(1)).divide(2));
+		for (Node layer : hudLayers) {
+			Assertions.assertTrue(layer.isCache());
+		}
+	}
+	
+	@Test
+	public void prepare_spellRandomValuesDependOnlyOnSeed() {
+		final BattleStage dut = new BattleStage(x -> new Group(), new Dimension2D(640, 480), 200);
+		final List<Strike> strikes = Arrays.asList(
+			  new Strike(Side.LEFT, 10, 0, Collections.emptySet(), Collections.emptySet())
+			, new Strike(Side.RIGHT, 10, 0, Collections.emptySet(), Collections.emptySet())
+		);
+		final List<Long> first = new ArrayList<>();
+		final List<Long> second = new ArrayList<>();
+		final List<Long> other = new ArrayList<>();
+		final BattlePlan plan = BattlePlan.compute(new Dimension2D(640, 480), 200, 60, 60, strikes, 42);
+		final BattlePlan otherPlan = BattlePlan.compute(new Dimension2D(640, 480), 200, 60, 60, strikes, 43);
+		dut.prepare(side(first), side(first), plan);
+		dut.prepare(side(second), side(second), plan);
+		dut.prepare(side(other), side(other), otherPlan);
+		
+		Assertions.assertEquals(2, first.size());
+		Assertions.assertEquals(first, second);
+		Assertions.assertNotEquals(first.get(0), first.get(1));
+		Assertions.assertNotEquals(first, other);
+	}
+	
+	
+	private static boolean isDescendant(Node ancestor, Node n) {
+		Node current = n;
+		while (current != null) {
+			if (current == ancestor) {
+				return true;
+			}
+			current = current.getParent();
+		}
+		return false;
+	}
+	
+	private static AggregateSideParams side() {
+		return new AggregateSideParams(
+			new NilUnitAnimationGroup(), new NilSpellAnimationGroup(), Color.RED,
+			"Name", "Weapon", new Group(),
+			60, 60
+		);
+	}
+	
+	/** A side with the specified maximum and initial hitpoints */
+	private static AggregateSideParams sideWithHitpoints(int hitpoints) {
+		return new AggregateSideParams(
+			new NilUnitAnimationGroup(), new NilSpellAnimationGroup(), Color.RED,
+			"Name", "Weapon", new Group(),
+			hitpoints, hitpoints
+		);
+	}
+	
+	/** A side whose unit stands at the specified x offset */
+	private static AggregateSideParams side(double xOffset) {
+		return new AggregateSideParams(
+			new OffsetUnitAnimationGroup(xOffset), new NilSpellAnimationGroup(), Color.RED,
+			"Name", "Weapon", new Group(),
+			60, 60
+		);
+	}
+	
+	/** A side whose spell adds the first random value it is given to `randomValues` each time it builds an animation */
+	private static AggregateSideParams side(List<Long> randomValues) {
+		return new AggregateSideParams(
+			new NilUnitAnimationGroup(), new RecordingSpellAnimationGroup(randomValues), Color.RED,
+			"Name", "Weapon", new Group(),
+			60, 60
+		);
+	}
+	
+	private static class NilUnitAnimationGroup implements UnitAnimationGroup {
+		private Node node = new Group();
+		public Node objectBehindLayer() {return node;}
+		public Point2D getSpellTarget(RolloverState _1) {return Point2D.ZERO;}
+		public double getCurrentXOffset(RolloverState _1) {return 0;}
+		public Animation getAttackAnimation(
+			  Function<Point2D, Animation> spellAnimationFun
+			, RolloverState rolloverState
+			, Point2D target
+			, ConsecutiveAttackDescriptor consecutiveAttackDesc
+			, Set<AttackModifier> attackerModifiers
+			, boolean isFinisher
+		) { return spellAnimationFun.apply(Point2D.ZERO); }
+		public RolloverState getInitializingRolloverState(
+			  Side side
+			, Point2D initialOffset
+		) {return new RolloverState(0);}
+	}
+	
+	private static class OffsetUnitAnimationGroup extends NilUnitAnimationGroup {
+		private final double xOffset;
+		public OffsetUnitAnimationGroup(double xOffset) {this.xOffset = xOffset;}
+		public double getCurrentXOffset(RolloverState _1) {return xOffset;}
+	}
+	
+	private static class NilSpellAnimationGroup implements SpellAnimationGroup {
+		private Node fore = new Group();
+		private Node back = new Group();
+		private Node backer = new Group();
+		public Node objectBehindLayer() {return back;}
+		public Node objectFrontLayer() {return fore;}
+		public Node backgroundLayer() {return backer;}
+		public Animation getAnimation(
+			  Point2D origin
+			, Point2D target
+			, BattlePanAnimations panAnimation
+			, ShakeAnimationBiFunction shakeAnimation
+			, Animation hitAnimation
+		) { return hitAnimation; }
+	}
+	
+	private static class RecordingSpellAnimationGroup extends NilSpellAnimationGroup {
+		private final List<Long> randomValues;
+		public RecordingSpellAnimationGroup(List<Long> randomValues) {this.randomValues = randomValues;}
+		public Animation getAnimation(
+			  Point2D origin
+			, Point2D target
+			, BattlePanAnimations panAnimation
+			, ShakeAnimationBiFunction shakeAnimation
+			, Animation hitAnimation
+			, Random rng
+		) {
+			randomValues.add(rng.nextLong());
+			return hitAnimation;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.beans.binding.ObjectBinding;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.geometry.Insets;
+import javafx.scene.layout.Border;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class BindingsTest {
+	
+	@Test
+	public void insetScale_multipliesEachSide() {
+		final DoubleProperty scale = new SimpleDoubleProperty(3);
+		final Insets result = Bindings.insetScale(new Insets(1, 2, 3, 4), scale).get();
+		Assertions.assertEquals(new Insets(3, 6, 9, 12), result);
+	}
+	
+	@Test
+	public void insetScale_sameBaseAndScaleShareAnInstance() {
+		final DoubleProperty scale1 = new SimpleDoubleProperty(1);
+		final DoubleProperty scale2 = new SimpleDoubleProperty(2);
+		final Insets base = new Insets(1, 2, 3, 4);
+		final ObjectBinding<Insets> binding1 = Bindings.insetScale(base, scale1);
+		final ObjectBinding<Insets> binding2 = Bindings.insetScale(new Insets(1, 2, 3, 4), scale2);
+		scale1.set(2);
+		Assertions.assertSame(binding1.get(), binding2.get());
+	}
+	
+	@Test
+	public void fontScale_sameBaseAndScaleShareAnInstance() {
+		final DoubleProperty scale = new SimpleDoubleProperty(2);
+		final Font result1 = Bindings.fontScale(Font.font("Sans", 15), scale).get();
+		final Font result2 = Bindings.fontScale(Font.font("Sans", 15), scale).get();
+		Assertions.assertEquals(30, result1.getSize(), 1e-9);
+		Assertions.assertSame(result1, result2);
+	}
+	
+	@Test
+	public void solidScalableWidthBorder_differentScalesAreDifferent() {
+		final DoubleProperty scale1 = new SimpleDoubleProperty(1);
+		final DoubleProperty scale2 = new SimpleDoubleProperty(2);
+		final Border result1 = Bindings.solidScalableWidthBorder(Color.WHITE, 3, 0, 3, 1.5, scale1).get();
+		final Border result2 = Bindings.solidScalableWidthBorder(Color.WHITE, 3, 0, 3, 1.5, scale2).get();
+		Assertions.assertEquals(3, result1.getStrokes().get(0).getWidths().getTop(), 1e-9);
+		Assertions.assertEquals(6, result2.getStrokes().get(0).getWidths().getTop(), 1e-9);
+	}
+}
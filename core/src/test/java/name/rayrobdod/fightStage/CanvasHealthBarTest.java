@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.geometry.HPos;
+import javafx.scene.paint.Color;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.api.FxAssert;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.matcher.control.LabeledMatchers;
+
+@ExtendWith(ApplicationExtension.class)
+public final class CanvasHealthBarTest {
+	
+	@Test
+	public void whenCurrentHealthIsSet_thenLabelsTextUpdates() {
+		final int expected = 50;
+		CanvasHealthBar dut = new CanvasHealthBar(HPos.LEFT, Color.ORANGE, 40, 60);
+		dut.currentHealthProperty().set(expected);
+		FxAssert.verifyThat(
+			(javafx.scene.control.Label) dut.getNode().lookup(".label"),
+			LabeledMatchers.hasText("" + expected)
+		);
+	}
+	
+	@Test
+	public void givenSmallMaximumHealth_thenOneNotchPerHealth() {
+		CanvasHealthBar dut = new CanvasHealthBar(HPos.LEFT, Color.ORANGE, 40, 60);
+		Assertions.assertEquals(1, dut.healthPerNotch());
+		Assertions.assertEquals(60, dut.notchCount());
+		Assertions.assertEquals(1.0, dut.notchFill(39));
+		Assertions.assertEquals(0.0, dut.notchFill(40));
+	}
+	
+	@Test
+	public void givenLargeMaximumHealth_thenNotchesAreSegmented() {
+		CanvasHealthBar dut = new CanvasHealthBar(HPos.LEFT, Color.ORANGE, 1234, 2000);
+		Assertions.assertEquals(25, dut.healthPerNotch());
+		Assertions.assertEquals(80, dut.notchCount());
+		Assertions.assertEquals(1.0, dut.notchFill(48));
+		Assertions.assertEquals(9.0 / 25.0, dut.notchFill(49), 1e-9);
+		Assertions.assertEquals(0.0, dut.notchFill(50));
+	}
+	
+	@Test
+	public void whenMaximumHealthIsSet_thenNotchCountUpdates() {
+		CanvasHealthBar dut = new CanvasHealthBar(HPos.LEFT, Color.ORANGE, 40, 60);
+		dut.maximumHealthProperty().set(100);
+		Assertions.assertEquals(2, dut.healthPerNotch());
+		Assertions.assertEquals(50, dut.notchCount());
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.nio.IntBuffer;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class FrameCaptureTest {
+	
+	@Test
+	public void capture_seesStateSetBySeek() throws Exception {
+		final Rectangle node = new Rectangle(0, 0, 8, 6);
+		node.setFill(Color.RED);
+		final FrameCapture dut = new FrameCapture(node, new Rectangle2D(0, 0, 8, 6), 2);
+		final int[] pixels = new int[8 * 6];
+		
+		dut.captureArgb(() -> node.setFill(Color.BLUE), IntBuffer.wrap(pixels));
+		
+		for (int pixel : pixels) {
+			Assertions.assertEquals(0xFF0000FF, pixel);
+		}
+	}
+	
+	@Test
+	public void capture_outsideNodeIsTransparent() throws Exception {
+		final Rectangle node = new Rectangle(0, 0, 4, 6);
+		node.setFill(Color.RED);
+		final FrameCapture dut = new FrameCapture(node, new Rectangle2D(0, 0, 8, 6), 2);
+		final int[] pixels = new int[8 * 6];
+		
+		dut.captureArgb(() -> {}, IntBuffer.wrap(pixels));
+		
+		Assertions.assertEquals(0xFFFF0000, pixels[0]);
+		Assertions.assertEquals(0x00000000, pixels[7]);
+	}
+	
+	@Test
+	public void capture_cyclesThroughRing() throws Exception {
+		final Rectangle node = new Rectangle(0, 0, 8, 6);
+		final FrameCapture dut = new FrameCapture(node, new Rectangle2D(0, 0, 8, 6), 2);
+		final WritableImage first = dut.capture(() -> {});
+		final WritableImage second = dut.capture(() -> {});
+		final WritableImage third = dut.capture(() -> {});
+		
+		Assertions.assertNotSame(first, second);
+		Assertions.assertSame(first, third);
+		Assertions.assertEquals(8, first.getWidth(), 1e-9);
+		Assertions.assertEquals(6, first.getHeight(), 1e-9);
+	}
+	
+	@Test
+	public void capture_withTarget_rendersIntoTarget() throws Exception {
+		final Rectangle node = new Rectangle(0, 0, 8, 6);
+		final FrameCapture dut = new FrameCapture(node, new Rectangle2D(0, 0, 8, 6), 1);
+		final WritableImage target = dut.newImage();
+		
+		Assertions.assertSame(target, dut.capture(() -> {}, target));
+	}
+	
+	@Test
+	public void capture_seekThrows_rethrows() {
+		final FrameCapture dut = new FrameCapture(new Rectangle(0, 0, 8, 6), new Rectangle2D(0, 0, 8, 6), 1);
+		Assertions.assertThrows(IllegalStateException.class, () -> dut.capture(() -> {throw new IllegalStateException();}));
+	}
+}
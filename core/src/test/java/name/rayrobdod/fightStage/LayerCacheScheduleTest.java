@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.animation.Animation;
+import javafx.scene.CacheHint;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class LayerCacheScheduleTest {
+	
+	@Test
+	public void set_appliesStateWhenPlayed() {
+		final Node layer = new Group();
+		final LayerCacheSchedule dut = new LayerCacheSchedule();
+		final Animation anim = dut.set(LayerCacheSchedule.State.MOVING, layer);
+		Assertions.assertFalse(layer.isCache());
+		
+		playToEnd(anim);
+		Assertions.assertTrue(layer.isCache());
+		Assertions.assertEquals(CacheHint.SPEED, layer.getCacheHint());
+	}
+	
+	@Test
+	public void set_changingState_turnsOffCache() {
+		final Node layer = new Group();
+		final LayerCacheSchedule dut = new LayerCacheSchedule();
+		final Animation idle = dut.set(LayerCacheSchedule.State.IDLE, layer);
+		final Animation changing = dut.set(LayerCacheSchedule.State.CHANGING, layer);
+		
+		playToEnd(idle);
+		Assertions.assertTrue(layer.isCache());
+		Assertions.assertEquals(CacheHint.DEFAULT, layer.getCacheHint());
+		playToEnd(changing);
+		Assertions.assertFalse(layer.isCache());
+	}
+	
+	@Test
+	public void set_sameStateTwice_secondAnimationIsEmpty() {
+		final Node layer = new Group();
+		final LayerCacheSchedule dut = new LayerCacheSchedule();
+		dut.set(LayerCacheSchedule.State.IDLE, layer);
+		final Animation second = dut.set(LayerCacheSchedule.State.IDLE, layer);
+		Assertions.assertEquals(Duration.ZERO, second.getTotalDuration());
+	}
+	
+	@Test
+	public void reset_turnsOffCacheImmediately() {
+		final Node layer = new Group();
+		layer.setCache(true);
+		layer.setCacheHint(CacheHint.SPEED);
+		final LayerCacheSchedule dut = new LayerCacheSchedule();
+		dut.reset(layer);
+		Assertions.assertFalse(layer.isCache());
+		Assertions.assertEquals(CacheHint.DEFAULT, layer.getCacheHint());
+	}
+	
+	
+	private static void playToEnd(Animation anim) {
+		anim.play();
+		anim.pause();
+		anim.jumpTo(anim.getTotalDuration());
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class ResizeCoalescerTest {
+	
+	@Test
+	public void whenNotCoalescing_thenSizeChangesApplyImmediately() {
+		final DoubleProperty width = new SimpleDoubleProperty(320);
+		final DoubleProperty height = new SimpleDoubleProperty(240);
+		final ResizeCoalescer dut = new ResizeCoalescer(width, height);
+		width.set(700);
+		height.set(500);
+		Assertions.assertEquals(700, dut.widthProperty().get());
+		Assertions.assertEquals(500, dut.heightProperty().get());
+		Assertions.assertEquals(2, dut.magnificationProperty().get());
+	}
+	
+	@Test
+	public void whenResizeDoesNotChangeMagnification_thenMagnificationIsNotInvalidated() {
+		final DoubleProperty width = new SimpleDoubleProperty(640);
+		final DoubleProperty height = new SimpleDoubleProperty(480);
+		final ResizeCoalescer dut = new ResizeCoalescer(width, height);
+		final AtomicInteger invalidations = new AtomicInteger(0);
+		dut.magnificationProperty().addListener(x -> invalidations.incrementAndGet());
+		dut.magnificationProperty().get();
+		width.set(641);
+		width.set(900);
+		height.set(700);
+		Assertions.assertEquals(0, invalidations.get());
+	}
+	
+	@Test
+	public void whenCoalescing_thenSizeChangesAreHeldUntilFlush() {
+		final DoubleProperty width = new SimpleDoubleProperty(320);
+		final DoubleProperty height = new SimpleDoubleProperty(240);
+		final ResizeCoalescer dut = new ResizeCoalescer(width, height);
+		dut.coalescingProperty().set(true);
+		width.set(500);
+		width.set(700);
+		height.set(500);
+		Assertions.assertEquals(320, dut.widthProperty().get());
+		Assertions.assertEquals(1, dut.magnificationProperty().get());
+		dut.flush();
+		Assertions.assertEquals(700, dut.widthProperty().get());
+		Assertions.assertEquals(500, dut.heightProperty().get());
+		Assertions.assertEquals(2, dut.magnificationProperty().get());
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.value.WritableDoubleValue;
+import javafx.geometry.Point2D;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class RolloverStateTest {
+	
+	@Test
+	public void add_returnsHandlesInOrder() {
+		final RolloverState dut = new RolloverState(1);
+		final DoubleProperty a = new SimpleDoubleProperty();
+		final DoubleProperty b = new SimpleDoubleProperty();
+		final DoubleProperty c = new SimpleDoubleProperty();
+		
+		Assertions.assertEquals(0, dut.add(a, 1));
+		Assertions.assertEquals(1, dut.add(b, 2));
+		Assertions.assertEquals(2, dut.add(c, 3));
+		Assertions.assertEquals(3, dut.size());
+		Assertions.assertEquals(2, dut.get(1), 1e-9);
+		Assertions.assertSame(c, dut.property(2));
+	}
+	
+	@Test
+	public void add_existingProperty_setsValueAndKeepsHandle() {
+		final RolloverState dut = new RolloverState();
+		final DoubleProperty a = new SimpleDoubleProperty();
+		dut.add(a, 1);
+		
+		Assertions.assertEquals(0, dut.add(a, 5));
+		Assertions.assertEquals(1, dut.size());
+		Assertions.assertEquals(5, dut.get(0), 1e-9);
+	}
+	
+	@Test
+	public void get_invalidHandle_throws() {
+		final RolloverState dut = new RolloverState();
+		dut.add(new SimpleDoubleProperty(), 1);
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> dut.get(1));
+	}
+	
+	@Test
+	public void asMap_writesThrough() {
+		final RolloverState dut = new RolloverState();
+		final DoubleProperty a = new SimpleDoubleProperty();
+		final DoubleProperty b = new SimpleDoubleProperty();
+		dut.add(a, 1);
+		final Map<WritableDoubleValue, Double> view = dut.asMap();
+		
+		Assertions.assertEquals(Double.valueOf(1), view.get(a));
+		view.put(a, 2.0);
+		view.put(b, 3.0);
+		Assertions.assertEquals(2, dut.get(0), 1e-9);
+		Assertions.assertEquals(3, dut.get(1), 1e-9);
+		dut.set(1, 4);
+		Assertions.assertEquals(Double.valueOf(4), view.get(b));
+		
+		final Map<WritableDoubleValue, Double> expected = new HashMap<>();
+		expected.put(a, 2.0);
+		expected.put(b, 4.0);
+		Assertions.assertEquals(expected, view);
+	}
+	
+	@Test
+	public void of_view_returnsBackingState() {
+		final RolloverState dut = new RolloverState();
+		Assertions.assertSame(dut, RolloverState.of(dut.asMap()));
+	}
+	
+	@Test
+	public void of_map_copiesEntries() {
+		final DoubleProperty a = new SimpleDoubleProperty();
+		final DoubleProperty b = new SimpleDoubleProperty();
+		final Map<WritableDoubleValue, Double> source = new LinkedHashMap<>();
+		source.put(a, 1.0);
+		source.put(b, 2.0);
+		final RolloverState dut = RolloverState.of(source);
+		
+		Assertions.assertEquals(2, dut.size());
+		Assertions.assertEquals(2, dut.get(dut.indexOf(b)), 1e-9);
+	}
+	
+	@Test
+	public void toDiscreteKeyFrame_containsEveryStatesValues() {
+		final RolloverState left = new RolloverState();
+		left.add(new SimpleDoubleProperty(), 1);
+		left.add(new SimpleDoubleProperty(), 2);
+		final RolloverState right = new RolloverState();
+		right.add(new SimpleDoubleProperty(), 3);
+		final KeyFrame frame = RolloverState.toDiscreteKeyFrame(Duration.ONE, left, right);
+		
+		Assertions.assertEquals(Duration.ONE, frame.getTime());
+		Assertions.assertEquals(3, frame.getValues().size());
+	}
+	
+	@Test
+	public void get_byProperty_returnsThatPropertysValue() {
+		final RolloverState dut = new RolloverState();
+		final DoubleProperty a = new SimpleDoubleProperty();
+		final DoubleProperty b = new SimpleDoubleProperty();
+		dut.add(a, 1);
+		dut.add(b, 2);
+		dut.set(a, 3);
+		
+		Assertions.assertEquals(3, dut.get(a), 1e-9);
+		Assertions.assertEquals(2, dut.get(b), 1e-9);
+		Assertions.assertThrows(NoSuchElementException.class, () -> dut.get(new SimpleDoubleProperty()));
+	}
+	
+	@Test
+	public void stateBasedUnit_calledWithMap_seesAndUpdatesMap() {
+		final StateBasedUnit unit = new StateBasedUnit();
+		final Map<WritableDoubleValue, Double> map = new HashMap<>(unit.getInitializingKeyValues(Side.LEFT, new Point2D(10, 0)));
+		
+		Assertions.assertEquals(10, unit.getCurrentXOffset(map), 1e-9);
+		unit.getAttackAnimation(x -> Animations.nil(), map, Point2D.ZERO, new ConsecutiveAttackDescriptor(1, 1), Collections.emptySet(), false);
+		Assertions.assertEquals(20, unit.getCurrentXOffset(map), 1e-9);
+		Assertions.assertEquals(Double.valueOf(20), map.get(unit.x));
+	}
+	
+	@Test
+	public void stateBasedUnit_calledWithHashMap_findsEachPropertyRegardlessOfIterationOrder() {
+		// a HashMap's iteration order depends on the properties' hash codes, so try several sets of properties
+		for (int i = 0; i < 20; i++) {
+			final StateBasedUnit unit = new StateBasedUnit();
+			final Map<WritableDoubleValue, Double> map = new HashMap<>(unit.getInitializingKeyValues(Side.LEFT, new Point2D(123, 456)));
+			
+			Assertions.assertEquals(123, unit.getCurrentXOffset(map), 1e-9);
+			Assertions.assertEquals(new Point2D(123, 456), unit.getSpellTarget(map));
+			unit.getAttackAnimation(x -> Animations.nil(), map, Point2D.ZERO, new ConsecutiveAttackDescriptor(1, 1), Collections.emptySet(), false);
+			Assertions.assertEquals(Double.valueOf(133), map.get(unit.x));
+			Assertions.assertEquals(Double.valueOf(456), map.get(unit.y));
+			Assertions.assertEquals(Double.valueOf(-1), map.get(unit.facing));
+		}
+	}
+	
+	
+	/** A unit which moves ten units forward each attack, implemented with RolloverStates */
+	private static final class StateBasedUnit implements UnitAnimationGroup {
+		private final Node node = new Group();
+		public final DoubleProperty facing = new SimpleDoubleProperty();
+		public final DoubleProperty x = new SimpleDoubleProperty();
+		public final DoubleProperty y = new SimpleDoubleProperty();
+		
+		public Node objectBehindLayer() {return node;}
+		public Point2D getSpellTarget(RolloverState rolloverState) {return new Point2D(rolloverState.get(x), rolloverState.get(y));}
+		public double getCurrentXOffset(RolloverState rolloverState) {return rolloverState.get(x);}
+		public Animation getAttackAnimation(
+			  Function<Point2D, Animation> spellAnimationFun
+			, RolloverState rolloverState
+			, Point2D target
+			, ConsecutiveAttackDescriptor consecutiveAttackDesc
+			, Set<AttackModifier> attackerModifiers
+			, boolean isFinisher
+		) {
+			rolloverState.set(x, rolloverState.get(x) - rolloverState.get(facing) * 10);
+			return spellAnimationFun.apply(Point2D.ZERO);
+		}
+		public RolloverState getInitializingRolloverState(Side side, Point2D initialOffset) {
+			final RolloverState retval = new RolloverState(3);
+			retval.add(facing, (side == Side.LEFT ? -1.0 : 1.0));
+			retval.add(x, initialOffset.getX());
+			retval.add(y, initialOffset.getY());
+			return retval;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class SeekIndexTest {
+	
+	@Test
+	public void seek_appliesFinishedChildrenAndActiveChild() {
+		final DoubleProperty a = new SimpleDoubleProperty(-1);
+		final DoubleProperty b = new SimpleDoubleProperty(-1);
+		final DoubleProperty c = new SimpleDoubleProperty(-1);
+		final SequentialTransition anim = new SequentialTransition(
+			  linear(a, 0, 10)
+			, linear(b, 0, 20)
+			, linear(c, 0, 40)
+		);
+		
+		try (SeekIndex dut = new SeekIndex(anim)) {
+			Assertions.assertEquals(Duration.millis(300), dut.getTotalDuration());
+			dut.seek(Duration.millis(250));
+			Assertions.assertEquals(10, a.get(), 1e-9);
+			Assertions.assertEquals(20, b.get(), 1e-9);
+			Assertions.assertEquals(20, c.get(), 1e-6);
+		}
+	}
+	
+	@Test
+	public void seek_backwardsRestoresEarlierValues() {
+		final DoubleProperty a = new SimpleDoubleProperty(-1);
+		final DoubleProperty b = new SimpleDoubleProperty(-1);
+		final SequentialTransition anim = new SequentialTransition(
+			  linear(a, 0, 10)
+			, linear(b, 0, 20)
+		);
+		
+		try (SeekIndex dut = new SeekIndex(anim)) {
+			dut.seek(Duration.millis(200));
+			dut.seek(Duration.millis(50));
+			Assertions.assertEquals(5, a.get(), 1e-6);
+			Assertions.assertEquals(-1, b.get(), 1e-9);
+		}
+	}
+	
+	@Test
+	public void seek_drivesOpaqueChildren() {
+		final Rectangle rect = new Rectangle();
+		final FadeTransition fade = new FadeTransition(Duration.millis(100), rect);
+		fade.setFromValue(1.0);
+		fade.setToValue(0.0);
+		fade.setInterpolator(Interpolator.LINEAR);
+		final SequentialTransition anim = new SequentialTransition(
+			  fade
+			, linear(new SimpleDoubleProperty(), 0, 10)
+		);
+		
+		try (SeekIndex dut = new SeekIndex(anim)) {
+			dut.seek(Duration.millis(25));
+			Assertions.assertEquals(0.75, rect.getOpacity(), 1e-6);
+			dut.seek(Duration.millis(150));
+			Assertions.assertEquals(0.0, rect.getOpacity(), 1e-6);
+		}
+	}
+	
+	@Test
+	public void close_returnsChildren() {
+		final SequentialTransition anim = new SequentialTransition(
+			  linear(new SimpleDoubleProperty(), 0, 10)
+			, linear(new SimpleDoubleProperty(), 0, 20)
+		);
+		final Duration expected = anim.getTotalDuration();
+		
+		try (SeekIndex dut = new SeekIndex(anim)) {
+			Assertions.assertEquals(0, anim.getChildren().size());
+			dut.seek(Duration.millis(150));
+		}
+		Assertions.assertEquals(2, anim.getChildren().size());
+		Assertions.assertEquals(expected, anim.getTotalDuration());
+	}
+	
+	
+	private static Animation linear(DoubleProperty prop, double from, double to) {
+		return new Timeline(
+			new KeyFrame(Duration.ZERO, new KeyValue(prop, from, Interpolator.DISCRETE)),
+			new KeyFrame(Duration.millis(100), new KeyValue(prop, to, Interpolator.LINEAR))
+		);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class ShakeTransitionTest {
+	private static final Duration period = Duration.millis(160);
+	
+	@Test
+	public void matchesKeyFrameShake_defaultDuration() {
+		assertMatchesKeyFrameShake(6, Duration.millis(160));
+	}
+	
+	@Test
+	public void matchesKeyFrameShake_longDuration() {
+		assertMatchesKeyFrameShake(10, Duration.millis(1000));
+	}
+	
+	@Test
+	public void matchesKeyFrameShake_durationEndingBeforeTrough() {
+		assertMatchesKeyFrameShake(4, Duration.millis(100));
+	}
+	
+	@Test
+	public void endsAtZero() {
+		final DoubleProperty x = new SimpleDoubleProperty(3);
+		final DoubleProperty y = new SimpleDoubleProperty(3);
+		final ShakeTransition dut = new ShakeTransition(x, y, 6, period, Duration.millis(100));
+		dut.interpolate(1.0);
+		Assertions.assertEquals(0.0, x.get(), 1e-9);
+		Assertions.assertEquals(0.0, y.get(), 1e-9);
+	}
+	
+	
+	private static void assertMatchesKeyFrameShake(double intensity, Duration duration) {
+		final DoubleProperty expectedX = new SimpleDoubleProperty();
+		final DoubleProperty expectedY = new SimpleDoubleProperty();
+		final Timeline expected = keyFrameShake(expectedX, expectedY, intensity, duration);
+		expected.play();
+		expected.pause();
+		final DoubleProperty actualX = new SimpleDoubleProperty();
+		final DoubleProperty actualY = new SimpleDoubleProperty();
+		final ShakeTransition dut = new ShakeTransition(actualX, actualY, intensity, period, duration);
+		
+		for (double t = 0; t <= duration.toMillis(); t += 5) {
+			expected.jumpTo(Duration.millis(t));
+			dut.interpolate(t / duration.toMillis());
+			Assertions.assertEquals(expectedX.get(), actualX.get(), 1e-6, "x at " + t);
+			Assertions.assertEquals(expectedY.get(), actualY.get(), 1e-6, "y at " + t);
+		}
+		expected.stop();
+	}
+	
+	/** The shake, as built from KeyFrames */
+	private static Timeline keyFrameShake(DoubleProperty xProperty, DoubleProperty yProperty, double intensity, Duration duration) {
+		final Timeline retval = new Timeline();
+		retval.getKeyFrames().add(new KeyFrame(Duration.ZERO,
+			new KeyValue(xProperty, 0, Interpolator.LINEAR),
+			new KeyValue(yProperty, 0, Interpolator.LINEAR)
+		));
+		for (Duration i = period.divide(4); i.lessThan(duration); i = i.add(period)) {
+			final double leftFraction = i.toMillis() / duration.toMillis();
+			final double rightFraction = i.add(period.divide(2)).toMillis() / duration.toMillis();
+			final double leftIntensity = intensity * Math.min(1.0, (1.0 - leftFraction) / 0.5);
+			final double rightIntensity = intensity * Math.min(1.0, (1.0 - rightFraction) / 0.5);
+			retval.getKeyFrames().add(new KeyFrame(i,
+				new KeyValue(xProperty, leftIntensity, Interpolator.LINEAR),
+				new KeyValue(yProperty, -leftIntensity, Interpolator.LINEAR)
+			));
+			retval.getKeyFrames().add(new KeyFrame(i.add(period.divide(2)),
+				new KeyValue(xProperty, -rightIntensity, Interpolator.LINEAR),
+				new KeyValue(yProperty, rightIntensity, Interpolator.LINEAR)
+			));
+		}
+		retval.getKeyFrames().add(new KeyFrame(duration,
+			new KeyValue(xProperty, 0, Interpolator.LINEAR),
+			new KeyValue(yProperty, 0, Interpolator.LINEAR)
+		));
+		return retval;
+	}
+}
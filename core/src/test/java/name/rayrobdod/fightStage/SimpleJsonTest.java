@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class SimpleJsonTest {
+	
+	@Test
+	public void parse_readsNestedValues() {
+		final Map<String, Object> expected = new LinkedHashMap<>();
+		expected.put("a", 1.5);
+		expected.put("b", Arrays.asList(-2.0, 3e2, true, false, null));
+		expected.put("c", "x\"y\\z\u00e9");
+		expected.put("d", Collections.emptyMap());
+		
+		Assertions.assertEquals(
+			expected,
+			SimpleJson.parse(" {\"a\": 1.5, \"b\" : [-2, 3e2, true, false, null], \"c\": \"x\\\"y\\\\z\\u00e9\", \"d\": {}} ")
+		);
+	}
+	
+	@Test
+	public void parse_emptyArray() {
+		Assertions.assertEquals(Collections.emptyList(), SimpleJson.parse("[ ]"));
+	}
+	
+	@Test
+	public void parse_invalidValue_throws() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> SimpleJson.parse("{\"a\": TODO}"));
+	}
+	
+	@Test
+	public void parse_trailingText_throws() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> SimpleJson.parse("[1] 2"));
+	}
+	
+	@Test
+	public void parse_unterminatedString_throws() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> SimpleJson.parse("\"abc"));
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.animation.Animation;
+import javafx.animation.Interpolator;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.geometry.Point2D;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+@ExtendWith(ApplicationExtension.class)
+public final class SpriteSheetSpellAnimationGroupTest {
+	private static final String MANIFEST = "{"
+		+ "\"name\": \"test_front.png\", \"frames\": 6, \"width\": 10, \"height\": 8, \"columns\": 4,"
+		+ "\"speed\": 0.1, \"hitframes\": [2, 4], \"shakeFrames\": 2, \"shakeIntensity\": 3, \"soundMap\": {},"
+		+ "\"canvasWidth\": 240, \"canvasHeight\": 180, \"x\": 70, \"y\": 90,"
+		+ "\"originX\": 160, \"originY\": 102, \"targetX\": 80, \"targetY\": 102, \"scale\": 0.5"
+		+ "}";
+	
+	@Test
+	public void read_parsesManifest() {
+		final SpriteSheetSpellAnimationGroup.Sheet dut = sheet();
+		Assertions.assertEquals(6, dut.frameCount);
+		Assertions.assertEquals(Duration.millis(100), dut.frameDuration);
+		Assertions.assertEquals(java.util.Arrays.asList(2, 4), dut.hitFrames);
+		Assertions.assertEquals(6.0, dut.shakeIntensity);
+		Assertions.assertEquals(300.0, dut.shakeDuration.toMillis(), 1e-9);
+		Assertions.assertEquals(new Rectangle2D(10, 8, 10, 8), dut.viewport(5));
+	}
+	
+	@Test
+	public void read_missingValue_throws() {
+		Assertions.assertThrows(IllegalArgumentException.class, () ->
+			SpriteSheetSpellAnimationGroup.Sheet.read(new WritableImage(40, 16), "{\"frames\": 6}")
+		);
+	}
+	
+	@Test
+	public void getAnimation_containsHpShakeOnce() {
+		SpellAnimationGroupTests.getAnimation_containsHpShakeOnce(() -> new SpriteSheetSpellAnimationGroup(null, sheet(), null));
+	}
+	
+	@Test
+	public void getAnimation_showsFrameAtTime() {
+		final SpriteSheetSpellAnimationGroup dut = new SpriteSheetSpellAnimationGroup(null, sheet(), null);
+		final ImageView view = frontView(dut);
+		final Animation anim = animation(dut, new Point2D(100, 0), new Point2D(0, 0), new PauseTransition(Duration.millis(100)), ShakeAnimationBiFunction.nil());
+		Assertions.assertFalse(view.isVisible());
+		
+		anim.play();
+		anim.pause();
+		anim.jumpTo(Duration.millis(250));
+		Assertions.assertTrue(view.isVisible());
+		Assertions.assertEquals(new Rectangle2D(20, 0, 10, 8), view.getViewport());
+		Assertions.assertEquals(-20, view.getX(), 1e-9);
+		Assertions.assertEquals(-24, view.getY(), 1e-9);
+		Assertions.assertEquals(20, view.getFitWidth(), 1e-9);
+		Assertions.assertEquals(1, view.getScaleX(), 1e-9);
+		
+		anim.jumpTo(Duration.millis(650));
+		Assertions.assertFalse(view.isVisible());
+	}
+	
+	@Test
+	public void getAnimation_mirrorsWhenOriginIsOnOtherSide() {
+		final SpriteSheetSpellAnimationGroup dut = new SpriteSheetSpellAnimationGroup(null, sheet(), null);
+		final ImageView view = frontView(dut);
+		final Animation anim = animation(dut, new Point2D(-100, 0), new Point2D(0, 0), new PauseTransition(Duration.millis(100)), ShakeAnimationBiFunction.nil());
+		
+		anim.play();
+		anim.pause();
+		anim.jumpTo(Duration.millis(50));
+		Assertions.assertEquals(-1, view.getScaleX(), 1e-9);
+		Assertions.assertEquals(0, view.getX(), 1e-9);
+	}
+	
+	@Test
+	public void getAnimation_hitStartsAtFirstHitFrame() {
+		final SpriteSheetSpellAnimationGroup dut = new SpriteSheetSpellAnimationGroup(null, sheet(), null);
+		final DoubleProperty hitProgress = new SimpleDoubleProperty(0);
+		final Animation hitAnimation = new Timeline(
+			new KeyFrame(Duration.ZERO, new KeyValue(hitProgress, 0, Interpolator.LINEAR)),
+			new KeyFrame(Duration.millis(100), new KeyValue(hitProgress, 1, Interpolator.LINEAR))
+		);
+		final Animation anim = animation(dut, new Point2D(100, 0), new Point2D(0, 0), hitAnimation, ShakeAnimationBiFunction.nil());
+		
+		anim.play();
+		anim.pause();
+		anim.jumpTo(Duration.millis(150));
+		Assertions.assertEquals(0, hitProgress.get(), 1e-9);
+		anim.jumpTo(Duration.millis(250));
+		Assertions.assertEquals(0.5, hitProgress.get(), 0.05);
+	}
+	
+	@Test
+	public void getAnimation_longHitAnimationDoesNotDelayLaterShakes() {
+		final SpriteSheetSpellAnimationGroup dut = new SpriteSheetSpellAnimationGroup(null, sheet(), null);
+		final DoubleProperty shakesStarted = new SimpleDoubleProperty(0);
+		final ShakeAnimationBiFunction counter = new ShakeAnimationBiFunction() {
+			private int count = 0;
+			public Animation apply() {return this.apply(0, Duration.ZERO);}
+			public Animation apply(double intensity) {return this.apply(0, Duration.ZERO);}
+			public Animation apply(Duration duration) {return this.apply(0, Duration.ZERO);}
+			public Animation apply(double intensity, Duration duration) {
+				this.count++;
+				return new Timeline(
+					new KeyFrame(Duration.ZERO, new KeyValue(shakesStarted, this.count, Interpolator.DISCRETE)),
+					new KeyFrame(Duration.millis(50), new KeyValue(shakesStarted, this.count, Interpolator.DISCRETE))
+				);
+			}
+		};
+		final Animation anim = animation(dut, new Point2D(100, 0), new Point2D(0, 0), new PauseTransition(Duration.seconds(1)), counter);
+		
+		anim.play();
+		anim.pause();
+		anim.jumpTo(Duration.millis(300));
+		Assertions.assertEquals(1, shakesStarted.get(), 1e-9);
+		anim.jumpTo(Duration.millis(450));
+		Assertions.assertEquals(2, shakesStarted.get(), 1e-9);
+	}
+	
+	@Test
+	public void getAnimation_shakesOncePerHitFrameWithManifestValues() {
+		final SpriteSheetSpellAnimationGroup dut = new SpriteSheetSpellAnimationGroup(null, sheet(), null);
+		final List<String> shakes = new ArrayList<>();
+		final ShakeAnimationBiFunction recorder = new ShakeAnimationBiFunction() {
+			public Animation apply() {shakes.add("default"); return Animations.nil();}
+			public Animation apply(double intensity) {shakes.add("" + intensity); return Animations.nil();}
+			public Animation apply(Duration duration) {shakes.add("" + duration); return Animations.nil();}
+			public Animation apply(double intensity, Duration duration) {shakes.add(intensity + " " + duration); return Animations.nil();}
+		};
+		animation(dut, new Point2D(100, 0), new Point2D(0, 0), new PauseTransition(Duration.millis(100)), recorder);
+		
+		Assertions.assertEquals(java.util.Arrays.asList("6.0 300.0 ms", "6.0 300.0 ms"), shakes);
+	}
+	
+	
+	private static SpriteSheetSpellAnimationGroup.Sheet sheet() {
+		return SpriteSheetSpellAnimationGroup.Sheet.read(new WritableImage(40, 16), MANIFEST);
+	}
+	
+	private static ImageView frontView(SpriteSheetSpellAnimationGroup dut) {
+		return (ImageView) ((Group) dut.objectFrontLayer()).getChildren().get(0);
+	}
+	
+	private static Animation animation(
+		  SpriteSheetSpellAnimationGroup dut
+		, Point2D origin
+		, Point2D target
+		, Animation hitAnimation
+		, ShakeAnimationBiFunction shake
+	) {
+		return dut.getAnimation(origin, target, BattlePanAnimations.nil(), shake, hitAnimation);
+	}
+}
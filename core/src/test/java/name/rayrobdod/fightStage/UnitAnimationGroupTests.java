@@ -18,6 +18,7 @@
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -74,6 +75,18 @@ public static void getCurrentXOffset_matchesValuePassedToInitializingKeyValues(S
 		Assertions.assertEquals(value, v.getCurrentXOffset(map));
 	}
 	
+	/**
+	 * A HashMap iterates in an order unrelated to the order the unit added its properties,
+	 * so repeat with new units and therefore new hash codes
+	 */
+	public static void getCurrentXOffset_throughHashMap_matchesValuePassedToInitializingKeyValues(Supplier<UnitAnimationGroup> s, double value) {
+		for (int i = 0; i < 20; i++) {
+			UnitAnimationGroup v = s.get();
+			Map<WritableDoubleValue, Double> map = new HashMap<>(v.getInitializingKeyValues(Side.LEFT, new Point2D(value, 456.0)));
+			Assertions.assertEquals(value, v.getCurrentXOffset(map));
+		}
+	}
+	
 	
 	
 	public static Stream<DynamicTest> allTests(String prefix, Supplier<UnitAnimationGroup> dut) {
@@ -84,6 +97,7 @@ public static Stream<DynamicTest> allTests(String prefix, Supplier<UnitAnimation
 			, dynamicTest(prefix + "_getCurrentXOffset_matchesValuePassedToInitializingKeyValues_0", () -> getCurrentXOffset_matchesValuePassedToInitializingKeyValues(dut, 0))
 			, dynamicTest(prefix + "_getCurrentXOffset_matchesValuePassedToInitializingKeyValues_50", () -> getCurrentXOffset_matchesValuePassedToInitializingKeyValues(dut, 50))
 			, dynamicTest(prefix + "_getCurrentXOffset_matchesValuePassedToInitializingKeyValues_-50", () -> getCurrentXOffset_matchesValuePassedToInitializingKeyValues(dut, -50))
+			, dynamicTest(prefix + "_getCurrentXOffset_throughHashMap_matchesValuePassedToInitializingKeyValues_123", () -> getCurrentXOffset_throughHashMap_matchesValuePassedToInitializingKeyValues(dut, 123))
 		);
 	}
 	
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javafx.util.Duration;
+
+/**
+ * Writes frames into a single animated PNG file, as the frames arrive.
+ * <p>
+ * Each frame is filtered and compressed one row at a time, and the compressed
+ * data is written out in fixed-size chunks, so neither the frames nor the
+ * file are held in memory. The number of frames is not known until the
+ * writer is closed, so closing the writer goes back and fills in the count.
+ * <p>
+ * Frames must be the size given to the constructor and are written as 8-bit RGBA.
+ */
+final class AnimatedPngWriter implements RecordingWriter {
+	private static final byte[] signature = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	/** the position of the acTL chunk's data: after the signature, the IHDR chunk and the acTL chunk's length and type */
+	private static final long actlDataPosition = 8 + (4 + 4 + 13 + 4) + (4 + 4);
+	/** the largest amount of compressed data written in one IDAT or fdAT chunk */
+	private static final int chunkDataSize = 1 << 16;
+	
+	private final File file;
+	private final OutputStream out;
+	private final int width;
+	private final int height;
+	private final FrameDelayQuantizer delays;
+	private final int delayDenominator;
+	private final Deflater deflater;
+	private final CRC32 crc;
+	
+	private final int[] argbRow;
+	private final byte[] rawRow;
+	private final byte[] filteredRow;
+	private final byte[] chunkData;
+	private int chunkDataLength;
+	private boolean chunksAreFdat;
+	
+	private int frameCount;
+	private int sequenceNumber;
+	
+	/**
+	 * @param file the file to write to
+	 * @param width the width of each frame
+	 * @param height the height of each frame
+	 * @param frameRate the length of each frame
+	 * @param delayUnit the unit that frame delays are rounded to. Should be one second divided by an integer.
+	 */
+	public AnimatedPngWriter(File file, int width, int height, Duration frameRate, Duration delayUnit) throws IOException {
+		this.delayDenominator = FrameDelayQuantizer.unitsPerSecond(delayUnit);
+		if (this.delayDenominator < 1 || this.delayDenominator > 0xFFFF) {
+			throw new IllegalArgumentException("delayUnit must be between one second and 1/65535 seconds: " + delayUnit);
+		}
+		this.file = file;
+		this.out = new BufferedOutputStream(new FileOutputStream(file));
+		this.width = width;
+		this.height = height;
+		this.delays = new FrameDelayQuantizer(frameRate, delayUnit);
+		this.deflater = new Deflater();
+		this.crc = new CRC32();
+		
+		this.argbRow = new int[width];
+		this.rawRow = new byte[width * 4];
+		this.filteredRow = new byte[1 + width * 4];
+		this.chunkData = new byte[4 + chunkDataSize];
+		this.frameCount = 0;
+		this.sequenceNumber = 0;
+		
+		this.out.write(signature);
+		
+		final byte[] ihdr = new byte[13];
+		writeInt(ihdr, 0, width);
+		writeInt(ihdr, 4, height);
+		ihdr[8] = 8; // bit depth
+		ihdr[9] = 6; // color type: truecolor with alpha
+		ihdr[10] = 0; // compression method: deflate
+		ihdr[11] = 0; // filter method: adaptive
+		ihdr[12] = 0; // interlace method: none
+		this.writeChunk("IHDR", ihdr, ihdr.length);
+		
+		// the frame count is filled in by close
+		this.writeChunk("acTL", actlData(0), 8);
+	}
+	
+	@Override
+	public void write(int index, BufferedImage frame) throws IOException {
+		if (frame.getWidth() != this.width || frame.getHeight() != this.height) {
+			throw new IllegalArgumentException("Frame is " + frame.getWidth() + "x" + frame.getHeight() +
+				"; expected " + this.width + "x" + this.height);
+		}
+		
+		final byte[] fctl = new byte[26];
+		writeInt(fctl, 0, this.sequenceNumber++);
+		writeInt(fctl, 4, this.width);
+		writeInt(fctl, 8, this.height);
+		writeInt(fctl, 12, 0); // x offset
+		writeInt(fctl, 16, 0); // y offset
+		writeShort(fctl, 20, Math.min(0xFFFF, this.delays.next()));
+		writeShort(fctl, 22, this.delayDenominator);
+		fctl[24] = 0; // dispose op: none
+		fctl[25] = 0; // blend op: source
+		this.writeChunk("fcTL", fctl, fctl.length);
+		
+		this.chunksAreFdat = (this.frameCount != 0);
+		this.chunkDataLength = (this.chunksAreFdat ? 4 : 0);
+		this.deflater.reset();
+		for (int y = 0; y < this.height; y++) {
+			frame.getRGB(0, y, this.width, 1, this.argbRow, 0, this.width);
+			for (int x = 0; x < this.width; x++) {
+				final int argb = this.argbRow[x];
+				this.rawRow[4 * x + 0] = (byte) (argb >> 16);
+				this.rawRow[4 * x + 1] = (byte) (argb >> 8);
+				this.rawRow[4 * x + 2] = (byte) (argb);
+				this.rawRow[4 * x + 3] = (byte) (argb >> 24);
+			}
+			// the "Sub" filter: each byte minus the corresponding byte of the pixel to its left
+			this.filteredRow[0] = 1;
+			for (int i = 0; i < this.rawRow.length; i++) {
+				this.filteredRow[1 + i] = (byte) (this.rawRow[i] - (i >= 4 ? this.rawRow[i - 4] : 0));
+			}
+			this.deflater.setInput(this.filteredRow);
+			while (! this.deflater.needsInput()) {
+				this.deflate();
+			}
+		}
+		this.deflater.finish();
+		while (! this.deflater.finished()) {
+			this.deflate();
+		}
+		this.flushImageData();
+		this.frameCount++;
+	}
+	
+	/**
+	 * Finishes the file. If no frames were written, writes a single transparent frame,
+	 * since an animated PNG must have at least one frame.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.frameCount == 0) {
+				this.write(0, new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB));
+			}
+			this.writeChunk("IEND", new byte[0], 0);
+		} finally {
+			this.out.close();
+			this.deflater.end();
+		}
+		
+		try (RandomAccessFile patch = new RandomAccessFile(this.file, "rw")) {
+			final byte[] actl = actlData(this.frameCount);
+			this.crc.reset();
+			this.crc.update("acTL".getBytes(StandardCharsets.US_ASCII));
+			this.crc.update(actl);
+			patch.seek(actlDataPosition);
+			patch.write(actl);
+			patch.writeInt((int) this.crc.getValue());
+		}
+	}
+	
+	
+	/** Compresses pending data into chunkData, writing a chunk if chunkData is full */
+	private void deflate() throws IOException {
+		this.chunkDataLength += this.deflater.deflate(this.chunkData, this.chunkDataLength, this.chunkData.length - this.chunkDataLength);
+		if (this.chunkDataLength == this.chunkData.length) {
+			this.flushImageData();
+		}
+	}
+	
+	/** Writes the data in chunkData as an IDAT chunk, or as an fdAT chunk if this is not the first frame */
+	private void flushImageData() throws IOException {
+		if (this.chunksAreFdat) {
+			if (this.chunkDataLength > 4) {
+				writeInt(this.chunkData, 0, this.sequenceNumber++);
+				this.writeChunk("fdAT", this.chunkData, this.chunkDataLength);
+			}
+			this.chunkDataLength = 4;
+		} else {
+			if (this.chunkDataLength > 0) {
+				this.writeChunk("IDAT", this.chunkData, this.chunkDataLength);
+			}
+			this.chunkDataLength = 0;
+		}
+	}
+	
+	private void writeChunk(String type, byte[] data, int length) throws IOException {
+		final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		final byte[] intBytes = new byte[4];
+		this.crc.reset();
+		this.crc.update(typeBytes);
+		this.crc.update(data, 0, length);
+		
+		writeInt(intBytes, 0, length);
+		this.out.write(intBytes);
+		this.out.write(typeBytes);
+		this.out.write(data, 0, length);
+		writeInt(intBytes, 0, (int) this.crc.getValue());
+		this.out.write(intBytes);
+	}
+	
+	/** The data of an acTL chunk for an endlessly-looping animation with the specified number of frames */
+	private static byte[] actlData(int frameCount) {
+		final byte[] retval = new byte[8];
+		writeInt(retval, 0, frameCount);
+		writeInt(retval, 4, 0); // number of plays: infinite
+		return retval;
+	}
+	
+	private static void writeInt(byte[] dest, int offset, int value) {
+		dest[offset + 0] = (byte) (value >> 24);
+		dest[offset + 1] = (byte) (value >> 16);
+		dest[offset + 2] = (byte) (value >> 8);
+		dest[offset + 3] = (byte) (value);
+	}
+	
+	private static void writeShort(byte[] dest, int offset, int value) {
+		dest[offset + 0] = (byte) (value >> 8);
+		dest[offset + 1] = (byte) (value);
+	}
+}
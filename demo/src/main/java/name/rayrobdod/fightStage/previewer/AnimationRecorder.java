@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.WritableImage;
+import javafx.util.Duration;
+
+import name.rayrobdod.fightStage.FrameCapture;
+import name.rayrobdod.fightStage.SeekIndex;
+
+/**
+ * Writes the frames of an indexed animation to a RecordingWriter
+ */
+final class AnimationRecorder {
+	private AnimationRecorder() {}
+	
+	/**
+	 * Seeks the animation to each frame in turn, snapshots it, and hands the snapshot to the writer.
+	 * <p>
+	 * The application thread only seeks and snapshots; converting and
+	 * compressing each frame happens on a pool of encoder threads.
+	 * <p>
+	 * MUST NOT be called on the JavaFX application thread
+	 * @param seekIndex the animation to record
+	 * @param capture the snapshotter of the node that displays the animation
+	 * @param frameRate the length of each frame
+	 * @param writer the recipient of the frames. Not closed by this method.
+	 * @param isCanceled checked before each frame; recording stops once this returns true
+	 * @return the number of frames written
+	 * @throws IOException if the writer fails to write a frame
+	 */
+	public static int record(
+		  SeekIndex seekIndex
+		, FrameCapture capture
+		, Duration frameRate
+		, RecordingWriter writer
+		, BooleanSupplier isCanceled
+	) throws IOException, InterruptedException {
+		final int frames = (int) (seekIndex.getTotalDuration().toMillis() / frameRate.toMillis());
+		final AtomicReference<IOException> writeException = new AtomicReference<>(null);
+		final AtomicInteger written = new AtomicInteger(0);
+		
+		// A frame's image is returned to freeImages once it has been written,
+		// so waiting on freeImages stops the snapshots from outpacing the encoders.
+		// Writers that produce a single file need their frames one at a time and in order
+		final int encoderCount = (writer.acceptsFramesOutOfOrder() ? Math.max(1, Runtime.getRuntime().availableProcessors() - 1) : 1);
+		final ExecutorService encoders = Executors.newFixedThreadPool(encoderCount, (r) -> {
+			final Thread retval = new Thread(r, "FightStageRecorderEncoder");
+			retval.setDaemon(true);
+			return retval;
+		});
+		final BlockingQueue<WritableImage> freeImages = new ArrayBlockingQueue<>(encoderCount * 2);
+		final ThreadLocal<BufferedImage> swingImages = new ThreadLocal<>();
+		while (freeImages.remainingCapacity() > 0) {
+			freeImages.add(capture.newImage());
+		}
+		
+		try {
+			// Render each frame and hand it to the encoders
+			for (int i = 0; i < frames; i++) {
+				final int i2 = i;
+				if (isCanceled.getAsBoolean()) {
+					break;
+				}
+				if (writeException.get() != null) {
+					break;
+				}
+				
+				final WritableImage snapshot = capture.capture(() -> {
+					final Duration jumpToDur = frameRate.multiply(i2);
+					seekIndex.seek(jumpToDur);
+				}, freeImages.take());
+				
+				encoders.execute(() -> {
+					try {
+						final BufferedImage snapshotSwing = SwingFXUtils.fromFXImage(snapshot, swingImages.get());
+						swingImages.set(snapshotSwing);
+						writer.write(i2, snapshotSwing);
+						written.incrementAndGet();
+					} catch (IOException ex) {
+						writeException.compareAndSet(null, ex);
+					} finally {
+						freeImages.add(snapshot);
+					}
+				});
+			}
+		} finally {
+			// if canceled, drop the frames that have not started encoding
+			if (isCanceled.getAsBoolean()) {
+				encoders.shutdownNow();
+			} else {
+				encoders.shutdown();
+			}
+			awaitTermination(encoders);
+		}
+		
+		// includes failures of frames that were still being encoded when the loop ended
+		if (writeException.get() != null) {
+			throw writeException.get();
+		}
+		return written.get();
+	}
+	
+	/**
+	 * Waits for every encoder to finish, however long that takes, since the
+	 * caller closes the writer afterwards and an encoder may still be using it.
+	 * If interrupted, drops the frames that have not started encoding, but
+	 * still waits for those being encoded before rethrowing the interrupt.
+	 */
+	private static void awaitTermination(ExecutorService encoders) throws InterruptedException {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (encoders.awaitTermination(1, TimeUnit.MINUTES)) {
+					break;
+				}
+			} catch (InterruptedException ex) {
+				interrupted = true;
+				encoders.shutdownNow();
+			}
+		}
+		if (interrupted) {
+			throw new InterruptedException("Interrupted while waiting for encoders");
+		}
+	}
+}
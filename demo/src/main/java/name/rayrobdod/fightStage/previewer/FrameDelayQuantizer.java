@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import javafx.util.Duration;
+
+/**
+ * Converts a frame rate into a series of per-frame delays measured in a
+ * coarser unit, such as the hundredths of a second used by GIFs.
+ * <p>
+ * Each frame's delay is rounded so that the total of the delays so far stays
+ * as close as possible to the time that has actually elapsed, so that a
+ * frame length that is not a multiple of the unit alternates between
+ * neighboring delays instead of drifting. For instance, 30 frames per second
+ * in hundredths of a second gives delays of 3, 4, 3, 3, 4, 3, ...
+ */
+final class FrameDelayQuantizer {
+	private final Duration unit;
+	private final double unitsPerFrame;
+	private long framesSoFar;
+	private long unitsSoFar;
+	
+	/**
+	 * @param frameRate the length of each frame
+	 * @param unit the unit that delays are measured in
+	 */
+	public FrameDelayQuantizer(Duration frameRate, Duration unit) {
+		if (! (unit.toMillis() > 0)) {
+			throw new IllegalArgumentException("unit must be positive: " + unit);
+		}
+		this.unit = unit;
+		this.unitsPerFrame = frameRate.toMillis() / unit.toMillis();
+		this.framesSoFar = 0;
+		this.unitsSoFar = 0;
+	}
+	
+	/** Returns the delay, in units, of the next frame */
+	public int next() {
+		this.framesSoFar++;
+		final long end = Math.round(this.framesSoFar * this.unitsPerFrame);
+		final int retval = (int) (end - this.unitsSoFar);
+		this.unitsSoFar = end;
+		return retval;
+	}
+	
+	/** The unit that delays are measured in */
+	public Duration getUnit() { return this.unit; }
+	
+	/**
+	 * Returns the number of units in a second, rounded to the nearest integer;
+	 * the denominator of a delay fraction
+	 */
+	public static int unitsPerSecond(Duration unit) {
+		return (int) Math.round(1000 / unit.toMillis());
+	}
+}
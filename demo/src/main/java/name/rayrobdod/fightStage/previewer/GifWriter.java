@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import javafx.util.Duration;
+
+/**
+ * Writes frames into a single animated GIF file, as the frames arrive.
+ * <p>
+ * Uses ImageIO's GIF writer in sequence mode, which writes each frame to the
+ * file as it is given one. Frames are reduced to a palette individually.
+ */
+final class GifWriter implements RecordingWriter {
+	private static final String metadataFormat = "javax_imageio_gif_image_1.0";
+	
+	private final ImageOutputStream out;
+	private final ImageWriter writer;
+	private final FrameDelayQuantizer delays;
+	private boolean isFirstFrame;
+	
+	/**
+	 * @param file the file to write to
+	 * @param frameRate the length of each frame
+	 * @param delayUnit the unit that frame delays are rounded to. Should be a multiple of ten milliseconds,
+	 *	the resolution of GIF frame delays.
+	 */
+	public GifWriter(File file, Duration frameRate, Duration delayUnit) throws IOException {
+		if (delayUnit.toMillis() < 10) {
+			throw new IllegalArgumentException("delayUnit must be at least ten milliseconds: " + delayUnit);
+		}
+		if (file.exists()) {
+			// ImageIO would overwrite the file's start without truncating it
+			file.delete();
+		}
+		this.writer = ImageIO.getImageWritersByFormatName("gif").next();
+		this.out = ImageIO.createImageOutputStream(file);
+		if (null == this.out) {
+			throw new IOException("Could not open " + file);
+		}
+		this.delays = new FrameDelayQuantizer(frameRate, delayUnit);
+		this.isFirstFrame = true;
+		
+		this.writer.setOutput(this.out);
+		this.writer.prepareWriteSequence(null);
+	}
+	
+	@Override
+	public void write(int index, BufferedImage frame) throws IOException {
+		final int delayCentiseconds = (int) Math.round(this.delays.next() * this.delays.getUnit().toMillis() / 10);
+		final IIOMetadata metadata = this.writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(frame), null);
+		final IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(metadataFormat);
+		
+		final IIOMetadataNode graphicControl = child(root, "GraphicControlExtension");
+		// clear the previous frame, rather than drawing this frame on top of it
+		graphicControl.setAttribute("disposalMethod", "restoreToBackgroundColor");
+		graphicControl.setAttribute("userInputFlag", "FALSE");
+		if (! graphicControl.hasAttribute("transparentColorFlag")) {
+			graphicControl.setAttribute("transparentColorFlag", "FALSE");
+			graphicControl.setAttribute("transparentColorIndex", "0");
+		}
+		graphicControl.setAttribute("delayTime", Integer.toString(Math.min(0xFFFF, delayCentiseconds)));
+		
+		if (this.isFirstFrame) {
+			// loop endlessly
+			final IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+			loop.setAttribute("applicationID", "NETSCAPE");
+			loop.setAttribute("authenticationCode", "2.0");
+			loop.setUserObject(new byte[] {1, 0, 0});
+			child(root, "ApplicationExtensions").appendChild(loop);
+			this.isFirstFrame = false;
+		}
+		
+		metadata.setFromTree(metadataFormat, root);
+		this.writer.writeToSequence(new IIOImage(frame, null, metadata), null);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			this.writer.endWriteSequence();
+		} finally {
+			this.out.close();
+			this.writer.dispose();
+		}
+	}
+	
+	
+	/** Returns the node's child with the specified name, adding the child if there is not already one */
+	private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+		for (int i = 0; i < parent.getLength(); i++) {
+			if (parent.item(i).getNodeName().equals(name)) {
+				return (IIOMetadataNode) parent.item(i);
+			}
+		}
+		final IIOMetadataNode retval = new IIOMetadataNode(name);
+		parent.appendChild(retval);
+		return retval;
+	}
+}
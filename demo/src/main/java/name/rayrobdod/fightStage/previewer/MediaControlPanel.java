@@ -20,6 +20,7 @@
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import javax.imageio.ImageIO;
@@ -58,20 +59,29 @@
 import javafx.scene.shape.SVGPath;
 import javafx.scene.shape.Shape;
 import javafx.scene.text.Text;
-import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
+import name.rayrobdod.fightStage.FrameCapture;
+import name.rayrobdod.fightStage.SeekIndex;
+
 /**
  * A panel which control the playing of an animation
  */
 final class MediaControlPanel {
+	/** The unit that an animated PNG recording's frame delays are rounded to */
+	private static final Duration apngDelayUnit = Duration.millis(1);
+	/** The unit that an animated GIF recording's frame delays are rounded to */
+	private static final Duration gifDelayUnit = Duration.millis(10);
 	
 	private final GridPane node;
 	private final FileChooser filechooser;
-	private final DirectoryChooser directorychooser;
+	private final FileChooser recordFilechooser;
+	private final ExtensionFilter apngRecordingFormat;
+	private final ExtensionFilter gifRecordingFormat;
+	private final ExtensionFilter pngSequenceRecordingFormat;
 	private final Parent snapContainer;
 	
 	/**
@@ -217,7 +227,12 @@ public MediaControlPanel(
 		filechooser.getExtensionFilters().sort(java.util.Comparator.comparing(x -> x.getExtensions().get(0), MediaControlPanel::compareStringWithPngFirst));
 		filechooser.setInitialFileName("snaphot");
 		
-		this.directorychooser = new DirectoryChooser();
+		this.apngRecordingFormat = new ExtensionFilter("Animated PNG", "*.png");
+		this.gifRecordingFormat = new ExtensionFilter("Animated GIF", "*.gif");
+		this.pngSequenceRecordingFormat = new ExtensionFilter("Directory of PNG frames", "*");
+		this.recordFilechooser = new FileChooser();
+		recordFilechooser.getExtensionFilters().addAll(apngRecordingFormat, gifRecordingFormat, pngSequenceRecordingFormat);
+		recordFilechooser.setInitialFileName("recording");
 	}
 	
 	public Node getNode() { return this.node; }
@@ -377,9 +392,10 @@ public RecordButtonActionHandler(
 		
 		public void handle(ActionEvent event) {
 			recordingTaskCanceledProperty.set(false);
-			final File recordDir = directorychooser.showDialog(((Node) event.getSource()).getScene().getWindow());
-			if (recordDir != null) {
-				if (recordDir.isDirectory() && recordDir.list().length != 0) {
+			final File recordFile = recordFilechooser.showSaveDialog(((Node) event.getSource()).getScene().getWindow());
+			final ExtensionFilter recordFormat = recordFilechooser.getSelectedExtensionFilter();
+			if (recordFile != null) {
+				if (recordFormat == pngSequenceRecordingFormat && recordFile.exists() && ! (recordFile.isDirectory() && recordFile.list().length == 0)) {
 					final Alert errorWindow = new Alert(Alert.AlertType.ERROR, "The selected directory is not empty. Halting recording.", javafx.scene.control.ButtonType.OK);
 					errorWindow.initOwner(node.getScene().getWindow());
 					errorWindow.setTitle(((Stage) node.getScene().getWindow()).getTitle());
@@ -389,14 +405,13 @@ public void handle(ActionEvent event) {
 					playButtonEvent.handle(null);
 					// playButtonEvent.handle has side effects that result in snapNode
 					// existing and animationProperty becoming non-null
-					animationProperty.get().setRate(0.0);
+					animationProperty.get().stop();
+					final SeekIndex seekIndex = new SeekIndex(animationProperty.get());
 					final Node snapNode = findSnapNode();
 					
-					final Duration animDur = animationProperty.get().getTotalDuration();
 					final Duration frameRate = Duration.seconds(1d / 30d);
-					final int frames = (int) (animDur.toMillis() / frameRate.toMillis());
 					
-					final Exception[] imageioWriteException = new Exception[1];
+					final AtomicReference<Exception> imageioWriteException = new AtomicReference<>(null);
 					
 					// javafx.concurrent.Task is interesting, but Task#cancel does nothing
 					// and I don't use any other feature
@@ -407,62 +422,32 @@ public void handle(ActionEvent event) {
 									// by letting the node render at an arbitrary time
 									// use that size in the SnapshotParameters to ensure that every frame has the same dimensions
 									// the 1-pixel trim in the viewport is to exclude a one-pixel transparent border that seems to be included otherwise
-								try {
-									runLaterAndAwait(() -> {
-										animationProperty.get().jumpTo(Duration.ZERO);
-									});
-								} catch (InterruptedException ex) {
-									imageioWriteException[0] = ex;
-								}
+								runLaterAndAwait(() -> {
+									seekIndex.seek(Duration.ZERO);
+								});
 								final javafx.geometry.Bounds bounds1 = snapNode.getBoundsInParent();
 								final javafx.geometry.Rectangle2D bounds2 = new javafx.geometry.Rectangle2D(bounds1.getMinX() + 1, bounds1.getMinY() + 1, bounds1.getWidth() - 2, bounds1.getHeight() - 2);
+								final FrameCapture capture = new FrameCapture(snapNode, bounds2, 1);
 								
-								
-								// Render each frame and write it to disk
-								for (int i = 0; i < frames; i++) {
-									final int i2 = i;
-									if (recordingTaskCanceledProperty.get()) {
-										break;
-									}
-									if (imageioWriteException[0] != null) {
-										break;
-									}
-									
-									try {
-										runLaterAndAwait(() -> {
-											final Duration jumpToDur = frameRate.multiply(i2);
-											animationProperty.get().jumpTo(jumpToDur);
-										});
-									} catch (InterruptedException ex) {
-										imageioWriteException[0] = ex;
-										break;
-									}
-									
-									try {
-										runLaterAndAwait(() -> {
-											try {
-												final SnapshotParameters parameters = new SnapshotParameters();
-												parameters.setFill(Color.TRANSPARENT);
-												parameters.setViewport(bounds2);
-												final WritableImage snapshot = snapNode.snapshot(parameters, null);
-												final BufferedImage snapshotSwing = SwingFXUtils.fromFXImage(snapshot, null);
-												final File snapshotFile = new File(recordDir, String.format("%04d", i2) + ".png");
-												
-												ImageIO.write(snapshotSwing, "png", snapshotFile);
-											} catch (IOException ex) {
-												imageioWriteException[0] = ex;
-											}
-										});
-									} catch (InterruptedException ex) {
-										imageioWriteException[0] = ex;
-										break;
-									}
+								try (RecordingWriter writer = openRecordingWriter(recordFile, recordFormat, capture.getWidth(), capture.getHeight(), frameRate)) {
+									AnimationRecorder.record(seekIndex, capture, frameRate, writer, recordingTaskCanceledProperty::get);
 								}
+							} catch (IOException | InterruptedException ex) {
+								imageioWriteException.compareAndSet(null, ex);
 							} finally {
 								Platform.runLater(() -> {
-									animationProperty.get().setRate(1);
+									seekIndex.close();
 									java.util.Optional.ofNullable(animationProperty.get().getOnFinished()).ifPresent(x -> x.handle(null));
 									recordingTaskProperty.setValue(null);
+									
+									// the recording runs on another thread, so failures can only be reported once it finishes
+									if (imageioWriteException.get() != null) {
+										final Alert errorWindow = new Alert(Alert.AlertType.ERROR, imageioWriteException.get().getMessage(), javafx.scene.control.ButtonType.OK);
+										errorWindow.initOwner(node.getScene().getWindow());
+										errorWindow.setTitle(((Stage) node.getScene().getWindow()).getTitle());
+										errorWindow.setHeaderText("Could not record");
+										errorWindow.show();
+									}
 								});
 							}
 						}
@@ -471,19 +456,25 @@ public void handle(ActionEvent event) {
 					final Thread t = new Thread(recordingTaskProperty.get(), "FightStageRecorder");
 					t.setDaemon(false);
 					t.start();
-					
-					if (imageioWriteException[0] != null) {
-						final Alert errorWindow = new Alert(Alert.AlertType.ERROR, imageioWriteException[0].getMessage(), javafx.scene.control.ButtonType.OK);
-						errorWindow.initOwner(node.getScene().getWindow());
-						errorWindow.setTitle(((Stage) node.getScene().getWindow()).getTitle());
-						errorWindow.setHeaderText("Could not record");
-						errorWindow.showAndWait();
-					}
 				}
 			}
 		}
 	}
 	
+	/**
+	 * Opens a writer that writes a recording to the specified file in the specified format
+	 * @param format one of the recording formats in recordFilechooser
+	 */
+	private RecordingWriter openRecordingWriter(File file, ExtensionFilter format, int width, int height, Duration frameRate) throws IOException {
+		if (format == gifRecordingFormat) {
+			return new GifWriter(file, frameRate, gifDelayUnit);
+		} else if (format == pngSequenceRecordingFormat) {
+			return new PngSequenceWriter(file);
+		} else {
+			return new AnimatedPngWriter(file, width, height, frameRate, apngDelayUnit);
+		}
+	}
+	
 	private Node findSnapNode() {
 		final List<Node> gamePaneChilds = snapContainer.getChildrenUnmodifiable();
 		final Node animNode = (gamePaneChilds.size() >= 1 ? gamePaneChilds.get(gamePaneChilds.size() - 1) : new Text("placeholder"));
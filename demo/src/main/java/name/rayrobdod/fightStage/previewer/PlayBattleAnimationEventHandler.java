@@ -16,6 +16,7 @@
 package name.rayrobdod.fightStage.previewer;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.DoubleSupplier;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
@@ -30,6 +31,7 @@
 import javafx.scene.shape.Circle;
 
 import name.rayrobdod.fightStage.AggregateSideParams;
+import name.rayrobdod.fightStage.BackgroundCache;
 import name.rayrobdod.fightStage.BattleAnimation;
 import name.rayrobdod.fightStage.NodeAnimationPair;
 import name.rayrobdod.fightStage.SpellAnimationGroup;
@@ -53,6 +55,8 @@ final class PlayBattleAnimationEventHandler implements EventHandler<ActionEvent>
 	private final IntSupplier rightMaximumHp;
 	private final Supplier<List<Strike>> strikes;
 	private final DoubleSupplier distance;
+	/** Reuses the background while the game pane's size is unchanged */
+	private final BackgroundCache<String> backgrounds;
 	
 	public PlayBattleAnimationEventHandler(
 		  StackPane gamePane
@@ -80,11 +84,12 @@ public PlayBattleAnimationEventHandler(
 		this.rightMaximumHp = rightMaximumHp;
 		this.strikes = strikes;
 		this.distance = distance;
+		this.backgrounds = new BackgroundCache<>(x -> Field::buildGroup, false, 1);
 	}
 	
 	public void handle(ActionEvent e) {
 		final NodeAnimationPair pair = BattleAnimation.buildAnimation(
-			Field::buildGroup,
+			backgrounds.forTerrain("Field"),
 			new Dimension2D(gamePane.getWidth(), gamePane.getHeight()),
 			this.distance.getAsDouble(),
 			new AggregateSideParams(
@@ -97,7 +102,11 @@ public void handle(ActionEvent e) {
 				"ABCDEFGHIJKL", "ABCDEFGHIJKLMNOP", new Circle(10),
 				rightMaximumHp.getAsInt(), rightStartingHp.getAsInt()
 			),
-			strikes.get()
+			strikes.get(),
+			null,
+			ThreadLocalRandom.current().nextLong(),
+			// the game pane is in a resizable window
+			true
 		);
 		
 		if (currentAnimationProperty.getValue() != null) {
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Writes each frame to its own PNG file, named after the frame's index, in a directory
+ */
+final class PngSequenceWriter implements RecordingWriter {
+	private final File directory;
+	
+	/**
+	 * @param directory the directory to write to. Created if it does not exist.
+	 */
+	public PngSequenceWriter(File directory) throws IOException {
+		if (! directory.isDirectory() && ! directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		this.directory = directory;
+	}
+	
+	@Override
+	public void write(int index, BufferedImage frame) throws IOException {
+		final File frameFile = new File(directory, String.format("%04d", index) + ".png");
+		ImageIO.write(frame, "png", frameFile);
+	}
+	
+	@Override
+	public boolean acceptsFramesOutOfOrder() { return true; }
+	
+	@Override
+	public void close() {}
+}
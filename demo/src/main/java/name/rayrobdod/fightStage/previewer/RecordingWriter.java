@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A destination for the frames of a recording
+ */
+interface RecordingWriter extends Closeable {
+	/**
+	 * Writes a frame
+	 * @param index the frame's index, starting at zero
+	 * @param frame the frame
+	 */
+	public void write(int index, BufferedImage frame) throws IOException;
+	
+	/**
+	 * Whether frames may be written from multiple threads at once and in any order.
+	 * If false, frames must be written one at a time, in order.
+	 */
+	public default boolean acceptsFramesOutOfOrder() { return false; }
+}
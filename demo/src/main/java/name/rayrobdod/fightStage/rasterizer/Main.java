@@ -18,10 +18,14 @@
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,8 +42,7 @@
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
-import javafx.scene.SnapshotParameters;
-import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
@@ -50,6 +53,7 @@
 
 import name.rayrobdod.fightStage.Animations;
 import name.rayrobdod.fightStage.BattlePanAnimations;
+import name.rayrobdod.fightStage.FrameCapture;
 import name.rayrobdod.fightStage.ShakeAnimationBiFunction;
 import name.rayrobdod.fightStage.SpellAnimationGroup;
 import name.rayrobdod.fightStage.UnitAnimationGroup;
@@ -59,6 +63,10 @@
 
 /**
  * Converts an animation in the fxstage format to something in femp's format
+ * <p>
+ * Each layer's manifest is printed and also written next to its sprite sheet,
+ * where {@link name.rayrobdod.fightStage.SpriteSheetSpellAnimationGroup#load}
+ * can read it.
  */
 public final class Main extends Application {
 	
@@ -107,23 +115,28 @@ public void start(Stage stage) {
 				final Node canvasFront = new Group(forceThingsToStayInPlaceNode(canvasSize), spell.objectFrontLayer());
 				final Node canvasBackground = new Group(forceThingsToStayInPlaceNode(canvasSize), spell.backgroundLayer());
 				final Animation anim = spell.getAnimation(origin, target, BattlePanAnimations.nil(), new MockShakeAnimationBiFunction(), Animations.nil());
+				final Point2D canvasOrigin = spell.objectFrontLayer().localToParent(origin);
+				final Point2D canvasTarget = spell.objectFrontLayer().localToParent(target);
 				
 				final Thread runner = new Thread(
 					() -> {
 						try {
 							render(
 								canvasBehind, anim,
-								canvasSize, frameRate, bitDepth, outputFileStr + "_behind.png"
+								canvasSize, frameRate, bitDepth, outputFileStr + "_behind.png",
+								canvasOrigin, canvasTarget, scale.getX()
 							);
 							
 							render(
 								canvasFront, anim,
-								canvasSize, frameRate, bitDepth, outputFileStr + "_front.png"
+								canvasSize, frameRate, bitDepth, outputFileStr + "_front.png",
+								canvasOrigin, canvasTarget, scale.getX()
 							);
 							
 							render(
 								canvasBackground, anim,
-								canvasSize, frameRate, bitDepth, outputFileStr + "_background.png"
+								canvasSize, frameRate, bitDepth, outputFileStr + "_background.png",
+								canvasOrigin, canvasTarget, scale.getX()
 							);
 							
 						} catch (InterruptedException ex) {
@@ -171,21 +184,6 @@ public static void main(String[] args) {
 		}
 	}
 	
-	/**
-	 * Runs the given action on the JavaFX thread, and waits for it to be called
-	 * and any subsequent rendering events to occur before returning control to the caller.
-	 * 
-	 * MUST NOT be called on the JavaFX application thread
-	 */
-	private static void runLaterAndAwait(Runnable action) throws InterruptedException {
-		final CountDownLatch latch = new CountDownLatch(1);
-		Platform.runLater(() -> {
-			action.run();
-			Platform.runLater(() -> latch.countDown());
-		});
-		latch.await();
-	}
-	
 	private static void setSmoothRecursive(Node n, boolean newValue) {
 		if (n instanceof javafx.scene.Parent) {
 			((javafx.scene.Parent) n).getChildrenUnmodifiable().forEach(child ->
@@ -222,104 +220,128 @@ private static Node forceThingsToStayInPlaceNode(java.awt.Dimension canvasSize)
 	 */
 	private static void render(
 		Node canvas, Animation anim,
-		java.awt.Dimension canvasSize, Duration frameRate, int bitDepth, String outputFileStr
+		java.awt.Dimension canvasSize, Duration frameRate, int bitDepth, String outputFileStr,
+		Point2D canvasOrigin, Point2D canvasTarget, double scale
 	) throws InterruptedException, IOException {
 		anim.setRate(0.001);
 		anim.play();
 		final int frameCount = (int) (anim.getTotalDuration().toMillis() / frameRate.toMillis());
 		
-		final Image frames[] = new Image[frameCount];
-		// generate each frame
-		for (int i = 0; i < frameCount; i++) {
-			final int i2 = i;
-			
-			runLaterAndAwait(() -> {
-				final Duration jumpToDur = frameRate.multiply(i2);
-				anim.jumpTo(jumpToDur);
-			});
-			runLaterAndAwait(() -> {
-				final SnapshotParameters parameters = new SnapshotParameters();
-				parameters.setFill(Color.TRANSPARENT);
-				parameters.setViewport(new Rectangle2D(0,0, canvasSize.getWidth(), canvasSize.getHeight()));
-				final WritableImage snapshot = canvas.snapshot(parameters, null);
-				frames[i2] = snapshot;
-			});
-		}
-		
-		// trim the frame's whitespace
-		final java.awt.Rectangle trimmedBounds = new java.awt.Rectangle(80, 110, 0, 0);
-		for (int k = 0; k < frameCount; k++)
-		for (int i = 0; i < canvasSize.getWidth(); i++)
-		for (int j = 0; j < canvasSize.getHeight(); j++) {
-			if (0 != frames[k].getPixelReader().getArgb(i, j)) {
-				trimmedBounds.add(i, j);
-				trimmedBounds.add(i + 1, j + 1);
-			}
-		}
-		
-		if (trimmedBounds.width != 0) {
-			// Compose frames
-			final int columns = (int) Math.ceil(Math.sqrt( frames.length * trimmedBounds.height / trimmedBounds.width ));
-			final int rows = (int) Math.ceil( ((float) frames.length) / columns );
-			WritableImage sheet = new WritableImage(trimmedBounds.width * columns, trimmedBounds.height * rows);
-			
+		final int canvasWidth = (int) canvasSize.getWidth();
+		final int canvasHeight = (int) canvasSize.getHeight();
+		final FrameCapture capture = new FrameCapture(canvas, new Rectangle2D(0, 0, canvasWidth, canvasHeight), 2);
+		// the frames are kept off-heap, so that long animations don't run out of memory
+		try (MappedFrameStore frames = new MappedFrameStore(canvasWidth, canvasHeight, frameCount)) {
+			// generate each frame, and find each frame's non-whitespace area
+			// the frames are scanned in the fork/join pool while the following frames are captured
+			final List<ForkJoinTask<java.awt.Rectangle>> frameBounds = new java.util.ArrayList<>(frameCount);
 			for (int i = 0; i < frameCount; i++) {
-				final int xtile = i % columns;
-				final int ytile = i / columns;
-				final int x = xtile * trimmedBounds.width;
-				final int y = ytile * trimmedBounds.height;
+				final int i2 = i;
 				
-				sheet.getPixelWriter().setPixels(
-					x, y,
-					trimmedBounds.width, trimmedBounds.height,
-					frames[i].getPixelReader(),
-					trimmedBounds.x, trimmedBounds.y
-				);
+				capture.captureArgb(() -> {
+					final Duration jumpToDur = frameRate.multiply(i2);
+					anim.jumpTo(jumpToDur);
+				}, frames.frame(i));
+				frameBounds.add(ForkJoinPool.commonPool().submit(() -> frames.nonTransparentBounds(i2)));
 			}
 			
-			// Quantize image to fit in the specified bit depth
-			if (bitDepth > 0) {
-				final Set<Color> quantizePallette = QuantizePallette.apply(sheet, bitDepth);
-				sheet = new WritableImage(
-					new QuantizingPixelReader(sheet.getPixelReader(), QuantizePallette.apply(sheet, bitDepth)),
-					// new TruncatingPixelReader(sheet.getPixelReader()),
-					trimmedBounds.width * columns,
-					trimmedBounds.height * rows
-				);
+			// trim the frames' whitespace
+			final java.awt.Rectangle trimmedBounds = new java.awt.Rectangle(80, 110, 0, 0);
+			for (ForkJoinTask<java.awt.Rectangle> frameBound : frameBounds) {
+				final java.awt.Rectangle bound = frameBound.join();
+				if (null != bound) {
+					trimmedBounds.add(bound);
+				}
 			}
 			
-			// find hitFrame
-			List<FindMockShakeAnimationStartTimesResult> shakeTimes = findMockShakeAnimationStartTimes(anim).collect(Collectors.toList());
-			final String hitFramesStr = shakeTimes.stream().map(x -> (int) (x.startTime.toMillis() / frameRate.toMillis())).map(x -> "" + x).collect(Collectors.joining(", ", "[", "]"));
-			final String shakeFramesStr = shakeTimes.stream().map(x -> (int) (x.duration.toMillis() / frameRate.toMillis()) * 2 / 3).map(x -> "" + x).collect(valueIfAllEqual()).orElse("TODO");
-			final String shakeIntensityStr = shakeTimes.stream().map(x -> (int) (x.intensity / 2)).map(x -> "" + x).collect(valueIfAllEqual()).orElse("TODO");
-			
-			// Output file to disk
-			final BufferedImage sheetSwing = SwingFXUtils.fromFXImage(sheet, null);
-			final File outputFile = new File(outputFileStr);
-			
-			ImageIO.write(sheetSwing, "png", outputFile);
-			System.out.println("{");
-			System.out.println("\t\"name\": \"" + outputFile.getName() + "\",");
-			System.out.println("\t\"path\": \"res/battle_anim/" + outputFile.getName() + "\",");
-			System.out.println("\t\"frames\": " + frameCount + ",");
-			System.out.println("\t\"width\": " + trimmedBounds.width + ",");
-			System.out.println("\t\"height\": " + trimmedBounds.height + ",");
-			System.out.println("\t\"columns\": " + columns + ",");
-			System.out.println("\t\"offsetX\": " + (84 - trimmedBounds.x) + ",");
-			System.out.println("\t\"offsetY\": " + (120 - trimmedBounds.y) + ",");
-			System.out.println("\t\"speed\": " + frameRate.toSeconds() + ",");
-			System.out.println("\t\"freeze\": -1" + ",");
-			System.out.println("\t\"hitframes\": " + hitFramesStr + ",");
-			System.out.println("\t\"shakeFrames\": " + shakeFramesStr + ",");
-			System.out.println("\t\"shakeIntensity\": " + shakeIntensityStr + ",");
-			System.out.println("\t\"soundMap\": TODO");
-			System.out.println("}");
-		} else {
-			System.out.println("No image produced for " + outputFileStr);
+			if (trimmedBounds.width != 0) {
+				// Compose frames
+				final int columns = (int) Math.ceil(Math.sqrt( frameCount * trimmedBounds.height / trimmedBounds.width ));
+				final int rows = (int) Math.ceil( ((float) frameCount) / columns );
+				WritableImage sheet = new WritableImage(trimmedBounds.width * columns, trimmedBounds.height * rows);
+				
+				for (int i = 0; i < frameCount; i++) {
+					final int xtile = i % columns;
+					final int ytile = i / columns;
+					final int x = xtile * trimmedBounds.width;
+					final int y = ytile * trimmedBounds.height;
+					
+					sheet.getPixelWriter().setPixels(
+						x, y,
+						trimmedBounds.width, trimmedBounds.height,
+						PixelFormat.getIntArgbInstance(),
+						(IntBuffer) frames.frame(i).position(trimmedBounds.y * canvasWidth + trimmedBounds.x),
+						canvasWidth
+					);
+				}
+				
+				// Quantize image to fit in the specified bit depth
+				if (bitDepth > 0) {
+					final Set<Color> quantizePallette = QuantizePallette.apply(sheet, bitDepth);
+					sheet = new WritableImage(
+						new QuantizingPixelReader(sheet.getPixelReader(), QuantizePallette.apply(sheet, bitDepth)),
+						// new TruncatingPixelReader(sheet.getPixelReader()),
+						trimmedBounds.width * columns,
+						trimmedBounds.height * rows
+					);
+				}
+				
+				// find hitFrame
+				List<FindMockShakeAnimationStartTimesResult> shakeTimes = findMockShakeAnimationStartTimes(anim).collect(Collectors.toList());
+				final String hitFramesStr = shakeTimes.stream().map(x -> (int) (x.startTime.toMillis() / frameRate.toMillis())).map(x -> "" + x).collect(Collectors.joining(", ", "[", "]"));
+				final String shakeFramesStr = shakeTimes.stream().map(x -> (int) (x.duration.toMillis() / frameRate.toMillis()) * 2 / 3).map(x -> "" + x).collect(valueIfAllEqual()).orElse("null");
+				final String shakeIntensityStr = shakeTimes.stream().map(x -> (int) (x.intensity / 2)).map(x -> "" + x).collect(valueIfAllEqual()).orElse("null");
+				
+				// Output file to disk
+				final BufferedImage sheetSwing = SwingFXUtils.fromFXImage(sheet, null);
+				final File outputFile = new File(outputFileStr);
+				
+				ImageIO.write(sheetSwing, "png", outputFile);
+				// the name through soundMap are in femp's format; the remainder are used by SpriteSheetSpellAnimationGroup
+				final String manifest = String.join(System.lineSeparator(),
+					"{",
+					"\t\"name\": \"" + outputFile.getName() + "\",",
+					"\t\"path\": \"res/battle_anim/" + outputFile.getName() + "\",",
+					"\t\"frames\": " + frameCount + ",",
+					"\t\"width\": " + trimmedBounds.width + ",",
+					"\t\"height\": " + trimmedBounds.height + ",",
+					"\t\"columns\": " + columns + ",",
+					"\t\"offsetX\": " + (84 - trimmedBounds.x) + ",",
+					"\t\"offsetY\": " + (120 - trimmedBounds.y) + ",",
+					"\t\"speed\": " + frameRate.toSeconds() + ",",
+					"\t\"freeze\": -1" + ",",
+					"\t\"hitframes\": " + hitFramesStr + ",",
+					"\t\"shakeFrames\": " + shakeFramesStr + ",",
+					"\t\"shakeIntensity\": " + shakeIntensityStr + ",",
+					"\t\"soundMap\": {},",
+					"\t\"canvasWidth\": " + canvasSize.getWidth() + ",",
+					"\t\"canvasHeight\": " + canvasSize.getHeight() + ",",
+					"\t\"x\": " + trimmedBounds.x + ",",
+					"\t\"y\": " + trimmedBounds.y + ",",
+					"\t\"originX\": " + canvasOrigin.getX() + ",",
+					"\t\"originY\": " + canvasOrigin.getY() + ",",
+					"\t\"targetX\": " + canvasTarget.getX() + ",",
+					"\t\"targetY\": " + canvasTarget.getY() + ",",
+					"\t\"scale\": " + scale,
+					"}"
+				);
+				System.out.println(manifest);
+				Files.write(manifestPath(outputFile).toPath(), manifest.getBytes(StandardCharsets.UTF_8));
+			} else {
+				System.out.println("No image produced for " + outputFileStr);
+			}
 		}
 	}
 	
+	/**
+	 * The file that a sheet's manifest is written to: the sheet's file with a `.json` extension instead of `.png`
+	 */
+	private static File manifestPath(File sheet) {
+		final String name = sheet.getName();
+		final String baseName = (name.endsWith(".png") ? name.substring(0, name.length() - 4) : name);
+		return new File(sheet.getParentFile(), baseName + ".json");
+	}
+	
 	/* * * * * * * * Shake Animation Mocking * * * * * * * * */
 	/**
 	 * Finds the start time and values of any `MockShakeAnimation`s nested inside the haystack
@@ -376,7 +398,7 @@ private static class MockShakeAnimation extends javafx.animation.Transition {
 		protected void interpolate(double frac) {}
 	}
 	private static class MockShakeAnimationBiFunction implements ShakeAnimationBiFunction {
-		// copied from the equally-private BattleAnimation.ShakeAnimationFactory
+		// copied from the equally-private BattleStage.ShakeAnimationFactory
 		private static final double DEFAULT_INTENSITY = 6;
 		private static final Duration DEFAULT_DURATION = Duration.millis(160);
 		
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.rasterizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Holds the pixels of a sequence of equally-sized frames in a memory-mapped
+ * temporary file, rather than on the heap, so that the memory a rasterization
+ * needs does not depend on the number of frames.
+ * <p>
+ * Each frame is a run of non-premultiplied ARGB ints, row by row, accessed
+ * through an IntBuffer view of the mapping. Separate views may be used from
+ * separate threads, provided that a frame is not read while it is being written.
+ */
+final class MappedFrameStore implements AutoCloseable {
+	/** the largest number of bytes mapped at once */
+	private static final long maxSegmentSize = 1 << 30;
+	
+	private final int width;
+	private final int height;
+	private final int frameCount;
+	private final int framesPerSegment;
+	private final File file;
+	private final RandomAccessFile raf;
+	private final MappedByteBuffer[] segments;
+	
+	/**
+	 * @param width the width of each frame
+	 * @param height the height of each frame
+	 * @param frameCount the number of frames
+	 */
+	public MappedFrameStore(int width, int height, int frameCount) throws IOException {
+		this.width = width;
+		this.height = height;
+		this.frameCount = frameCount;
+		final long frameSize = 4L * width * height;
+		this.framesPerSegment = (int) Math.max(1, maxSegmentSize / Math.max(1, frameSize));
+		this.file = File.createTempFile("rasterizer", ".argb");
+		this.file.deleteOnExit();
+		this.raf = new RandomAccessFile(this.file, "rw");
+		
+		final int segmentCount = (frameCount + this.framesPerSegment - 1) / this.framesPerSegment;
+		this.segments = new MappedByteBuffer[segmentCount];
+		final FileChannel channel = this.raf.getChannel();
+		for (int i = 0; i < segmentCount; i++) {
+			final int framesInSegment = Math.min(this.framesPerSegment, frameCount - i * this.framesPerSegment);
+			this.segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * this.framesPerSegment * frameSize, framesInSegment * frameSize);
+			this.segments[i].order(ByteOrder.nativeOrder());
+		}
+	}
+	
+	public int getWidth() { return this.width; }
+	public int getHeight() { return this.height; }
+	public int getFrameCount() { return this.frameCount; }
+	
+	/**
+	 * Returns a view of the specified frame's pixels. The view's position is
+	 * zero, and its capacity is {@code width * height}.
+	 */
+	public IntBuffer frame(int index) {
+		if (index < 0 || index >= this.frameCount) {
+			throw new IndexOutOfBoundsException("frame " + index + " out of bounds for frame count " + this.frameCount);
+		}
+		final int frameSize = this.width * this.height;
+		final IntBuffer segment = this.segments[index / this.framesPerSegment].asIntBuffer();
+		final int start = (index % this.framesPerSegment) * frameSize;
+		segment.position(start);
+		segment.limit(start + frameSize);
+		return segment.slice();
+	}
+	
+	/**
+	 * Returns the smallest rectangle containing every pixel of the specified
+	 * frame that is not fully transparent black, or null if there is no such pixel
+	 */
+	public java.awt.Rectangle nonTransparentBounds(int index) {
+		final IntBuffer frame = this.frame(index);
+		final int[] row = new int[this.width];
+		int minX = this.width;
+		int minY = this.height;
+		int maxX = -1;
+		int maxY = -1;
+		for (int y = 0; y < this.height; y++) {
+			frame.get(row);
+			int rowMinX = 0;
+			while (rowMinX < this.width && 0 == row[rowMinX]) {
+				rowMinX++;
+			}
+			if (rowMinX < this.width) {
+				int rowMaxX = this.width - 1;
+				while (0 == row[rowMaxX]) {
+					rowMaxX--;
+				}
+				minX = Math.min(minX, rowMinX);
+				maxX = Math.max(maxX, rowMaxX);
+				minY = Math.min(minY, y);
+				maxY = y;
+			}
+		}
+		return (maxY < 0 ? null : new java.awt.Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1));
+	}
+	
+	/** Releases the temporary file */
+	@Override
+	public void close() throws IOException {
+		this.raf.close();
+		// a file can't be deleted while it is mapped on some platforms; in that case, it is left for deleteOnExit
+		this.file.delete();
+	}
+}
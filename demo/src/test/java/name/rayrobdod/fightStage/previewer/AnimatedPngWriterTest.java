@@ -0,0 +1,169 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class AnimatedPngWriterTest {
+	
+	@Test
+	public void close_chunksAreInOrderWithValidChecksums() throws IOException {
+		final File file = tempFile();
+		try (AnimatedPngWriter dut = new AnimatedPngWriter(file, 4, 3, Duration.millis(50), Duration.millis(10))) {
+			dut.write(0, solid(4, 3, 0xFFFF0000));
+			dut.write(1, solid(4, 3, 0x8000FF00));
+			dut.write(2, solid(4, 3, 0x00000000));
+		}
+		final List<Chunk> chunks = readChunks(file);
+		
+		Assertions.assertEquals(
+			Arrays.asList("IHDR", "acTL", "fcTL", "IDAT", "fcTL", "fdAT", "fcTL", "fdAT", "IEND"),
+			chunks.stream().map(x -> x.type).collect(java.util.stream.Collectors.toList())
+		);
+		for (Chunk chunk : chunks) {
+			Assertions.assertTrue(chunk.crcMatches, chunk.type);
+		}
+	}
+	
+	@Test
+	public void close_fillsInFrameCountAndDelays() throws IOException {
+		final File file = tempFile();
+		try (AnimatedPngWriter dut = new AnimatedPngWriter(file, 4, 3, Duration.seconds(1d / 30d), Duration.millis(10))) {
+			dut.write(0, solid(4, 3, 0xFFFF0000));
+			dut.write(1, solid(4, 3, 0xFF00FF00));
+		}
+		final List<Chunk> chunks = readChunks(file);
+		
+		final DataInputStream actl = chunks.get(1).dataStream();
+		Assertions.assertEquals(2, actl.readInt());
+		Assertions.assertEquals(0, actl.readInt());
+		
+		final DataInputStream fctl1 = chunks.get(2).dataStream();
+		fctl1.skipBytes(20);
+		Assertions.assertEquals(3, fctl1.readUnsignedShort());
+		Assertions.assertEquals(100, fctl1.readUnsignedShort());
+		final DataInputStream fctl2 = chunks.get(4).dataStream();
+		fctl2.skipBytes(20);
+		Assertions.assertEquals(4, fctl2.readUnsignedShort());
+		Assertions.assertEquals(100, fctl2.readUnsignedShort());
+	}
+	
+	@Test
+	public void close_firstFrameIsReadableAsAPng() throws IOException {
+		final File file = tempFile();
+		try (AnimatedPngWriter dut = new AnimatedPngWriter(file, 5, 3, Duration.millis(50), Duration.millis(10))) {
+			final BufferedImage frame = solid(5, 3, 0xFF0000FF);
+			frame.setRGB(2, 1, 0x80FF8000);
+			dut.write(0, frame);
+			dut.write(1, solid(5, 3, 0xFFFF0000));
+		}
+		final BufferedImage read = ImageIO.read(file);
+		
+		Assertions.assertEquals(5, read.getWidth());
+		Assertions.assertEquals(3, read.getHeight());
+		Assertions.assertEquals(0xFF0000FF, read.getRGB(0, 0));
+		Assertions.assertEquals(0x80FF8000, read.getRGB(2, 1));
+		Assertions.assertEquals(0xFF0000FF, read.getRGB(4, 2));
+	}
+	
+	@Test
+	public void close_noFrames_writesOneFrame() throws IOException {
+		final File file = tempFile();
+		new AnimatedPngWriter(file, 4, 3, Duration.millis(50), Duration.millis(10)).close();
+		final List<Chunk> chunks = readChunks(file);
+		
+		Assertions.assertEquals(1, chunks.get(1).dataStream().readInt());
+		Assertions.assertEquals(0, ImageIO.read(file).getRGB(0, 0));
+	}
+	
+	@Test
+	public void write_wrongSize_throws() throws IOException {
+		final File file = tempFile();
+		try (AnimatedPngWriter dut = new AnimatedPngWriter(file, 4, 3, Duration.millis(50), Duration.millis(10))) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> dut.write(0, solid(3, 4, 0)));
+		}
+	}
+	
+	
+	private static File tempFile() throws IOException {
+		final File retval = File.createTempFile("AnimatedPngWriterTest", ".png");
+		retval.deleteOnExit();
+		return retval;
+	}
+	
+	private static BufferedImage solid(int width, int height, int argb) {
+		final BufferedImage retval = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				retval.setRGB(x, y, argb);
+			}
+		}
+		return retval;
+	}
+	
+	private static List<Chunk> readChunks(File file) throws IOException {
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())));
+		in.skipBytes(8);
+		final List<Chunk> retval = new ArrayList<>();
+		while (in.available() > 0) {
+			final int length = in.readInt();
+			final byte[] type = new byte[4];
+			in.readFully(type);
+			final byte[] data = new byte[length];
+			in.readFully(data);
+			final int crc = in.readInt();
+			
+			final CRC32 expectedCrc = new CRC32();
+			expectedCrc.update(type);
+			expectedCrc.update(data);
+			retval.add(new Chunk(new String(type, StandardCharsets.US_ASCII), data, crc == (int) expectedCrc.getValue()));
+		}
+		return retval;
+	}
+	
+	private static final class Chunk {
+		public final String type;
+		public final byte[] data;
+		public final boolean crcMatches;
+		
+		public Chunk(String type, byte[] data, boolean crcMatches) {
+			this.type = type;
+			this.data = data;
+			this.crcMatches = crcMatches;
+		}
+		
+		public DataInputStream dataStream() {
+			return new DataInputStream(new ByteArrayInputStream(this.data));
+		}
+	}
+}
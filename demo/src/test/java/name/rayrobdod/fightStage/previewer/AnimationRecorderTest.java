@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.PauseTransition;
+import javafx.animation.SequentialTransition;
+import javafx.animation.Timeline;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.testfx.framework.junit5.ApplicationExtension;
+
+import name.rayrobdod.fightStage.FrameCapture;
+import name.rayrobdod.fightStage.SeekIndex;
+
+@ExtendWith(ApplicationExtension.class)
+public final class AnimationRecorderTest {
+	
+	@Test
+	public void record_writesOneFramePerFrameRateOfTheIndexedAnimation() throws Exception {
+		final List<Integer> indexes = Collections.synchronizedList(new ArrayList<>());
+		final int written = record(new RecordingWriter() {
+			@Override public void write(int index, BufferedImage frame) {indexes.add(index);}
+			@Override public void close() {}
+		});
+		
+		Assertions.assertEquals(20, written);
+		Assertions.assertEquals(20, indexes.size());
+		for (int i = 0; i < indexes.size(); i++) {
+			Assertions.assertEquals(i, (int) indexes.get(i));
+		}
+	}
+	
+	@Test
+	public void record_outOfOrderWriter_writesEveryFrame() throws Exception {
+		final List<Integer> indexes = Collections.synchronizedList(new ArrayList<>());
+		final int written = record(new RecordingWriter() {
+			@Override public void write(int index, BufferedImage frame) {indexes.add(index);}
+			@Override public boolean acceptsFramesOutOfOrder() {return true;}
+			@Override public void close() {}
+		});
+		
+		Assertions.assertEquals(20, written);
+		Collections.sort(indexes);
+		for (int i = 0; i < 20; i++) {
+			Assertions.assertEquals(i, (int) indexes.get(i));
+		}
+	}
+	
+	@Test
+	public void record_writerFails_throwsWriterException() {
+		final IOException failure = new IOException("disk full");
+		final IOException thrown = Assertions.assertThrows(IOException.class, () -> record(new RecordingWriter() {
+			@Override public void write(int index, BufferedImage frame) throws IOException {throw failure;}
+			@Override public void close() {}
+		}));
+		Assertions.assertSame(failure, thrown);
+	}
+	
+	@Test
+	public void record_writerFailsOnLastFrame_throwsWriterException() {
+		final IOException failure = new IOException("disk full");
+		final IOException thrown = Assertions.assertThrows(IOException.class, () -> record(new RecordingWriter() {
+			@Override public void write(int index, BufferedImage frame) throws IOException {
+				if (index == 19) {
+					try {
+						Thread.sleep(100);
+					} catch (InterruptedException ex) {
+						throw new IOException(ex);
+					}
+					throw failure;
+				}
+			}
+			@Override public void close() {}
+		}));
+		Assertions.assertSame(failure, thrown);
+	}
+	
+	
+	/** Records a two-second animation at ten frames per second */
+	private static int record(RecordingWriter writer) throws IOException, InterruptedException {
+		final Rectangle rect = new Rectangle(10, 10, Color.RED);
+		final Group node = new Group(rect);
+		final SequentialTransition anim = new SequentialTransition(
+			new Timeline(new KeyFrame(Duration.seconds(1), new KeyValue(rect.translateXProperty(), 10))),
+			new PauseTransition(Duration.seconds(1))
+		);
+		final SeekIndex seekIndex = new SeekIndex(anim);
+		final FrameCapture capture = new FrameCapture(node, new Rectangle2D(0, 0, 20, 10), 1);
+		return AnimationRecorder.record(seekIndex, capture, Duration.millis(100), writer, () -> false);
+	}
+}
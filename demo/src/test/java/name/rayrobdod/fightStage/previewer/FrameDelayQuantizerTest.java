@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class FrameDelayQuantizerTest {
+	
+	@Test
+	public void next_multipleOfUnit_isConstant() {
+		final FrameDelayQuantizer dut = new FrameDelayQuantizer(Duration.millis(50), Duration.millis(10));
+		for (int i = 0; i < 10; i++) {
+			Assertions.assertEquals(5, dut.next());
+		}
+	}
+	
+	@Test
+	public void next_notMultipleOfUnit_alternatesWithoutDrifting() {
+		final FrameDelayQuantizer dut = new FrameDelayQuantizer(Duration.seconds(1d / 30d), Duration.millis(10));
+		final int[] expected = {3, 4, 3, 3, 4, 3};
+		int total = 0;
+		for (int i = 0; i < expected.length; i++) {
+			final int delay = dut.next();
+			Assertions.assertEquals(expected[i], delay);
+			total += delay;
+		}
+		for (int i = expected.length; i < 30; i++) {
+			total += dut.next();
+		}
+		Assertions.assertEquals(100, total);
+	}
+	
+	@Test
+	public void unitsPerSecond() {
+		Assertions.assertEquals(1000, FrameDelayQuantizer.unitsPerSecond(Duration.millis(1)));
+		Assertions.assertEquals(100, FrameDelayQuantizer.unitsPerSecond(Duration.millis(10)));
+		Assertions.assertEquals(30, FrameDelayQuantizer.unitsPerSecond(Duration.seconds(1d / 30d)));
+	}
+}
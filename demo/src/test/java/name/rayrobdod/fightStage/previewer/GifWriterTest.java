@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.previewer;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+
+import javafx.util.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class GifWriterTest {
+	
+	@Test
+	public void close_fileContainsEveryFrameWithQuantizedDelays() throws IOException {
+		final File file = File.createTempFile("GifWriterTest", ".gif");
+		file.deleteOnExit();
+		try (GifWriter dut = new GifWriter(file, Duration.seconds(1d / 30d), Duration.millis(10))) {
+			dut.write(0, solid(4, 3, 0xFFFF0000));
+			dut.write(1, solid(4, 3, 0xFF00FF00));
+			dut.write(2, solid(4, 3, 0xFF0000FF));
+		}
+		
+		final ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+		try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+			reader.setInput(in);
+			Assertions.assertEquals(3, reader.getNumImages(true));
+			Assertions.assertEquals(0xFF00FF00, reader.read(1).getRGB(2, 1));
+			Assertions.assertEquals("3", delayTime(reader, 0));
+			Assertions.assertEquals("4", delayTime(reader, 1));
+			Assertions.assertEquals("3", delayTime(reader, 2));
+		} finally {
+			reader.dispose();
+		}
+	}
+	
+	@Test
+	public void new_unitFinerThanGifDelays_throws() {
+		Assertions.assertThrows(IllegalArgumentException.class, () ->
+			new GifWriter(new File("unused.gif"), Duration.seconds(1d / 30d), Duration.millis(1))
+		);
+	}
+	
+	
+	private static String delayTime(ImageReader reader, int index) throws IOException {
+		final IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(index).getAsTree("javax_imageio_gif_image_1.0");
+		final IIOMetadataNode graphicControl = (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+		return graphicControl.getAttribute("delayTime");
+	}
+	
+	private static BufferedImage solid(int width, int height, int argb) {
+		final BufferedImage retval = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				retval.setRGB(x, y, argb);
+			}
+		}
+		return retval;
+	}
+}
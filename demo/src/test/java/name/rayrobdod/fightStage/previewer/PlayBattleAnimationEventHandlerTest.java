@@ -16,7 +16,6 @@
 package name.rayrobdod.fightStage.previewer;
 
 import java.util.Collections;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -24,7 +23,6 @@
 import javafx.animation.Animation.Status;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.value.WritableDoubleValue;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -41,6 +39,7 @@
 import name.rayrobdod.fightStage.AttackModifier;
 import name.rayrobdod.fightStage.BattlePanAnimations;
 import name.rayrobdod.fightStage.ConsecutiveAttackDescriptor;
+import name.rayrobdod.fightStage.RolloverState;
 import name.rayrobdod.fightStage.ShakeAnimationBiFunction;
 import name.rayrobdod.fightStage.Side;
 import name.rayrobdod.fightStage.SpellAnimationGroup;
@@ -105,20 +104,20 @@ public void onFinishedBothStopsAndUnsetsThePropertyValue() {
 	private static class NilUnitAnimationGroup implements UnitAnimationGroup {
 		private Node node = new Group();
 		public Node objectBehindLayer() {return node;}
-		public Point2D getSpellTarget(Map<WritableDoubleValue, Double> _1) {return Point2D.ZERO;}
-		public double getCurrentXOffset(Map<WritableDoubleValue, Double> _1) {return 0;}
+		public Point2D getSpellTarget(RolloverState _1) {return Point2D.ZERO;}
+		public double getCurrentXOffset(RolloverState _1) {return 0;}
 		public Animation getAttackAnimation(
 			  Function<Point2D, Animation> spellAnimationFun
-			, Map<WritableDoubleValue, Double> rolloverKeyValues
+			, RolloverState rolloverState
 			, Point2D target
 			, ConsecutiveAttackDescriptor consecutiveAttackDesc
 			, Set<AttackModifier> attackerModifiers
 			, boolean isFinisher
 		) { return Animations.nil(); }
-		public Map<WritableDoubleValue, Double> getInitializingKeyValues(
+		public RolloverState getInitializingRolloverState(
 			  Side side
 			, Point2D initialOffset
-		) {return new java.util.HashMap<>();}
+		) {return new RolloverState(0);}
 	}
 	
 	private static class NilSpellAnimationGroup implements SpellAnimationGroup {
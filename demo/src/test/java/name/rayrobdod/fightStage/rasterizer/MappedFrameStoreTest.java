@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 Raymond Dodge
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package name.rayrobdod.fightStage.rasterizer;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.IntBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public final class MappedFrameStoreTest {
+	
+	@Test
+	public void frame_isIndependentForEachFrame() throws IOException {
+		try (MappedFrameStore dut = new MappedFrameStore(4, 3, 5)) {
+			for (int i = 0; i < 5; i++) {
+				final IntBuffer frame = dut.frame(i);
+				Assertions.assertEquals(12, frame.capacity());
+				for (int j = 0; j < 12; j++) {
+					frame.put(j, i * 100 + j);
+				}
+			}
+			for (int i = 0; i < 5; i++) {
+				final IntBuffer frame = dut.frame(i);
+				for (int j = 0; j < 12; j++) {
+					Assertions.assertEquals(i * 100 + j, frame.get(j));
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void frame_outOfBounds_throws() throws IOException {
+		try (MappedFrameStore dut = new MappedFrameStore(4, 3, 5)) {
+			Assertions.assertThrows(IndexOutOfBoundsException.class, () -> dut.frame(5));
+		}
+	}
+	
+	@Test
+	public void nonTransparentBounds_blankFrame_isNull() throws IOException {
+		try (MappedFrameStore dut = new MappedFrameStore(4, 3, 1)) {
+			Assertions.assertNull(dut.nonTransparentBounds(0));
+		}
+	}
+	
+	@Test
+	public void nonTransparentBounds_containsEachNonTransparentPixel() throws IOException {
+		try (MappedFrameStore dut = new MappedFrameStore(8, 6, 2)) {
+			dut.frame(0).put(2 * 8 + 3, 0xFF000000);
+			dut.frame(1).put(1 * 8 + 6, 0x01000000);
+			dut.frame(1).put(4 * 8 + 2, 0x00000001);
+			Assertions.assertEquals(new Rectangle(3, 2, 1, 1), dut.nonTransparentBounds(0));
+			Assertions.assertEquals(new Rectangle(2, 1, 5, 4), dut.nonTransparentBounds(1));
+		}
+	}
+}
@@ -98,10 +98,21 @@ public Animation getAnimation(
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
 		Animation hitAnimation
+	) {
+		return this.getAnimation(origin, target, panAnimation, shakeAnimation, hitAnimation, new Random());
+	}
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation,
+		Random rng
 	) {
 		final List<Animation> ringAnimations = new java.util.ArrayList<>();
 		for (int i = 0; i < normals.size(); i++) {
-			ringAnimations.add(rings.get(i).animation(normals.get(i), target, ((double) i) / normals.size()));
+			ringAnimations.add(rings.get(i).animation(normals.get(i), target, ((double) i) / normals.size(), rng));
 		}
 		
 		
@@ -145,8 +156,7 @@ public RingOfParticles() {
 			this.backParticles.forEach(x -> x.setFill(headColor));
 		}
 		
-		public Animation animation(Vector3D normal, Point2D target, double offset) {
-			final Random rng = new Random();
+		public Animation animation(Vector3D normal, Point2D target, double offset, Random rng) {
 			
 			final Timeline retval = new Timeline();
 			double radialOffset = 2 * Math.PI * offset;
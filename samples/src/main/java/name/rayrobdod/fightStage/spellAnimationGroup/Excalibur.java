@@ -75,7 +75,14 @@ public final class Excalibur implements SpellAnimationGroup {
 	private final Node frontLayer;
 	
 	public Excalibur() {
-		final Random rng = new Random();
+		this(0);
+	}
+	
+	/**
+	 * @param seed the seed of the noise that the background is generated from
+	 */
+	public Excalibur(long seed) {
+		final Random rng = new Random(seed);
 		this.horizontalNoise = new PerlinNoise(rng);
 		this.verticalNoise = new PerlinNoise(rng);
 		
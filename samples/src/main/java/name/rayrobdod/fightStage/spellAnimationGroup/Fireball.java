@@ -87,6 +87,17 @@ public Animation getAnimation(
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
 		Animation hitAnimation
+	) {
+		return this.getAnimation(origin, target, panAnimation, shakeAnimation, hitAnimation, new Random());
+	}
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation,
+		Random rng
 	) {
 		final Point2D approachVector = target.subtract(origin);
 		final Point2D approachPerTickVector = approachVector.normalize().multiply(speed);
@@ -100,7 +111,8 @@ public Animation getAnimation(
 				approachTickKeyFrames(
 					currentTime,
 					approachParticlePoolIndex,
-					origin.add(currentApproach)
+					origin.add(currentApproach),
+					rng
 				)
 			);
 			
@@ -127,9 +139,9 @@ public Animation getAnimation(
 	private final List<KeyFrame> approachTickKeyFrames(
 		Duration startTime,
 		int approachParticlePoolIndex,
-		Point2D centerPoint
+		Point2D centerPoint,
+		Random rng
 	) {
-		final Random rng = new Random();
 		final List<KeyFrame> retval = new java.util.LinkedList<>();
 		
 		for (int i = 0; i < approachTickParticleCount; i++) {
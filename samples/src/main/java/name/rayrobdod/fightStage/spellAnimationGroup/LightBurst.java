@@ -104,9 +104,16 @@ public final class LightBurst implements SpellAnimationGroup {
 	private final Node frontLayer;
 	
 	public LightBurst() {
+		this(0);
+	}
+	
+	/**
+	 * @param seed the seed of the random gradients that make up the burst
+	 */
+	public LightBurst(long seed) {
 		this.horizontalGradients = new LinearGradient[gradientFrames];
 		this.verticalGradients = new LinearGradient[gradientFrames];
-		this.initializeGradients(new Random());
+		this.initializeGradients(new Random(seed));
 		
 		this.blackRect = bufferedRectangle();
 		this.horizontalGradientRect = bufferedRectangle();
@@ -97,7 +97,14 @@ public final class LightBurstPixel implements SpellAnimationGroup {
 	private final Node frontLayer;
 	
 	public LightBurstPixel() {
-		this.burstFrames = this.makeBurstFrames(new Random());
+		this(0);
+	}
+	
+	/**
+	 * @param seed the seed of the random pixels that make up the burst
+	 */
+	public LightBurstPixel(long seed) {
+		this.burstFrames = this.makeBurstFrames(new Random(seed));
 		
 		this.blackRect = backgroundRectangle();
 		this.whiteRect = backgroundRectangle();
@@ -127,9 +127,19 @@ public Animation getAnimation(
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
 		Animation hitAnimation
+	) {
+		return this.getAnimation(origin, target, panAnimation, shakeAnimation, hitAnimation, new Random());
+	}
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation,
+		Random rng
 	) {
 		final double direction = Math.signum(origin.getX() - target.getX());
-		final Random rng = new Random();
 		final Point2D vector = target.subtract(origin);
 		
 		final Animation backdropFadeIn = Animations.simpleAnimation(backdropFadeInTime, nightBackdrop.opacityProperty(), 0.0, 1.0);
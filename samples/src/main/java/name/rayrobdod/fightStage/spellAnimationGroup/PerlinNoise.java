@@ -35,7 +35,7 @@ public PerlinNoise(Random seed) {
 		final List<Integer> range = IntStream.rangeClosed(0, max)
 				.boxed().collect(Collectors.toList());
 		permutation = new java.util.ArrayList<>(range);
-		Collections.shuffle(permutation);
+		Collections.shuffle(permutation, seed);
 		g1 = seed.doubles(max + 1)
 				.boxed().collect(Collectors.toList());
 		g2 = seed.doubles(max + 1)
@@ -41,6 +41,7 @@
 import javafx.scene.shape.Path;
 import javafx.util.Duration;
 
+import name.rayrobdod.fightStage.Animations;
 import name.rayrobdod.fightStage.BattlePanAnimations;
 import name.rayrobdod.fightStage.ShakeAnimationBiFunction;
 import name.rayrobdod.fightStage.SpellAnimationGroup;
@@ -147,14 +148,32 @@ public Animation getAnimation(
 		ShakeAnimationBiFunction shakeAnimation,
 		Animation hitAnimation
 	) {
-		final PerlinNoise noise = new PerlinNoise(new Random());
+		return this.getAnimation(origin, target, panAnimation, shakeAnimation, hitAnimation, new Random());
+	}
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation,
+		Random rng
+	) {
+		final PerlinNoise noise = new PerlinNoise(rng);
 		final Timeline effectTimeline = new Timeline();
+		final ParallelTransition motions = new ParallelTransition();
 		
 		Duration iTime = Duration.ZERO;
 		for (int i = 0; i < particleCount; i++) {
 			
 			effectTimeline.getKeyFrames().addAll(
 				particleKeyFrames(
+					iTime,
+					i
+				)
+			);
+			motions.getChildren().add(
+				particleMotion(
 					iTime,
 					i,
 					noise,
@@ -167,6 +186,7 @@ public Animation getAnimation(
 		return new ParallelTransition(
 			panAnimation.panToDefender(),
 			effectTimeline,
+			motions,
 			new SequentialTransition(
 				new PauseTransition(particleGenerationTime.divide(4)),
 				new ParallelTransition(
@@ -179,9 +199,7 @@ public Animation getAnimation(
 	
 	private final List<KeyFrame> particleKeyFrames(
 		final Duration startTime,
-		final int particlePoolIndex,
-		final PerlinNoise noise,
-		final double centerX
+		final int particlePoolIndex
 	) {
 		final List<KeyFrame> retval = new java.util.LinkedList<>();
 		final CrescentPathParts particle = particlePool[particlePoolIndex];
@@ -197,6 +215,18 @@ private final List<KeyFrame> particleKeyFrames(
 					new KeyValue(particle.path.opacityProperty(), 0.0, Interpolator.EASE_IN))
 		));
 		
+		return retval;
+	}
+	
+	private final Animation particleMotion(
+		final Duration startTime,
+		final int particlePoolIndex,
+		final PerlinNoise noise,
+		final double centerX
+	) {
+		final CrescentPathParts particle = particlePool[particlePoolIndex];
+		final double durationSecs = particleMaxDuration.toSeconds();
+		
 		/* No perlin noise version
 		
 		retval.add(new KeyFrame(startTime,
@@ -213,28 +243,21 @@ private final List<KeyFrame> particleKeyFrames(
 		));
 		*/
 		
-		final double startTimeSecs = startTime.toSeconds();
-		for (double i = 0; i < particleMaxDuration.toSeconds(); i += 1d / 60d) {
-			final double currentTimeSecs = startTimeSecs + i;
-			final Duration currentTime = Duration.seconds(startTimeSecs + i);
-			final double fraction = i / particleMaxDuration.toSeconds();
-			
-			final double widthNoDrift = Interpolator.EASE_OUT.interpolate(tornadoBotWidth, tornadoTopWidth, fraction);
-			final double yNoDrift = Interpolator.LINEAR.interpolate(GROUND_Y, GROUND_Y - tornadoHeight, fraction);
-			
-			final double leftY = yNoDrift + noise.sum2D(particlePoolIndex / 10d, i * 12d, 4, 2, 2) * (tornadoHeight / 10);
-			final double rightY = yNoDrift + noise.sum2D(particlePoolIndex / 10d, 64 + i * 12d, 4, 2, 2) * (tornadoHeight / 10);
-			final double leftX = centerX - widthNoDrift / 2 + noise.sum2D(particlePoolIndex / 10d, 128 + i * 12d, 4, 2, 2) * (tornadoBotWidth / 2);
-			final double rightX = centerX + widthNoDrift / 2 + noise.sum2D(particlePoolIndex / 10d, 192 + i * 12d, 4, 2, 2) * (tornadoBotWidth / 2);
-			
-			retval.add(new KeyFrame(currentTime,
-				new KeyValue(particle.leftYProperty, leftY, Interpolator.LINEAR),
-				new KeyValue(particle.rightYProperty, rightY, Interpolator.LINEAR),
-				new KeyValue(particle.leftXProperty, leftX, Interpolator.LINEAR),
-				new KeyValue(particle.rightXProperty, rightX, Interpolator.LINEAR)
-			));
-		}
-		
+		final Animation retval = Animations.procedural(
+			particleMaxDuration,
+			java.util.Arrays.asList(particle.leftYProperty, particle.rightYProperty, particle.leftXProperty, particle.rightXProperty),
+			(fraction, values) -> {
+				final double i = fraction * durationSecs;
+				final double widthNoDrift = Interpolator.EASE_OUT.interpolate(tornadoBotWidth, tornadoTopWidth, fraction);
+				final double yNoDrift = Interpolator.LINEAR.interpolate(GROUND_Y, GROUND_Y - tornadoHeight, fraction);
+				
+				values[0] = yNoDrift + noise.sum2D(particlePoolIndex / 10d, i * 12d, 4, 2, 2) * (tornadoHeight / 10);
+				values[1] = yNoDrift + noise.sum2D(particlePoolIndex / 10d, 64 + i * 12d, 4, 2, 2) * (tornadoHeight / 10);
+				values[2] = centerX - widthNoDrift / 2 + noise.sum2D(particlePoolIndex / 10d, 128 + i * 12d, 4, 2, 2) * (tornadoBotWidth / 2);
+				values[3] = centerX + widthNoDrift / 2 + noise.sum2D(particlePoolIndex / 10d, 192 + i * 12d, 4, 2, 2) * (tornadoBotWidth / 2);
+			}
+		);
+		retval.setDelay(startTime);
 		return retval;
 	}
 }
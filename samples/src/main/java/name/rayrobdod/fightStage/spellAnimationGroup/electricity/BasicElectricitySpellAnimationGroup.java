@@ -15,6 +15,8 @@
  */
 package name.rayrobdod.fightStage.spellAnimationGroup.electricty;
 
+import java.util.Random;
+
 import javafx.animation.Animation;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
@@ -55,13 +57,25 @@ public Animation getAnimation(
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
 		Animation hitAnimation
+	) {
+		return this.getAnimation(origin, target, panAnimation, shakeAnimation, hitAnimation, new Random());
+	}
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation,
+		Random rng
 	) {
 		return animGenerator.getAnimation(
 			origin,
 			target,
 			panAnimation,
 			shakeAnimation,
-			hitAnimation
+			hitAnimation,
+			rng
 		);
 	}
 }
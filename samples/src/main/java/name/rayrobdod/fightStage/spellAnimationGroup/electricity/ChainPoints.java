@@ -30,7 +30,7 @@
  * <li>
  * </ul>
  * 
- * The generation does involve a {@link java.util.Random}, so this is not a functional function
+ * The generation draws from the provided {@link java.util.Random}, so the result depends on that Random's state
  */
 public final class ChainPoints implements JaggedLineFactory {
 	private static final double chainDeltaParMax = 30;
@@ -38,8 +38,7 @@ public final class ChainPoints implements JaggedLineFactory {
 	private static final double chainPerpMaxValue = 30;
 	private static final double chainPerpMinValue = -10;
 	
-	public List<Point2D> build(final Point2D origin, final Point2D target) {
-		final Random rng = new Random();
+	public List<Point2D> build(final Point2D origin, final Point2D target, final Random rng) {
 		final List<Point2D> retval = new ArrayList<>();
 		
 		final double distance = origin.distance(target);
@@ -19,6 +19,7 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -94,10 +95,11 @@ public Animation getAnimation(
 		Point2D target,
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
-		Animation hitAnimation
+		Animation hitAnimation,
+		Random rng
 	) {
-		final List<Point2D> line1 = lineGenerator.build(origin, target);
-		final List<Point2D> line2 = lineGenerator.build(origin, target);
+		final List<Point2D> line1 = lineGenerator.build(origin, target, rng);
+		final List<Point2D> line2 = lineGenerator.build(origin, target, rng);
 		final List<CornerPathSegment> sharpParts1 = points2cornerPathSegments(line1, sharpLineWidth);
 		final List<CornerPathSegment> sharpParts2 = points2cornerPathSegments(line2, sharpLineWidth);
 		final List<CornerPathSegment> blurredParts1 = points2cornerPathSegments(line1, blurredLineWidth);
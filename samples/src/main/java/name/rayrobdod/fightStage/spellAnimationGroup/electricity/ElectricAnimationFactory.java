@@ -15,6 +15,8 @@
  */
 package name.rayrobdod.fightStage.spellAnimationGroup.electricty;
 
+import java.util.Random;
+
 import javafx.animation.Animation;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
@@ -48,6 +50,7 @@ public Animation getAnimation(
 		Point2D target,
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
-		Animation hitAnimation
+		Animation hitAnimation,
+		Random rng
 	);
 }
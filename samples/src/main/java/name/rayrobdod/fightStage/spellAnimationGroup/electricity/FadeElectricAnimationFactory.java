@@ -16,6 +16,7 @@
 package name.rayrobdod.fightStage.spellAnimationGroup.electricty;
 
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -96,9 +97,10 @@ public Animation getAnimation(
 		Point2D target,
 		BattlePanAnimations panAnimation,
 		ShakeAnimationBiFunction shakeAnimation,
-		Animation hitAnimation
+		Animation hitAnimation,
+		Random rng
 	) {
-		final List<Double> coords = points2coordinates(lineGenerator.build(origin, target));
+		final List<Double> coords = points2coordinates(lineGenerator.build(origin, target, rng));
 		
 		final Timeline timeline = new Timeline();
 		timeline.getKeyFrames().add(new KeyFrame(Duration.ZERO,
@@ -16,17 +16,22 @@
 package name.rayrobdod.fightStage.spellAnimationGroup.electricty;
 
 import java.util.List;
+import java.util.Random;
 
 import javafx.geometry.Point2D;
 
 /**
  * A function which creates a Polyline based on an "origin" point and a "target" point
+ * 
+ * Any random values should be drawn from the `rng` parameter, such that the
+ * same parameters and a Random in the same state produce the same Polyline.
  */
 @FunctionalInterface
 public interface JaggedLineFactory {
 	
 	public List<Point2D> build(
 		Point2D origin,
-		Point2D target
+		Point2D target,
+		Random rng
 	);
 }
@@ -32,7 +32,7 @@
  * <li>Reaches as high as it needs to go offscreen
  * </ul>
  * 
- * The generation does involve a {@link java.util.Random}, so this is not a functional function
+ * The generation draws from the provided {@link java.util.Random}, so the result depends on that Random's state
  */
 public final class SkyBoltPoints implements JaggedLineFactory {
 	private static final double maxY = -500;
@@ -41,8 +41,7 @@ public final class SkyBoltPoints implements JaggedLineFactory {
 	private static final double deltaYMax = 30;
 	private static final double deltaYMin = 5;
 	
-	public List<Point2D> build(final Point2D origin, final Point2D target) {
-		final Random rng = new Random();
+	public List<Point2D> build(final Point2D origin, final Point2D target, final Random rng) {
 		final List<Point2D> retval = new ArrayList<>();
 		
 		double currentX = target.getX();
@@ -63,10 +63,17 @@ public final class ThunderStorm implements SpellAnimationGroup {
 	private final List<ElectricAnimationFactory> enemySparks;
 	
 	public ThunderStorm() {
+		this(0);
+	}
+	
+	/**
+	 * @param seed the seed of the random placement of the clouds
+	 */
+	public ThunderStorm(long seed) {
 		final Translate cloudLeftTranslate = new Translate();
 		final Translate cloudRightTranslate = new Translate();
 		
-		final Group clouds = ThunderStorm.createClouds(cloudLeftTranslate, cloudRightTranslate);
+		final Group clouds = ThunderStorm.createClouds(cloudLeftTranslate, cloudRightTranslate, new Random(seed));
 		this.cloudOpacity = clouds.opacityProperty();
 		this.cloudLeftTranslateX = cloudLeftTranslate.xProperty();
 		this.cloudRightTranslateX = cloudRightTranslate.xProperty();
@@ -103,7 +110,17 @@ public Animation getAnimation(
 		ShakeAnimationBiFunction shakeAnimation,
 		Animation hitAnimation
 	) {
-		final Random rng = new Random();
+		return this.getAnimation(origin, target, panAnimation, shakeAnimation, hitAnimation, new Random());
+	}
+	
+	public Animation getAnimation(
+		Point2D origin,
+		Point2D target,
+		BattlePanAnimations panAnimation,
+		ShakeAnimationBiFunction shakeAnimation,
+		Animation hitAnimation,
+		Random rng
+	) {
 		final Point2D midpoint = origin.midpoint(target);
 		
 		Timeline cloudInAnimation = new Timeline(
@@ -134,7 +151,8 @@ public Animation getAnimation(
 					createCloudSparkPoint(rng, target, midpoint),
 					BattlePanAnimations.nil(),
 					ShakeAnimationBiFunction.nil(),
-					Animations.nil()
+					Animations.nil(),
+					rng
 				))
 				.map(anim -> new SequentialTransition(
 					new PauseTransition(Duration.seconds(rng.nextDouble() * 2.5)),
@@ -146,7 +164,7 @@ public Animation getAnimation(
 		// `hpAndShakeAnimation` has a "called once and only once" requirement,
 		// and this allows me to put said animation in one place
 		Animation firstEnemySparkAnim = enemySparks.get(0).getAnimation(
-				origin, target, BattlePanAnimations.nil(), shakeAnimation, hitAnimation);
+				origin, target, BattlePanAnimations.nil(), shakeAnimation, hitAnimation, rng);
 		Animation enemySparkAnim = new ParallelTransition(
 			enemySparks.stream()
 				.skip(1)
@@ -154,7 +172,8 @@ public Animation getAnimation(
 					origin, target,
 					BattlePanAnimations.nil(),
 					ShakeAnimationBiFunction.nil(),
-					Animations.nil()
+					Animations.nil(),
+					rng
 				))
 				.toArray(Animation[]::new)
 		);
@@ -191,8 +210,7 @@ private static Point2D createCloudSparkPoint(Random rng, Point2D one, Point2D tw
 		);
 	}
 	
-	private static Group createClouds(Translate translateLeft, Translate translateRight) {
-		final Random rng = new Random();
+	private static Group createClouds(Translate translateLeft, Translate translateRight, Random rng) {
 		final int xRange = 800;
 		
 		final List<Circle> circles = new ArrayList<>();
@@ -15,7 +15,6 @@
  */
 package name.rayrobdod.fightStage.unitAnimationGroup;
 
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -26,7 +25,6 @@
 import javafx.animation.SequentialTransition;
 import javafx.animation.Timeline;
 import javafx.beans.property.DoubleProperty;
-import javafx.beans.value.WritableDoubleValue;
 import javafx.geometry.Point2D;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
@@ -40,6 +38,7 @@
 import name.rayrobdod.fightStage.Animations;
 import name.rayrobdod.fightStage.AttackModifier;
 import name.rayrobdod.fightStage.ConsecutiveAttackDescriptor;
+import name.rayrobdod.fightStage.RolloverState;
 import name.rayrobdod.fightStage.Side;
 import name.rayrobdod.fightStage.UnitAnimationGroup;
 
@@ -98,29 +97,29 @@ public BowGuy() {
 	public Node objectBehindLayer() { return this.backLayer; }
 	
 	@Override
-	public Point2D getSpellTarget(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+	public Point2D getSpellTarget(RolloverState rolloverState) {
 		return new Point2D(
-			rolloverKeyValues.get(translateXProp) - rolloverKeyValues.get(scaleXProp) * 5,
-			rolloverKeyValues.get(translateYProp) - 60
+			rolloverState.get(translateXProp) - rolloverState.get(scaleXProp) * 5,
+			rolloverState.get(translateYProp) - 60
 		);
 	}
 	
 	@Override
-	public double getCurrentXOffset(Map<WritableDoubleValue, Double> rolloverKeyValues) {
-		return rolloverKeyValues.get(translateXProp);
+	public double getCurrentXOffset(RolloverState rolloverState) {
+		return rolloverState.get(translateXProp);
 	}
 
-	private Point2D getSpellOrigin(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+	private Point2D getSpellOrigin(RolloverState rolloverState) {
 		return new Point2D(
-			rolloverKeyValues.get(translateXProp) - rolloverKeyValues.get(scaleXProp) * 65,
-			rolloverKeyValues.get(translateYProp) - 60
+			rolloverState.get(translateXProp) - rolloverState.get(scaleXProp) * 65,
+			rolloverState.get(translateYProp) - 60
 		);
 	}
 	
 	@Override
 	public Animation getAttackAnimation(
 		  Function<Point2D, Animation> spellAnimationFun
-		, Map<WritableDoubleValue, Double> rolloverKeyValues
+		, RolloverState rolloverState
 		, Point2D target
 		, ConsecutiveAttackDescriptor consecutiveAttackDesc
 		, Set<AttackModifier> attackerModifiers
@@ -155,14 +154,14 @@ public Animation getAttackAnimation(
 		
 		return new SequentialTransition(
 			beforeSpellAnimation,
-			spellAnimationFun.apply(this.getSpellOrigin(rolloverKeyValues)),
+			spellAnimationFun.apply(this.getSpellOrigin(rolloverState)),
 			afterSpellAnimation
 		);
 	}
 	
 	@Override
 	public Animation getHitAnimation(
-		  Map<WritableDoubleValue, Double> rolloverKeyValues
+		  RolloverState rolloverState
 		, Set<AttackModifier> attackerModifiers
 		, Set<AttackModifier> defenderModifiers
 		, boolean isFinisher
@@ -179,14 +178,14 @@ public Animation getHitAnimation(
 		}
 	}
 	
-	@Override public Map<WritableDoubleValue, Double> getInitializingKeyValues(
+	@Override public RolloverState getInitializingRolloverState(
 		  Side side
 		, Point2D footPoint
 	) {
-		final Map<WritableDoubleValue, Double> retval = new java.util.HashMap<>();
-		retval.put(scaleXProp, (side == Side.LEFT ? -1.0 : 1.0));
-		retval.put(translateXProp, footPoint.getX());
-		retval.put(translateYProp, footPoint.getY());
+		final RolloverState retval = new RolloverState(3);
+		retval.add(scaleXProp, (side == Side.LEFT ? -1.0 : 1.0));
+		retval.add(translateXProp, footPoint.getX());
+		retval.add(translateYProp, footPoint.getY());
 		return retval;
 	}
 }
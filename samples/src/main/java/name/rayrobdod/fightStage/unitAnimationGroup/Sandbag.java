@@ -19,7 +19,6 @@
 import static name.rayrobdod.fightStage.PathElements.newBoundLineTo;
 import static name.rayrobdod.fightStage.PathElements.newBoundMoveTo;
 
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -33,7 +32,6 @@
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.value.WritableDoubleValue;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
@@ -44,6 +42,7 @@
 
 import name.rayrobdod.fightStage.AttackModifier;
 import name.rayrobdod.fightStage.ConsecutiveAttackDescriptor;
+import name.rayrobdod.fightStage.RolloverState;
 import name.rayrobdod.fightStage.Side;
 import name.rayrobdod.fightStage.UnitAnimationGroup;
 
@@ -131,48 +130,48 @@ public Sandbag(final int width, final int height) {
 	@Override
 	public Node objectBehindLayer() { return this.backLayer; }
 	
-	@Override public Map<WritableDoubleValue, Double> getInitializingKeyValues(
+	@Override public RolloverState getInitializingRolloverState(
 		  Side side
 		, Point2D footPoint
 	) {
-		final Map<WritableDoubleValue, Double> retval = new java.util.HashMap<>();
-		retval.put(scaleXProp, (side == Side.LEFT ? -1.0 : 1.0));
-		retval.put(moveXProp, footPoint.getX());
-		retval.put(moveYProp, footPoint.getY());
-		retval.put(indentProp, 0.0);
+		final RolloverState retval = new RolloverState(4);
+		retval.add(scaleXProp, (side == Side.LEFT ? -1.0 : 1.0));
+		retval.add(moveXProp, footPoint.getX());
+		retval.add(moveYProp, footPoint.getY());
+		retval.add(indentProp, 0.0);
 		return retval;
 	}
 	
 	@Override
-	public Point2D getSpellTarget(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+	public Point2D getSpellTarget(RolloverState rolloverState) {
 		return new Point2D(
-			rolloverKeyValues.get(moveXProp),
-			rolloverKeyValues.get(moveYProp) - this.height / 2
+			rolloverState.get(moveXProp),
+			rolloverState.get(moveYProp) - this.height / 2
 		);
 	}
 	
 	@Override
-	public double getCurrentXOffset(Map<WritableDoubleValue, Double> rolloverKeyValues) {
-		return rolloverKeyValues.get(moveXProp);
+	public double getCurrentXOffset(RolloverState rolloverState) {
+		return rolloverState.get(moveXProp);
 	}
 	
-	private Point2D getSpellOrigin(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+	private Point2D getSpellOrigin(RolloverState rolloverState) {
 		return new Point2D(
-			rolloverKeyValues.get(moveXProp),
-			rolloverKeyValues.get(moveYProp) - this.height * 1.5
+			rolloverState.get(moveXProp),
+			rolloverState.get(moveYProp) - this.height * 1.5
 		);
 	}
 	
 	@Override
 	public Animation getAttackAnimation(
 		  Function<Point2D, Animation> spellAnimationFun
-		, Map<WritableDoubleValue, Double> rolloverKeyValues
+		, RolloverState rolloverState
 		, Point2D target
 		, ConsecutiveAttackDescriptor consecutiveAttackDesc
 		, Set<AttackModifier> attackerModifiers
 		, boolean isFinisher
 	) {
-		final Animation spellAnimation = spellAnimationFun.apply(this.getSpellOrigin(rolloverKeyValues));
+		final Animation spellAnimation = spellAnimationFun.apply(this.getSpellOrigin(rolloverState));
 		
 		return new SequentialTransition(
 			new PauseTransition(Duration.millis(200)),
@@ -182,20 +181,20 @@ public Animation getAttackAnimation(
 	
 	@Override
 	public Animation getHitAnimation(
-		  Map<WritableDoubleValue, Double> rolloverKeyValues
+		  RolloverState rolloverState
 		, Set<AttackModifier> attackerModifiers
 		, Set<AttackModifier> defenderModifiers
 		, boolean isFinisher
 	) {
-		final double startIndent = rolloverKeyValues.get(indentProp);
+		final double startIndent = rolloverState.get(indentProp);
 		final double midIndent = Math.max(startIndent, this.height * 0.2);
 		final double endIndent = (isFinisher ? this.height * 0.3 : 0.0);
-		final double facing = rolloverKeyValues.get(scaleXProp);
-		final double startX = rolloverKeyValues.get(moveXProp);
+		final double facing = rolloverState.get(scaleXProp);
+		final double startX = rolloverState.get(moveXProp);
 		final double endX = startX + facing * 30;
 		
-		rolloverKeyValues.put(moveXProp, endX);
-		rolloverKeyValues.put(indentProp, endIndent);
+		rolloverState.set(moveXProp, endX);
+		rolloverState.set(indentProp, endIndent);
 			
 		return new Timeline(
 			new KeyFrame(Duration.ZERO,
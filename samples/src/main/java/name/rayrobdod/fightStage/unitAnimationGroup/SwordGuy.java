@@ -15,7 +15,6 @@
  */
 package name.rayrobdod.fightStage.unitAnimationGroup;
 
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -26,7 +25,6 @@
 import javafx.animation.SequentialTransition;
 import javafx.animation.Timeline;
 import javafx.beans.property.DoubleProperty;
-import javafx.beans.value.WritableDoubleValue;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Point2D;
@@ -43,6 +41,7 @@
 
 import name.rayrobdod.fightStage.AttackModifier;
 import name.rayrobdod.fightStage.ConsecutiveAttackDescriptor;
+import name.rayrobdod.fightStage.RolloverState;
 import name.rayrobdod.fightStage.Side;
 import name.rayrobdod.fightStage.UnitAnimationGroup;
 
@@ -144,22 +143,22 @@ public SwordGuy() {
 	public Node objectBehindLayer() { return this.backLayer; }
 	
 	@Override
-	public Point2D getSpellTarget(Map<WritableDoubleValue, Double> rolloverKeyValues) {
+	public Point2D getSpellTarget(RolloverState rolloverState) {
 		return new Point2D(
-			rolloverKeyValues.get(approachX) - rolloverKeyValues.get(facingScaleX) * 5,
-			rolloverKeyValues.get(approachY) - 60
+			rolloverState.get(approachX) - rolloverState.get(facingScaleX) * 5,
+			rolloverState.get(approachY) - 60
 		);
 	}
 	
 	@Override
-	public double getCurrentXOffset(Map<WritableDoubleValue, Double> rolloverKeyValues) {
-		return rolloverKeyValues.get(approachX);
+	public double getCurrentXOffset(RolloverState rolloverState) {
+		return rolloverState.get(approachX);
 	}
 	
 	@Override
 	public Animation getAttackAnimation(
 		  Function<Point2D, Animation> spellAnimationFun
-		, Map<WritableDoubleValue, Double> rolloverKeyValues
+		, RolloverState rolloverState
 		, Point2D target
 		, ConsecutiveAttackDescriptor consecutiveAttackDesc
 		, Set<AttackModifier> attackerModifiers
@@ -188,7 +187,7 @@ public Animation getAttackAnimation(
 			);
 		}
 
-		final double startCurrentXOffset = this.getCurrentXOffset(rolloverKeyValues);
+		final double startCurrentXOffset = this.getCurrentXOffset(rolloverState);
 		final double startingVector = target.getX() - startCurrentXOffset;
 		final double startingDistance = Math.abs(startingVector);
 		final double approachDistance = Math.max(0, startingDistance - approachToDistance);
@@ -206,7 +205,7 @@ public Animation getAttackAnimation(
 				new KeyValue(this.approachX, endCurrentXOffset, Interpolator.LINEAR)
 			));
 		}
-		rolloverKeyValues.put(approachX, endCurrentXOffset);
+		rolloverState.set(approachX, endCurrentXOffset);
 		
 		if (isFirst) {
 			beforeSpellAnimation.getKeyFrames().add(
@@ -281,14 +280,14 @@ public Animation getAttackAnimation(
 			thisTime = thisTime.add(Duration.millis(200));
 		}
 		
-		final double facingScaleXValue = rolloverKeyValues.get(facingScaleX);
+		final double facingScaleXValue = rolloverState.get(facingScaleX);
 		final Point2D spellOriginRelative = (isFinisher || isFirst || isOdd
 			? new Point2D(facingScaleXValue * (swordXLower + Math.cos(swordAngleLower * Math.PI / 180) * swordLength), swordYLower + Math.sin(swordAngleLower * Math.PI / 180) * swordLength)
 			: new Point2D(facingScaleXValue * (swordXRaise + Math.cos(swordAngleRaise * Math.PI / 180) * swordLength), swordYRaise + Math.sin(swordAngleRaise * Math.PI / 180) * swordLength)
 		);
 		final Point2D currentOffset = new Point2D(
-			rolloverKeyValues.get(approachX),
-			rolloverKeyValues.get(approachY)
+			rolloverState.get(approachX),
+			rolloverState.get(approachY)
 		);
 		final Point2D spellOrigin = spellOriginRelative.add(currentOffset);
 		
@@ -321,14 +320,14 @@ public Animation getVictoryAnimation() {
 		return anim;
 	}
 	
-	@Override public Map<WritableDoubleValue, Double> getInitializingKeyValues(
+	@Override public RolloverState getInitializingRolloverState(
 		  Side side
 		, Point2D footPoint
 	) {
-		final Map<WritableDoubleValue, Double> retval = new java.util.HashMap<>();
-		retval.put(facingScaleX, (side == Side.LEFT ? -1.0 : 1.0));
-		retval.put(approachX, footPoint.getX());
-		retval.put(approachY, footPoint.getY());
+		final RolloverState retval = new RolloverState(3);
+		retval.add(facingScaleX, (side == Side.LEFT ? -1.0 : 1.0));
+		retval.add(approachX, footPoint.getX());
+		retval.add(approachY, footPoint.getY());
 		return retval;
 	}
 	